@@ -0,0 +1,13 @@
+package dev.sushaanth.bookly.cache;
+
+/**
+ * A change that makes cached data stale on other nodes. Published as an application event
+ * by the cache that saw the change and relayed to the other nodes by {@link CacheInvalidationBus}.
+ *
+ * @param namespace Owner of the cache, used to route the invalidation to its {@link CacheInvalidationListener}
+ * @param cache     Name of the cache or region
+ * @param tenant    Tenant whose entries are stale, {@code null} for every tenant
+ * @param key       Stale entry, {@code null} for every entry of the tenant
+ */
+public record CacheInvalidation(String namespace, String cache, String tenant, String key) {
+}
@@ -0,0 +1,252 @@
+package dev.sushaanth.bookly.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps node-local caches coherent across the cluster using Postgres {@code LISTEN/NOTIFY}.
+ * <p>
+ * A {@link CacheInvalidation} published on one node is sent, once its transaction commits,
+ * as a {@code NOTIFY} on {@code cache.invalidation.channel}. Every other node listens on a
+ * dedicated connection and hands it to the {@link CacheInvalidationListener} for its
+ * namespace.
+ * <p>
+ * Notifications are only delivered to connected listeners, so anything sent while a node
+ * is disconnected is lost. Each node numbers its notifications. A receiver that sees a
+ * number skipped, or that has just reconnected, cannot know what it missed and drops
+ * everything from every listener instead. A send that fails still uses up its number, so
+ * the other nodes resync at the next notification.
+ */
+@Component
+@ConditionalOnProperty(name = "cache.invalidation.enabled", havingValue = "true", matchIfMissing = true)
+public class CacheInvalidationBus implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    // Keeps each payload well below the 8000 byte NOTIFY limit
+    private static final int MAX_INVALIDATIONS_PER_NOTIFY = 40;
+    // A quiet connection is checked this often, as a dead one would otherwise just look quiet
+    private static final Duration HEARTBEAT = Duration.ofSeconds(30);
+
+    private record Message(String node, long sequence, List<CacheInvalidation> invalidations) {
+    }
+
+    private final DataSource dataSource;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<CacheInvalidationListener> listeners;
+    private final MeterRegistry meterRegistry;
+    private final String channel;
+    private final Duration pollInterval;
+    private final Duration maxReconnectBackoff;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, Long> lastSequences = new ConcurrentHashMap<>();
+    // Not a monitor: a virtual thread blocked on JDBC while holding one pins its carrier
+    private final ReentrantLock sendLock = new ReentrantLock();
+    private long sequence;
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public CacheInvalidationBus(DataSource dataSource,
+                                ObjectMapper objectMapper,
+                                ObjectProvider<CacheInvalidationListener> listeners,
+                                MeterRegistry meterRegistry,
+                                @Value("${cache.invalidation.channel:cache_invalidation}") String channel,
+                                @Value("${cache.invalidation.poll-interval:500ms}") Duration pollInterval,
+                                @Value("${cache.invalidation.max-reconnect-backoff:30s}") Duration maxReconnectBackoff) {
+        this.dataSource = dataSource;
+        this.objectMapper = objectMapper;
+        this.listeners = listeners;
+        this.meterRegistry = meterRegistry;
+        this.channel = channel;
+        this.pollInterval = pollInterval;
+        this.maxReconnectBackoff = maxReconnectBackoff;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInvalidation(CacheInvalidation invalidation) {
+        publish(List.of(invalidation));
+    }
+
+    /**
+     * Send invalidations to the other nodes straight away.
+     */
+    public void publish(List<CacheInvalidation> invalidations) {
+        for (int from = 0; from < invalidations.size(); from += MAX_INVALIDATIONS_PER_NOTIFY) {
+            List<CacheInvalidation> chunk = invalidations.subList(from, Math.min(invalidations.size(), from + MAX_INVALIDATIONS_PER_NOTIFY));
+            // Numbers must reach the channel in order, or receivers would see gaps that are not there
+            sendLock.lock();
+            try {
+                send(new Message(nodeId, ++sequence, chunk));
+            } finally {
+                sendLock.unlock();
+            }
+        }
+    }
+
+    private void send(Message message) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+            ps.setString(1, channel);
+            ps.setString(2, objectMapper.writeValueAsString(message));
+            ps.executeQuery().close();
+            count("bookly.cache.invalidation.sent", "Cache invalidations sent to other nodes", message.invalidations().size());
+        } catch (SQLException | JsonProcessingException e) {
+            logger.warn("Could not send {} cache invalidations, other nodes will resync", message.invalidations().size(), e);
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        running = true;
+        listenerThread = Thread.ofPlatform().name("cache-invalidation").daemon().start(this::listen);
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+            try {
+                // The listener notices within one poll and unlistens before its connection goes back
+                listenerThread.join(pollInterval.multipliedBy(4).toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            listenerThread = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        boolean reconnecting = false;
+        long backoff = pollInterval.toMillis();
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                try {
+                    try (Statement statement = connection.createStatement()) {
+                        statement.execute("LISTEN " + channel);
+                    }
+                    if (reconnecting) {
+                        logger.info("Cache invalidation listener reconnected");
+                        resync("reconnect");
+                    }
+                    backoff = pollInterval.toMillis();
+                    PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                    long lastHeard = System.nanoTime();
+                    while (running) {
+                        PGNotification[] notifications = pgConnection.getNotifications((int) pollInterval.toMillis());
+                        if (notifications != null && notifications.length > 0) {
+                            for (PGNotification notification : notifications) {
+                                receive(notification.getParameter());
+                            }
+                            lastHeard = System.nanoTime();
+                        } else if (System.nanoTime() - lastHeard > HEARTBEAT.toNanos()) {
+                            heartbeat(connection);
+                            lastHeard = System.nanoTime();
+                        }
+                    }
+                } finally {
+                    // The connection goes back to the pool, which must not keep receiving notifications
+                    unlisten(connection);
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("Cache invalidation listener lost its connection, retrying in {} ms", backoff, e);
+                reconnecting = true;
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                backoff = Math.min(backoff * 2, maxReconnectBackoff.toMillis());
+            }
+        }
+    }
+
+    private void receive(String payload) {
+        Message message;
+        try {
+            message = objectMapper.readValue(payload, Message.class);
+        } catch (JsonProcessingException e) {
+            logger.warn("Ignoring malformed cache invalidation {}", payload, e);
+            return;
+        }
+        if (nodeId.equals(message.node())) {
+            return;
+        }
+
+        Long last = lastSequences.put(message.node(), message.sequence());
+        if (last != null && message.sequence() != last + 1) {
+            logger.warn("Missed cache invalidations {} to {} from node {}", last + 1, message.sequence() - 1, message.node());
+            resync("gap");
+        }
+
+        count("bookly.cache.invalidation.received", "Cache invalidations received from other nodes", message.invalidations().size());
+        for (CacheInvalidation invalidation : message.invalidations()) {
+            listeners.orderedStream()
+                    .filter(listener -> listener.namespace().equals(invalidation.namespace()))
+                    .forEach(listener -> listener.invalidate(invalidation));
+        }
+    }
+
+    private void resync(String reason) {
+        // Numbering restarts from whatever arrives next
+        lastSequences.clear();
+        listeners.orderedStream().forEach(CacheInvalidationListener::invalidateAll);
+        Counter.builder("bookly.cache.invalidation.resyncs")
+                .description("Full cache resyncs after invalidations may have been missed")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private void heartbeat(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SELECT 1");
+        }
+    }
+
+    private void unlisten(Connection connection) {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("UNLISTEN *");
+        } catch (SQLException e) {
+            logger.debug("Could not unlisten on a broken connection", e);
+        }
+    }
+
+    private void count(String name, String description, int amount) {
+        Counter.builder(name)
+                .description(description)
+                .register(meterRegistry)
+                .increment(amount);
+    }
+}
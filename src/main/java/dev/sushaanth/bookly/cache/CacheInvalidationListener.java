@@ -0,0 +1,22 @@
+package dev.sushaanth.bookly.cache;
+
+/**
+ * A node-local cache that drops entries when another node reports them stale.
+ */
+public interface CacheInvalidationListener {
+
+    /**
+     * Namespace of the invalidations this listener handles.
+     */
+    String namespace();
+
+    /**
+     * Drop what the invalidation describes. Called on the bus thread.
+     */
+    void invalidate(CacheInvalidation invalidation);
+
+    /**
+     * Drop everything, because invalidations may have been missed.
+     */
+    void invalidateAll();
+}
@@ -1,7 +1,10 @@
 package dev.sushaanth.bookly.exception;
 
+import java.time.Duration;
+
 public class BooklyException extends RuntimeException {
     private final ErrorCode errorCode;
+    private final Duration retryAfter;
 
     public enum ErrorCode {
         // Auth errors
@@ -10,20 +13,41 @@ public class BooklyException extends RuntimeException {
         EXPIRED_OTP,
         ALREADY_USED_OTP,
         EXPIRED_INVITATION,
+        ACCESS_DENIED,
 
         // Tenant errors
         TENANT_NOT_FOUND,
         TENANT_CREATION_FAILED,
         TENANT_ALREADY_EXISTS,
-        INVALID_TENANT
+        INVALID_TENANT,
+        TENANT_WARMING_UP,
+
+        // Email errors
+        EMAIL_RATE_LIMITED,
+
+        // Request errors
+        INVALID_PAGE_CURSOR,
+        INVALID_IMPORT
     }
 
     public BooklyException(ErrorCode errorCode, String message) {
+        this(errorCode, message, null);
+    }
+
+    public BooklyException(ErrorCode errorCode, String message, Duration retryAfter) {
         super(message);
         this.errorCode = errorCode;
+        this.retryAfter = retryAfter;
     }
 
     public ErrorCode getErrorCode() {
         return errorCode;
     }
+
+    /**
+     * How long the client should wait before retrying, or {@code null} if not applicable
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
 }
\ No newline at end of file
@@ -1,20 +1,41 @@
 package dev.sushaanth.bookly.exception;
 
+import dev.sushaanth.bookly.multitenancy.context.TenantContext;
+import dev.sushaanth.bookly.multitenancy.hibernation.TenantHibernationService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import java.net.URI;
+import java.sql.SQLException;
 import java.time.Instant;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
+    private static final String UNDEFINED_TABLE = "42P01";
+
+    private final TenantHibernationService hibernationService;
+
+    public GlobalExceptionHandler(TenantHibernationService hibernationService) {
+        this.hibernationService = hibernationService;
+    }
 
     @ExceptionHandler(BooklyException.class)
-    public ProblemDetail handleBooklyException(BooklyException ex) {
+    public ProblemDetail handleBooklyException(BooklyException ex, HttpServletResponse response) {
         HttpStatus status = mapErrorCodeToStatus(ex.getErrorCode());
 
+        if (ex.getRetryAfter() != null) {
+            // Round up so clients never retry before the limit has reset
+            long seconds = ex.getRetryAfter().plusMillis(999).toSeconds();
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, seconds)));
+        } else if (status == HttpStatus.SERVICE_UNAVAILABLE) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "5");
+        }
+
         ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(
                 status,
                 ex.getMessage()
@@ -28,15 +49,33 @@ public class GlobalExceptionHandler {
         return problemDetail;
     }
 
+    // A node that has not yet picked up another node's hibernation finds the tenant's tables gone
+    @ExceptionHandler(DataAccessException.class)
+    public ProblemDetail handleDataAccessException(DataAccessException ex, HttpServletResponse response) {
+        String schemaName = TenantContext.getTenantId();
+        if (schemaName != null && ex.getMostSpecificCause() instanceof SQLException sqlException
+                && UNDEFINED_TABLE.equals(sqlException.getSQLState())) {
+            try {
+                hibernationService.checkHibernated(schemaName);
+            } catch (BooklyException e) {
+                return handleBooklyException(e, response);
+            }
+        }
+        throw ex;
+    }
+
     private HttpStatus mapErrorCodeToStatus(BooklyException.ErrorCode errorCode) {
         return switch (errorCode) {
             case INVALID_CREDENTIALS -> HttpStatus.UNAUTHORIZED;
-            case INVALID_OTP, INVALID_TENANT -> HttpStatus.BAD_REQUEST;
+            case ACCESS_DENIED -> HttpStatus.FORBIDDEN;
+            case INVALID_OTP, INVALID_TENANT, INVALID_PAGE_CURSOR, INVALID_IMPORT -> HttpStatus.BAD_REQUEST;
             case EXPIRED_OTP, EXPIRED_INVITATION -> HttpStatus.GONE;
             case ALREADY_USED_OTP -> HttpStatus.CONFLICT;
             case TENANT_NOT_FOUND -> HttpStatus.NOT_FOUND;
             case TENANT_ALREADY_EXISTS -> HttpStatus.CONFLICT;
             case TENANT_CREATION_FAILED -> HttpStatus.INTERNAL_SERVER_ERROR;
+            case TENANT_WARMING_UP -> HttpStatus.SERVICE_UNAVAILABLE;
+            case EMAIL_RATE_LIMITED -> HttpStatus.TOO_MANY_REQUESTS;
             default -> HttpStatus.INTERNAL_SERVER_ERROR;
         };
     }
@@ -48,10 +87,15 @@ public class GlobalExceptionHandler {
             case EXPIRED_OTP -> "Verification Code Expired";
             case ALREADY_USED_OTP -> "Verification Code Already Used";
             case EXPIRED_INVITATION -> "Invitation Expired";
+            case ACCESS_DENIED -> "Access Denied";
             case TENANT_NOT_FOUND -> "Tenant Not Found";
             case TENANT_ALREADY_EXISTS -> "Tenant Already Exists";
             case TENANT_CREATION_FAILED -> "Tenant Creation Failed";
             case INVALID_TENANT -> "Invalid Tenant";
+            case TENANT_WARMING_UP -> "Tenant Warming Up";
+            case EMAIL_RATE_LIMITED -> "Too Many Emails";
+            case INVALID_PAGE_CURSOR -> "Invalid Page Cursor";
+            case INVALID_IMPORT -> "Invalid Import";
             default -> "Error";
         };
     }
@@ -0,0 +1,7 @@
+package dev.sushaanth.bookly.multitenancy.cache;
+
+/**
+ * Key of an entry within a tenant's segment: the Spring cache it belongs to and its key there.
+ */
+record CacheKey(String cacheName, Object key) {
+}
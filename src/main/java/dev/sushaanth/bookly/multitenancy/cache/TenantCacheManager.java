@@ -0,0 +1,216 @@
+package dev.sushaanth.bookly.multitenancy.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Policy;
+import dev.sushaanth.bookly.cache.CacheInvalidation;
+import dev.sushaanth.bookly.cache.CacheInvalidationListener;
+import dev.sushaanth.bookly.multitenancy.context.TenantContext;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Spring {@link CacheManager} that keeps every tenant's entries apart.
+ * <p>
+ * Each tenant gets its own segment, a bounded Caffeine cache shared by all cache names, so
+ * keys are in effect prefixed with the tenant in {@link TenantContext} and one tenant can
+ * neither read nor evict another's entries. A segment holds at most
+ * {@code multitenancy.cache.max-entries-per-tenant} entries and evicts by W-TinyLFU within
+ * the tenant.
+ * <p>
+ * The segments together are held to {@code multitenancy.cache.max-entries}, shared out
+ * max-min fairly: when the budget is exceeded, tenants using less than an equal share keep
+ * everything and the largest tenants are trimmed down to what is left. Limits are
+ * recomputed every few seconds, so the budget may be overshot briefly in between.
+ * <p>
+ * Entries, limits, hits, misses and evictions are published per tenant as
+ * {@code bookly.cache.tenant.*}. Evictions and clears are published as
+ * {@link CacheInvalidation}s for the other nodes.
+ */
+@Component
+public class TenantCacheManager implements CacheManager, CacheInvalidationListener {
+    private static final String DEFAULT_TENANT = "public";
+    private static final String NAMESPACE = "spring";
+
+    private final Map<String, TenantScopedCache> caches = new ConcurrentHashMap<>();
+    private final Map<String, Segment> segments = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long maxEntries;
+    private final long maxEntriesPerTenant;
+    private final Duration expireAfterWrite;
+    private volatile long tenantLimit;
+
+    private record Segment(String tenant, Cache<CacheKey, Object> cache, List<Meter> meters) {
+    }
+
+    public TenantCacheManager(MeterRegistry meterRegistry,
+                              ApplicationEventPublisher eventPublisher,
+                              @Value("${multitenancy.cache.max-entries:50000}") long maxEntries,
+                              @Value("${multitenancy.cache.max-entries-per-tenant:5000}") long maxEntriesPerTenant,
+                              @Value("${multitenancy.cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.meterRegistry = meterRegistry;
+        this.eventPublisher = eventPublisher;
+        this.maxEntries = maxEntries;
+        this.maxEntriesPerTenant = maxEntriesPerTenant;
+        this.expireAfterWrite = expireAfterWrite;
+        this.tenantLimit = Math.min(maxEntries, maxEntriesPerTenant);
+
+        Gauge.builder("bookly.cache.tenants", segments, Map::size)
+                .description("Tenants holding entries in the tenant cache")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public org.springframework.cache.Cache getCache(String name) {
+        return caches.computeIfAbsent(name, cacheName -> new TenantScopedCache(cacheName, this));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    @Override
+    public String namespace() {
+        return NAMESPACE;
+    }
+
+    @Override
+    public void invalidate(CacheInvalidation invalidation) {
+        Segment segment = segments.get(invalidation.tenant());
+        if (segment == null) {
+            return;
+        }
+        // Keys arrive as strings, so they are matched by their string form
+        segment.cache().asMap().keySet().removeIf(cacheKey -> cacheKey.cacheName().equals(invalidation.cache())
+                && (invalidation.key() == null || invalidation.key().equals(String.valueOf(cacheKey.key()))));
+    }
+
+    @Override
+    public void invalidateAll() {
+        segments.values().forEach(segment -> segment.cache().invalidateAll());
+    }
+
+    /**
+     * Tell the other nodes to drop an entry, or with a {@code null} key a whole cache, of the
+     * current tenant.
+     */
+    void publishInvalidation(String cacheName, Object key) {
+        eventPublisher.publishEvent(new CacheInvalidation(NAMESPACE, cacheName, currentTenant(),
+                key == null ? null : String.valueOf(key)));
+    }
+
+    /**
+     * Share the global budget out between the tenants and drop segments that have emptied.
+     */
+    @Scheduled(fixedDelayString = "${multitenancy.cache.rebalance-ms:5000}")
+    public synchronized void rebalance() {
+        segments.values().forEach(segment -> {
+            segment.cache().cleanUp();
+            if (segment.cache().estimatedSize() == 0 && segments.remove(segment.tenant(), segment)) {
+                segment.meters().forEach(meterRegistry::remove);
+            }
+        });
+
+        List<Segment> active = List.copyOf(segments.values());
+        long[] demands = active.stream().mapToLong(this::demand).toArray();
+        tenantLimit = fairShare(demands);
+        active.forEach(segment -> segment.cache().policy().eviction()
+                .ifPresent(eviction -> eviction.setMaximum(tenantLimit)));
+    }
+
+    /**
+     * Entries the tenant would like to hold. A tenant that has filled its limit may want
+     * more, so it asks for the full quota; otherwise it wants what it has.
+     */
+    private long demand(Segment segment) {
+        long size = segment.cache().estimatedSize();
+        long limit = segment.cache().policy().eviction().map(Policy.Eviction::getMaximum).orElse(Long.MAX_VALUE);
+        return size >= limit ? maxEntriesPerTenant : size;
+    }
+
+    /**
+     * The largest per-tenant limit that keeps the tenants' demands within the global budget:
+     * every tenant asking for less keeps all its entries and the rest are cut down to it.
+     */
+    long fairShare(long[] demands) {
+        long[] sorted = demands.clone();
+        Arrays.sort(sorted);
+        long remaining = maxEntries;
+        for (int i = 0; i < sorted.length; i++) {
+            long share = remaining / (sorted.length - i);
+            if (sorted[i] > share) {
+                // Never cut a tenant off entirely, even with more tenants than the budget has entries
+                return Math.max(1, Math.min(share, maxEntriesPerTenant));
+            }
+            remaining -= sorted[i];
+        }
+        return Math.min(maxEntries, maxEntriesPerTenant);
+    }
+
+    /**
+     * The segment of the tenant in the current context, created on first use.
+     */
+    Cache<CacheKey, Object> currentSegment() {
+        return segments.computeIfAbsent(currentTenant(), this::createSegment).cache();
+    }
+
+    private static String currentTenant() {
+        return Objects.requireNonNullElse(TenantContext.getTenantId(), DEFAULT_TENANT);
+    }
+
+    private Segment createSegment(String tenant) {
+        Cache<CacheKey, Object> cache = Caffeine.newBuilder()
+                .maximumSize(tenantLimit)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        return new Segment(tenant, cache, registerMeters(tenant, cache));
+    }
+
+    private List<Meter> registerMeters(String tenant, Cache<CacheKey, Object> cache) {
+        return List.of(
+                Gauge.builder("bookly.cache.tenant.entries", cache, Cache::estimatedSize)
+                        .description("Entries held for the tenant")
+                        .tag("tenant", tenant)
+                        .register(meterRegistry),
+                Gauge.builder("bookly.cache.tenant.limit", cache,
+                                c -> c.policy().eviction().map(Policy.Eviction::getMaximum).orElse(0L))
+                        .description("Entries the tenant may currently hold")
+                        .tag("tenant", tenant)
+                        .register(meterRegistry),
+                Gauge.builder("bookly.cache.tenant.hit.ratio", cache, c -> c.stats().hitRate())
+                        .description("Share of the tenant's lookups served from the cache")
+                        .tag("tenant", tenant)
+                        .register(meterRegistry),
+                FunctionCounter.builder("bookly.cache.tenant.gets", cache, c -> c.stats().hitCount())
+                        .description("Cache lookups by the tenant")
+                        .tags("tenant", tenant, "result", "hit")
+                        .register(meterRegistry),
+                FunctionCounter.builder("bookly.cache.tenant.gets", cache, c -> c.stats().missCount())
+                        .description("Cache lookups by the tenant")
+                        .tags("tenant", tenant, "result", "miss")
+                        .register(meterRegistry),
+                FunctionCounter.builder("bookly.cache.tenant.evictions", cache, c -> c.stats().evictionCount())
+                        .description("Entries evicted to keep the tenant within its limit")
+                        .tag("tenant", tenant)
+                        .register(meterRegistry));
+    }
+}
@@ -0,0 +1,81 @@
+package dev.sushaanth.bookly.multitenancy.cache;
+
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * One named cache as seen from the current tenant. Entries live in the tenant's segment of
+ * {@link TenantCacheManager}, keyed by cache name and key, so every operation, including
+ * {@link #clear()}, only ever touches the current tenant's entries. Evictions and clears are
+ * passed on to the other nodes; puts are not, as a put after a miss cannot be told apart
+ * from a {@code @CachePut}.
+ */
+final class TenantScopedCache extends AbstractValueAdaptingCache {
+    private final String name;
+    private final TenantCacheManager cacheManager;
+
+    TenantScopedCache(String name, TenantCacheManager cacheManager) {
+        super(true);
+        this.name = name;
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return cacheManager.currentSegment();
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        return cacheManager.currentSegment().getIfPresent(new CacheKey(name, key));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return (T) fromStoreValue(cacheManager.currentSegment().get(new CacheKey(name, key), cacheKey -> {
+            try {
+                return toStoreValue(valueLoader.call());
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+        }));
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        cacheManager.currentSegment().put(new CacheKey(name, key), toStoreValue(value));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        Object existing = cacheManager.currentSegment().asMap().putIfAbsent(new CacheKey(name, key), toStoreValue(value));
+        return toValueWrapper(existing);
+    }
+
+    @Override
+    public void evict(Object key) {
+        cacheManager.currentSegment().invalidate(new CacheKey(name, key));
+        cacheManager.publishInvalidation(name, key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = cacheManager.currentSegment().asMap().remove(new CacheKey(name, key)) != null;
+        // Another node may hold the entry even when this one does not
+        cacheManager.publishInvalidation(name, key);
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        cacheManager.currentSegment().asMap().keySet().removeIf(cacheKey -> cacheKey.cacheName().equals(name));
+        cacheManager.publishInvalidation(name, null);
+    }
+}
@@ -0,0 +1,22 @@
+package dev.sushaanth.bookly.multitenancy.context;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Executor that runs every task with the {@link ContextSnapshot} of the thread that handed it
+ * over. Use it where work leaves the application executors, for example
+ * {@code CompletableFuture.supplyAsync(task, new ContextPropagatingExecutor(executor))}; each
+ * stage of a chain built on it sees the tenant of the thread that scheduled that stage.
+ */
+public final class ContextPropagatingExecutor implements Executor {
+    private final Executor delegate;
+
+    public ContextPropagatingExecutor(Executor delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        delegate.execute(ContextSnapshot.capture().wrap(task));
+    }
+}
@@ -0,0 +1,14 @@
+package dev.sushaanth.bookly.multitenancy.context;
+
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * Runs each task with the {@link ContextSnapshot} of the thread that submitted it.
+ */
+public class ContextPropagatingTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable task) {
+        return ContextSnapshot.capture().wrap(task);
+    }
+}
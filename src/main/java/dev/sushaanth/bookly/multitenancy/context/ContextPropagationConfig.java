@@ -0,0 +1,29 @@
+package dev.sushaanth.bookly.multitenancy.context;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * Carries the tenant, security context and MDC of the submitting thread into the
+ * application executors.
+ * <p>
+ * Spring Boot hands a single {@link TaskDecorator} bean to its executor builders, so the
+ * decorator reaches {@code applicationTaskExecutor}, and with it {@code @Async} methods and
+ * async MVC requests, on platform and virtual threads alike, as well as every executor a
+ * service builds from {@code ThreadPoolTaskExecutorBuilder}. Scheduled jobs are left alone:
+ * they belong to no tenant.
+ * <p>
+ * Parallel streams run on the common pool, which cannot be decorated. Wrap the per-element
+ * function with {@link ContextSnapshot#wrap(java.util.function.Function)} or submit the work
+ * to an application executor instead. {@code CompletableFuture} chains should run on a
+ * {@link ContextPropagatingExecutor}.
+ */
+@Configuration
+public class ContextPropagationConfig {
+
+    @Bean
+    public TaskDecorator contextPropagatingTaskDecorator() {
+        return new ContextPropagatingTaskDecorator();
+    }
+}
@@ -0,0 +1,85 @@
+package dev.sushaanth.bookly.multitenancy.context;
+
+import org.slf4j.MDC;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * The tenant, security context and MDC of the thread that captured it, to be reapplied on
+ * whichever thread runs the work later.
+ * <p>
+ * Wrapped work runs with the captured state and puts back whatever the running thread had
+ * before, so a pooled thread never keeps it and work run inline, such as the caller's own
+ * share of a parallel stream, leaves the caller unchanged.
+ */
+public final class ContextSnapshot {
+    private final String tenant;
+    private final SecurityContext securityContext;
+    private final Map<String, String> mdc;
+
+    private ContextSnapshot(String tenant, SecurityContext securityContext, Map<String, String> mdc) {
+        this.tenant = tenant;
+        this.securityContext = securityContext;
+        this.mdc = mdc;
+    }
+
+    /**
+     * Capture the state of the current thread.
+     */
+    public static ContextSnapshot capture() {
+        return new ContextSnapshot(TenantContext.getTenantId(), SecurityContextHolder.getContext(), MDC.getCopyOfContextMap());
+    }
+
+    public Runnable wrap(Runnable task) {
+        return () -> TenantContext.runWhere(tenant, () -> withSecurityAndMdc(() -> {
+            task.run();
+            return null;
+        }));
+    }
+
+    public <T> Supplier<T> wrap(Supplier<T> task) {
+        return () -> TenantContext.getWhere(tenant, () -> withSecurityAndMdc(task::get));
+    }
+
+    public <T, R> Function<T, R> wrap(Function<T, R> task) {
+        return value -> TenantContext.getWhere(tenant, () -> withSecurityAndMdc(() -> task.apply(value)));
+    }
+
+    public <T> Callable<T> wrap(Callable<T> task) {
+        return () -> TenantContext.callWhere(tenant, () -> withSecurityAndMdc(task::call));
+    }
+
+    @FunctionalInterface
+    private interface Work<T, X extends Exception> {
+        T run() throws X;
+    }
+
+    private <T, X extends Exception> T withSecurityAndMdc(Work<T, X> work) throws X {
+        SecurityContext previousSecurityContext = SecurityContextHolder.getContext();
+        Map<String, String> previousMdc = MDC.getCopyOfContextMap();
+        apply(securityContext, mdc);
+        try {
+            return work.run();
+        } finally {
+            apply(previousSecurityContext, previousMdc);
+        }
+    }
+
+    private static void apply(SecurityContext securityContext, Map<String, String> mdc) {
+        if (securityContext.getAuthentication() == null) {
+            SecurityContextHolder.clearContext();
+        } else {
+            SecurityContextHolder.setContext(securityContext);
+        }
+        if (mdc == null) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(mdc);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package dev.sushaanth.bookly.multitenancy.context;
+
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.util.function.Function;
+
+/**
+ * The tenant a reactive pipeline works for, carried in its Reactor {@link Context}.
+ * <p>
+ * A pipeline hops between threads, so the thread-bound {@link TenantContext} means nothing
+ * inside it. The tenant is written into the subscriber context where the pipeline is
+ * subscribed, usually by a controller from the request's {@link TenantContext}, and read
+ * back by every operator upstream of that point.
+ */
+public final class ReactiveTenantContext {
+    private static final Class<ReactiveTenantContext> TENANT_KEY = ReactiveTenantContext.class;
+
+    private ReactiveTenantContext() {
+    }
+
+    /**
+     * The tenant of the subscribing pipeline, or empty outside any tenant.
+     */
+    public static Mono<String> getTenantId() {
+        return Mono.deferContextual(context -> Mono.justOrEmpty(context.<String>getOrEmpty(TENANT_KEY)));
+    }
+
+    /**
+     * Bind a tenant for everything upstream, for use with {@code contextWrite}. A {@code null}
+     * tenant removes any binding, so the pipeline runs against the public schema.
+     */
+    public static Function<Context, Context> withTenant(String tenant) {
+        return context -> tenant == null ? context.delete(TENANT_KEY) : context.put(TENANT_KEY, tenant);
+    }
+}
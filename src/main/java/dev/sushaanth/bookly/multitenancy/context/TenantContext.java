@@ -3,21 +3,86 @@ package dev.sushaanth.bookly.multitenancy.context;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * The tenant the current thread works for, bound for the length of an operation.
+ * <p>
+ * A tenant is only ever bound with {@link #runWhere}, {@link #getWhere} or {@link #callWhere},
+ * which restore the previous binding however the operation ends, so a tenant can neither
+ * leak into the next task on a pooled thread nor be left behind by a missed clear. The
+ * binding is not inherited by threads started inside the operation; work handed to an
+ * executor has to carry the tenant itself.
+ * <p>
+ * The methods mirror {@code java.lang.ScopedValue}, which is still a preview API in Java 21.
+ * Once it is final the binding can move onto it without touching the callers.
+ */
 public final class TenantContext {
     private static final Logger logger = LoggerFactory.getLogger(TenantContext.class);
 
-    private static final ThreadLocal<String> tenantId = new InheritableThreadLocal<>();
+    private static final ThreadLocal<String> tenantId = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
 
+    /**
+     * The tenant bound to the current thread, or {@code null} outside any tenant.
+     */
     public static String getTenantId() {
         return tenantId.get();
     }
 
-    public static void setTenantId(String tenant) {
+    /**
+     * Run an operation for a tenant. A {@code null} tenant runs it outside any tenant,
+     * against the public schema.
+     */
+    public static void runWhere(String tenant, Runnable operation) {
+        String previous = bind(tenant);
+        try {
+            operation.run();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * Run an operation for a tenant and return its result.
+     */
+    public static <R> R getWhere(String tenant, Supplier<? extends R> operation) {
+        String previous = bind(tenant);
+        try {
+            return operation.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * Run an operation that may throw checked exceptions for a tenant and return its result.
+     */
+    public static <R> R callWhere(String tenant, Callable<? extends R> operation) throws Exception {
+        String previous = bind(tenant);
+        try {
+            return operation.call();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    private static String bind(String tenant) {
         logger.debug("Setting current tenant to {}", tenant);
-        tenantId.set(tenant);
+        String previous = tenantId.get();
+        restore(tenant);
+        return previous;
     }
 
-    public static void clear() {
-        tenantId.remove();
+    private static void restore(String tenant) {
+        // Removing rather than setting null keeps idle threads from holding an entry
+        if (tenant == null) {
+            tenantId.remove();
+        } else {
+            tenantId.set(tenant);
+        }
     }
 }
@@ -1,6 +1,7 @@
 package dev.sushaanth.bookly.multitenancy.data.hibernate;
 
 import dev.sushaanth.bookly.multitenancy.context.TenantContext;
+import dev.sushaanth.bookly.multitenancy.hibernation.TenantHibernationService;
 import org.hibernate.cfg.AvailableSettings;
 import org.hibernate.engine.jdbc.connections.spi.MultiTenantConnectionProvider;
 import org.slf4j.Logger;
@@ -19,9 +20,11 @@ public class ConnectionProvider implements MultiTenantConnectionProvider, Hibern
     private static final String DEFAULT_TENANT = "public";
 
     private final DataSource dataSource;
+    private final TenantHibernationService hibernationService;
 
-    public ConnectionProvider(DataSource dataSource) {
+    public ConnectionProvider(DataSource dataSource, TenantHibernationService hibernationService) {
         this.dataSource = dataSource;
+        this.hibernationService = hibernationService;
     }
 
     @Override
@@ -38,10 +41,17 @@ public class ConnectionProvider implements MultiTenantConnectionProvider, Hibern
     public Connection getConnection(Object tenantIdentifier) throws SQLException {
         logger.debug("Get connection for tenant {}", tenantIdentifier);
 
+        boolean tenantSchema = tenantIdentifier != null && !tenantIdentifier.toString().isEmpty() && !DEFAULT_TENANT.equals(tenantIdentifier.toString());
+
+        // Restore the schema first if the tenant has been hibernated
+        if (tenantSchema) {
+            hibernationService.ensureAvailable(tenantIdentifier.toString());
+        }
+
         final Connection connection = getAnyConnection();
 
         // Set the schema to the tenant schema or use the default schema if no tenant provided
-        if (tenantIdentifier != null && !tenantIdentifier.toString().isEmpty() && !DEFAULT_TENANT.equals(tenantIdentifier.toString())) {
+        if (tenantSchema) {
             connection.setSchema(tenantIdentifier.toString());
         }
 
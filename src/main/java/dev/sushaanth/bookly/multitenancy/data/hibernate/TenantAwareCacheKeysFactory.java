@@ -0,0 +1,66 @@
+package dev.sushaanth.bookly.multitenancy.data.hibernate;
+
+import jakarta.persistence.Table;
+import org.hibernate.cache.internal.DefaultCacheKeysFactory;
+import org.hibernate.cache.spi.CacheKeysFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.persister.entity.EntityPersister;
+
+/**
+ * Builds second-level cache keys that carry the schema the cached row lives in.
+ * <p>
+ * Entities in the tenant schemas are keyed by the tenant identifier of the session, so the
+ * same id in two tenants gives two different entries. Entities mapped to a fixed schema,
+ * such as {@code @Table(schema = "public")}, are keyed by that schema instead: the row is
+ * shared by every tenant, and an update made from one tenant must replace the only copy
+ * rather than leave stale ones behind for the others.
+ */
+class TenantAwareCacheKeysFactory implements CacheKeysFactory {
+
+    private static final ClassValue<String> FIXED_SCHEMAS = new ClassValue<>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            Table table = type.getAnnotation(Table.class);
+            return table == null ? "" : table.schema();
+        }
+    };
+
+    @Override
+    public Object createCollectionKey(Object id, CollectionPersister persister, SessionFactoryImplementor factory, String tenantIdentifier) {
+        String keyTenant = keyTenant(persister.getOwnerEntityPersister().getMappedClass(), tenantIdentifier);
+        return DefaultCacheKeysFactory.staticCreateCollectionKey(id, persister, factory, keyTenant);
+    }
+
+    @Override
+    public Object createEntityKey(Object id, EntityPersister persister, SessionFactoryImplementor factory, String tenantIdentifier) {
+        String keyTenant = keyTenant(persister.getMappedClass(), tenantIdentifier);
+        return DefaultCacheKeysFactory.staticCreateEntityKey(id, persister, factory, keyTenant);
+    }
+
+    @Override
+    public Object createNaturalIdKey(Object naturalIdValues, EntityPersister persister, SharedSessionContractImplementor session) {
+        return DefaultCacheKeysFactory.staticCreateNaturalIdKey(naturalIdValues, persister, session);
+    }
+
+    @Override
+    public Object getEntityId(Object cacheKey) {
+        return DefaultCacheKeysFactory.staticGetEntityId(cacheKey);
+    }
+
+    @Override
+    public Object getCollectionId(Object cacheKey) {
+        return DefaultCacheKeysFactory.staticGetCollectionId(cacheKey);
+    }
+
+    @Override
+    public Object getNaturalIdValues(Object cacheKey) {
+        return DefaultCacheKeysFactory.staticGetNaturalIdValues(cacheKey);
+    }
+
+    private static String keyTenant(Class<?> entityClass, String tenantIdentifier) {
+        String schema = FIXED_SCHEMAS.get(entityClass);
+        return schema.isEmpty() ? tenantIdentifier : schema;
+    }
+}
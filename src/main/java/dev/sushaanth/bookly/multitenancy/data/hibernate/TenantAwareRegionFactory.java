@@ -0,0 +1,312 @@
+package dev.sushaanth.bookly.multitenancy.data.hibernate;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.sushaanth.bookly.cache.CacheInvalidation;
+import dev.sushaanth.bookly.cache.CacheInvalidationListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.internal.CacheKeyImplementation;
+import org.hibernate.cache.spi.CacheKeysFactory;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Second-level cache regions held in bounded, in-process Caffeine caches.
+ * <p>
+ * Keys come from {@link TenantAwareCacheKeysFactory}, so every entry carries the schema of
+ * the row and tenants cannot read each other's entries. Each region is limited in size and
+ * expires entries after a time to live; both can be set per region with
+ * {@code jpa.cache.regions.<region>.maximum-size} and {@code .expire-after-write}, falling
+ * back to {@code jpa.cache.maximum-size} and {@code jpa.cache.expire-after-write}.
+ * Hit, miss and eviction counts are published as {@code cache.*} metrics tagged with the
+ * region name.
+ * <p>
+ * The update timestamps region is never bounded: dropping a timestamp would let the query
+ * cache serve results older than the last write to their tables.
+ * <p>
+ * Changes made through Hibernate on this node are published as {@link CacheInvalidation}s:
+ * entries locked for an update or delete, evicted entries and regions, and invalidated
+ * table spaces of cached entities. Invalidations from other nodes are applied directly to
+ * the local caches, without publishing them again.
+ */
+@Component
+public class TenantAwareRegionFactory extends RegionFactoryTemplate
+        implements HibernatePropertiesCustomizer, CacheInvalidationListener {
+    private static final String PROPERTY_PREFIX = "jpa.cache.regions.";
+    private static final String NAMESPACE = "jpa";
+
+    private final CacheKeysFactory cacheKeysFactory = new TenantAwareCacheKeysFactory();
+    private final Map<String, Cache<Object, Object>> regions = new ConcurrentHashMap<>();
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long defaultMaximumSize;
+    private final Duration defaultExpireAfterWrite;
+    private volatile TimestampsStorageAccess timestamps;
+
+    public TenantAwareRegionFactory(Environment environment,
+                                    MeterRegistry meterRegistry,
+                                    ApplicationEventPublisher eventPublisher,
+                                    @Value("${jpa.cache.maximum-size:10000}") long defaultMaximumSize,
+                                    @Value("${jpa.cache.expire-after-write:10m}") Duration defaultExpireAfterWrite) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+        this.eventPublisher = eventPublisher;
+        this.defaultMaximumSize = defaultMaximumSize;
+        this.defaultExpireAfterWrite = defaultExpireAfterWrite;
+    }
+
+    /**
+     * Drop every entity and collection entry cached for a tenant, on this node and the others,
+     * for example once its schema has been removed.
+     */
+    public void evictTenant(String tenantIdentifier) {
+        regions.forEach((region, cache) -> {
+            evict(cache, tenantIdentifier, null);
+            eventPublisher.publishEvent(new CacheInvalidation(NAMESPACE, region, tenantIdentifier, null));
+        });
+    }
+
+    @Override
+    public String namespace() {
+        return NAMESPACE;
+    }
+
+    @Override
+    public void invalidate(CacheInvalidation invalidation) {
+        TimestampsStorageAccess timestampsStorage = timestamps;
+        if (timestampsStorage != null && timestampsStorage.region().equals(invalidation.cache())) {
+            // Queries this node cached over the space are stale from now on
+            timestampsStorage.cache().put(invalidation.key(), nextTimestamp());
+            return;
+        }
+        Cache<Object, Object> cache = regions.get(invalidation.cache());
+        if (cache == null) {
+            return;
+        }
+        if (invalidation.tenant() == null && invalidation.key() == null) {
+            cache.invalidateAll();
+        } else {
+            evict(cache, invalidation.tenant(), invalidation.key());
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        // Timestamps stay: without them cached queries would look fresh, and the query regions are cleared anyway
+        regions.values().forEach(Cache::invalidateAll);
+    }
+
+    private static void evict(Cache<Object, Object> cache, String tenant, String id) {
+        cache.asMap().keySet().removeIf(key -> key instanceof CacheKeyImplementation cacheKey
+                && Objects.equals(tenant, cacheKey.getTenantId())
+                && (id == null || id.equals(String.valueOf(cacheKey.getId()))));
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, this);
+    }
+
+    @Override
+    protected void prepareForUse(SessionFactoryOptions settings, Map<String, Object> configValues) {
+    }
+
+    @Override
+    protected void releaseFromUse() {
+        regions.values().forEach(Cache::invalidateAll);
+        regions.clear();
+        timestamps = null;
+    }
+
+    @Override
+    protected CacheKeysFactory getImplicitCacheKeysFactory() {
+        return cacheKeysFactory;
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig regionConfig,
+                                                                    DomainDataRegionBuildingContext buildingContext) {
+        return new RegionStorageAccess(regionConfig.getRegionName(), boundedCache(regionConfig.getRegionName()));
+    }
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(String regionName, SessionFactoryImplementor sessionFactory) {
+        return new RegionStorageAccess(regionName, boundedCache(regionName));
+    }
+
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess(String regionName, SessionFactoryImplementor sessionFactory) {
+        // One entry per table space, so the region stays small without a bound
+        Cache<Object, Object> cache = monitor(regionName, Caffeine.newBuilder().recordStats().build());
+        timestamps = new TimestampsStorageAccess(regionName, cache, sessionFactory);
+        return timestamps;
+    }
+
+    private Cache<Object, Object> boundedCache(String regionName) {
+        long maximumSize = environment.getProperty(PROPERTY_PREFIX + regionName + ".maximum-size", Long.class, defaultMaximumSize);
+        Duration expireAfterWrite = environment.getProperty(PROPERTY_PREFIX + regionName + ".expire-after-write", Duration.class, defaultExpireAfterWrite);
+        return monitor(regionName, Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build());
+    }
+
+    private Cache<Object, Object> monitor(String regionName, Cache<Object, Object> cache) {
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, regionName, Tags.of("cache.manager", "hibernate"));
+    }
+
+    /**
+     * An entity, collection or query results region. An entry is soft locked before its row
+     * is updated or deleted, which is when the other nodes are told to drop their copy;
+     * plain puts are loads and stay local.
+     */
+    private final class RegionStorageAccess implements DomainDataStorageAccess {
+        private final String region;
+        private final Cache<Object, Object> cache;
+
+        RegionStorageAccess(String region, Cache<Object, Object> cache) {
+            this.region = region;
+            this.cache = cache;
+            regions.put(region, cache);
+        }
+
+        @Override
+        public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+            return cache.getIfPresent(key);
+        }
+
+        @Override
+        public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+            cache.put(key, value);
+            if (value instanceof SoftLock) {
+                publish(key);
+            }
+        }
+
+        @Override
+        public boolean contains(Object key) {
+            return cache.asMap().containsKey(key);
+        }
+
+        @Override
+        public void evictData() {
+            cache.invalidateAll();
+            eventPublisher.publishEvent(new CacheInvalidation(NAMESPACE, region, null, null));
+        }
+
+        @Override
+        public void evictData(Object key) {
+            cache.invalidate(key);
+            publish(key);
+        }
+
+        @Override
+        public void release() {
+            cache.invalidateAll();
+        }
+
+        private void publish(Object key) {
+            eventPublisher.publishEvent(key instanceof CacheKeyImplementation cacheKey
+                    ? new CacheInvalidation(NAMESPACE, region, cacheKey.getTenantId(), String.valueOf(cacheKey.getId()))
+                    : new CacheInvalidation(NAMESPACE, region, null, null));
+        }
+    }
+
+    /**
+     * The update timestamps region. Invalidated spaces of cached entities are published, so
+     * the other nodes stop serving queries cached over them.
+     */
+    private final class TimestampsStorageAccess implements StorageAccess {
+        private final String region;
+        private final Cache<Object, Object> cache;
+        private final SessionFactoryImplementor sessionFactory;
+        private volatile Set<String> cachedEntitySpaces;
+
+        TimestampsStorageAccess(String region, Cache<Object, Object> cache, SessionFactoryImplementor sessionFactory) {
+            this.region = region;
+            this.cache = cache;
+            this.sessionFactory = sessionFactory;
+        }
+
+        String region() {
+            return region;
+        }
+
+        Cache<Object, Object> cache() {
+            return cache;
+        }
+
+        @Override
+        public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+            return cache.getIfPresent(key);
+        }
+
+        @Override
+        public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+            cache.put(key, value);
+            if (cachedEntitySpaces().contains(key)) {
+                eventPublisher.publishEvent(new CacheInvalidation(NAMESPACE, region, null, String.valueOf(key)));
+            }
+        }
+
+        @Override
+        public boolean contains(Object key) {
+            return cache.asMap().containsKey(key);
+        }
+
+        @Override
+        public void evictData() {
+            cache.invalidateAll();
+        }
+
+        @Override
+        public void evictData(Object key) {
+            cache.invalidate(key);
+        }
+
+        @Override
+        public void release() {
+            cache.invalidateAll();
+        }
+
+        private Set<String> cachedEntitySpaces() {
+            // The metamodel is not complete yet when the region is built
+            Set<String> spaces = cachedEntitySpaces;
+            if (spaces == null) {
+                Set<String> found = new HashSet<>();
+                sessionFactory.getMappingMetamodel().forEachEntityDescriptor(persister -> {
+                    if (persister.canWriteToCache()) {
+                        Collections.addAll(found, persister.getPropertySpaces());
+                    }
+                });
+                spaces = cachedEntitySpaces = Set.copyOf(found);
+            }
+            return spaces;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package dev.sushaanth.bookly.multitenancy.data.r2dbc;
+
+import dev.sushaanth.bookly.multitenancy.hibernation.TenantHibernationService;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * R2DBC access for the reactive read endpoints, on a pool of its own next to Hikari.
+ * <p>
+ * The pool connects to the database the JDBC data source is configured for. Neither the pool
+ * nor the routing factory is exposed as a {@code ConnectionFactory} bean, as Spring Boot backs
+ * off its {@code DataSource} as soon as it sees one, and JPA needs it.
+ */
+@Configuration
+@ConditionalOnProperty(name = "reactive.enabled", havingValue = "true")
+public class ReactiveDataConfig implements DisposableBean {
+    private static final String JDBC_PREFIX = "jdbc:";
+
+    private final ConnectionPool pool;
+
+    public ReactiveDataConfig(JdbcConnectionDetails connectionDetails,
+                              @Value("${reactive.pool.max-size:20}") int maxSize) {
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(r2dbcUrl(connectionDetails.getJdbcUrl()))
+                .mutate()
+                .option(ConnectionFactoryOptions.USER, connectionDetails.getUsername());
+        if (connectionDetails.getPassword() != null) {
+            options.option(ConnectionFactoryOptions.PASSWORD, connectionDetails.getPassword());
+        }
+        this.pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options.build()))
+                .name("bookly-r2dbc")
+                .maxSize(maxSize)
+                .build());
+    }
+
+    @Bean
+    public DatabaseClient reactiveDatabaseClient(TenantHibernationService hibernationService) {
+        return DatabaseClient.create(new TenantRoutingConnectionFactory(pool, new ReactiveTenantIdentifierResolver(), hibernationService));
+    }
+
+    @Override
+    public void destroy() {
+        pool.dispose();
+    }
+
+    private static String r2dbcUrl(String jdbcUrl) {
+        if (!jdbcUrl.startsWith(JDBC_PREFIX)) {
+            throw new IllegalStateException("Cannot derive an R2DBC URL from " + jdbcUrl);
+        }
+        // Driver settings in the query string are specific to JDBC
+        int query = jdbcUrl.indexOf('?');
+        return "r2dbc:" + jdbcUrl.substring(JDBC_PREFIX.length(), query < 0 ? jdbcUrl.length() : query);
+    }
+}
@@ -0,0 +1,16 @@
+package dev.sushaanth.bookly.multitenancy.data.r2dbc;
+
+import dev.sushaanth.bookly.multitenancy.context.ReactiveTenantContext;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of the Hibernate {@code TenantIdentifierResolver}: the schema of the
+ * tenant in the subscriber context, falling back to the public schema.
+ */
+public class ReactiveTenantIdentifierResolver {
+    static final String DEFAULT_TENANT = "public";
+
+    public Mono<String> resolveCurrentTenantIdentifier() {
+        return ReactiveTenantContext.getTenantId().defaultIfEmpty(DEFAULT_TENANT);
+    }
+}
@@ -0,0 +1,66 @@
+package dev.sushaanth.bookly.multitenancy.data.r2dbc;
+
+import dev.sushaanth.bookly.multitenancy.hibernation.TenantHibernationService;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of the Hibernate {@code ConnectionProvider}: hands out pooled R2DBC
+ * connections pointed at the schema of the tenant in the subscriber context.
+ * <p>
+ * R2DBC has no equivalent of {@code Connection.setSchema}, so {@code search_path} is set
+ * on every connection as it is handed out, including to {@code public} when there is no
+ * tenant. A connection back in the pool may still point at its last tenant, but nothing
+ * reaches it without passing through here first.
+ */
+public class TenantRoutingConnectionFactory implements ConnectionFactory {
+    private static final Logger logger = LoggerFactory.getLogger(TenantRoutingConnectionFactory.class);
+
+    private final ConnectionFactory delegate;
+    private final ReactiveTenantIdentifierResolver tenantIdentifierResolver;
+    private final TenantHibernationService hibernationService;
+
+    public TenantRoutingConnectionFactory(ConnectionFactory delegate,
+                                          ReactiveTenantIdentifierResolver tenantIdentifierResolver,
+                                          TenantHibernationService hibernationService) {
+        this.delegate = delegate;
+        this.tenantIdentifierResolver = tenantIdentifierResolver;
+        this.hibernationService = hibernationService;
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return tenantIdentifierResolver.resolveCurrentTenantIdentifier().flatMap(tenantIdentifier -> {
+            logger.debug("Get connection for tenant {}", tenantIdentifier);
+
+            // Restore the schema first if the tenant has been hibernated
+            Mono<Void> available = ReactiveTenantIdentifierResolver.DEFAULT_TENANT.equals(tenantIdentifier)
+                    ? Mono.empty()
+                    : Mono.fromRunnable(() -> hibernationService.ensureAvailable(tenantIdentifier));
+
+            return available.then(Mono.from(delegate.create()))
+                    .flatMap(connection -> setSearchPath(connection, tenantIdentifier)
+                            .thenReturn(connection)
+                            .onErrorResume(e -> Mono.from(connection.close()).then(Mono.error(e))));
+        });
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return delegate.getMetadata();
+    }
+
+    private static Mono<Void> setSearchPath(Connection connection, String schema) {
+        // set_config takes the schema as a bound value, quoted so it is read as a single identifier
+        return Flux.from(connection.createStatement("SELECT set_config('search_path', $1, false)")
+                        .bind("$1", '"' + schema.replace("\"", "\"\"") + '"')
+                        .execute())
+                .flatMap(result -> result.map((row, metadata) -> row))
+                .then();
+    }
+}
@@ -0,0 +1,209 @@
+package dev.sushaanth.bookly.multitenancy.hibernation;
+
+import dev.sushaanth.bookly.multitenancy.schema.SchemaDdlReader;
+import dev.sushaanth.bookly.multitenancy.schema.SchemaDdlReader.SchemaDdl;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.copy.CopyOut;
+import org.springframework.stereotype.Component;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams a tenant schema to and from an archive using the PostgreSQL COPY protocol.
+ * <p>
+ * An archive holds the schema DDL, the current sequence values and the binary COPY
+ * stream of every table. Table data is written in length-prefixed frames so it never
+ * has to be buffered in memory. Callers own the connection and its transaction.
+ */
+@Component
+public class TenantArchiver {
+    private static final int MAGIC = 0x424B4152; // "BKAR"
+    private static final int FORMAT_VERSION = 1;
+
+    private static final String TABLES_SQL =
+            "SELECT tablename FROM pg_tables WHERE schemaname = ? ORDER BY tablename";
+
+    private static final String SEQUENCES_SQL =
+            "SELECT sequencename, last_value FROM pg_sequences WHERE schemaname = ? ORDER BY sequencename";
+
+    /**
+     * Write the schema to the archive, locking its tables against writes until the
+     * surrounding transaction ends.
+     *
+     * @return Number of tables archived
+     */
+    public int archive(Connection connection, String schemaName, DataOutputStream out) throws SQLException, IOException {
+        List<String> tables = listTables(connection, schemaName);
+        String schema = SchemaDdlReader.quote(schemaName);
+
+        try (Statement statement = connection.createStatement()) {
+            for (String table : tables) {
+                statement.execute("LOCK TABLE " + schema + "." + SchemaDdlReader.quote(table) + " IN EXCLUSIVE MODE");
+            }
+        }
+
+        SchemaDdl ddl = SchemaDdlReader.readDdl(connection, schemaName);
+
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        writeStrings(out, ddl.preData());
+        writeStrings(out, ddl.postData());
+        writeSequences(connection, schemaName, out);
+
+        CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+        out.writeInt(tables.size());
+        for (String table : tables) {
+            writeString(out, table);
+            CopyOut copyOut = copyManager.copyOut(
+                    "COPY " + schema + "." + SchemaDdlReader.quote(table) + " TO STDOUT (FORMAT binary)");
+            byte[] frame;
+            while ((frame = copyOut.readFromCopy()) != null) {
+                out.writeInt(frame.length);
+                out.write(frame);
+            }
+            out.writeInt(0);
+        }
+        out.flush();
+        return tables.size();
+    }
+
+    /**
+     * Recreate the schema from the archive. Data is loaded before constraints and
+     * indexes are created.
+     */
+    public void restore(Connection connection, String schemaName, DataInputStream in) throws SQLException, IOException {
+        if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+            throw new IOException("Unrecognised tenant archive for schema " + schemaName);
+        }
+        List<String> preData = readStrings(in);
+        List<String> postData = readStrings(in);
+
+        String schema = SchemaDdlReader.quote(schemaName);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SCHEMA " + schema);
+            statement.execute("SET LOCAL search_path TO " + schema);
+            for (String ddl : preData) {
+                statement.execute(ddl);
+            }
+        }
+
+        restoreSequences(connection, in);
+
+        CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+        int tableCount = in.readInt();
+        byte[] buffer = new byte[64 * 1024];
+        for (int i = 0; i < tableCount; i++) {
+            String table = readString(in);
+            CopyIn copyIn = copyManager.copyIn(
+                    "COPY " + schema + "." + SchemaDdlReader.quote(table) + " FROM STDIN (FORMAT binary)");
+            try {
+                int length;
+                while ((length = in.readInt()) > 0) {
+                    if (length > buffer.length) {
+                        buffer = new byte[length];
+                    }
+                    in.readFully(buffer, 0, length);
+                    copyIn.writeToCopy(buffer, 0, length);
+                }
+                copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            for (String ddl : postData) {
+                statement.execute(ddl);
+            }
+        }
+    }
+
+    private List<String> listTables(Connection connection, String schemaName) throws SQLException {
+        List<String> tables = new ArrayList<>();
+        try (PreparedStatement ps = connection.prepareStatement(TABLES_SQL)) {
+            ps.setString(1, schemaName);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    tables.add(rs.getString(1));
+                }
+            }
+        }
+        return tables;
+    }
+
+    private void writeSequences(Connection connection, String schemaName, DataOutputStream out)
+            throws SQLException, IOException {
+        List<String> names = new ArrayList<>();
+        List<Long> values = new ArrayList<>();
+        try (PreparedStatement ps = connection.prepareStatement(SEQUENCES_SQL)) {
+            ps.setString(1, schemaName);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    long lastValue = rs.getLong(2);
+                    if (!rs.wasNull()) {
+                        names.add(rs.getString(1));
+                        values.add(lastValue);
+                    }
+                }
+            }
+        }
+        out.writeInt(names.size());
+        for (int i = 0; i < names.size(); i++) {
+            writeString(out, names.get(i));
+            out.writeLong(values.get(i));
+        }
+    }
+
+    private void restoreSequences(Connection connection, DataInputStream in) throws SQLException, IOException {
+        int count = in.readInt();
+        try (PreparedStatement ps = connection.prepareStatement("SELECT setval(?::regclass, ?, true)")) {
+            for (int i = 0; i < count; i++) {
+                ps.setString(1, SchemaDdlReader.quote(readString(in)));
+                ps.setLong(2, in.readLong());
+                ps.execute();
+            }
+        }
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
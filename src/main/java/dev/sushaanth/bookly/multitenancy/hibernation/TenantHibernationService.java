@@ -0,0 +1,385 @@
+package dev.sushaanth.bookly.multitenancy.hibernation;
+
+import dev.sushaanth.bookly.exception.BooklyException;
+import dev.sushaanth.bookly.exception.BooklyException.ErrorCode;
+import dev.sushaanth.bookly.multitenancy.schema.SchemaDdlReader;
+import dev.sushaanth.bookly.multitenancy.schema.TenantMigrations;
+import dev.sushaanth.bookly.scheduling.ScheduledJobCoordinator;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Archives idle tenant schemas to compressed files and restores them on demand.
+ * <p>
+ * Tenant activity is tracked in memory on every connection checkout and flushed to
+ * {@code public.tenants.last_accessed_at} in batches. Inactive tenants, or tenants idle
+ * past the configured threshold, have their schema streamed to an archive and dropped.
+ * The next connection request for a hibernated tenant starts a background restore and
+ * is answered with {@link ErrorCode#TENANT_WARMING_UP} until the schema is back.
+ * <p>
+ * Hibernation and restore both lock the tenant row, so concurrent nodes never work on
+ * the same tenant at once. Any node may restore a tenant another node archived, so the
+ * archive directory must be storage shared by every node; archives are recorded by file
+ * name relative to it. A node that has not yet picked up another node's hibernation
+ * finds out when a query misses the tenant's tables, see {@link #checkHibernated}. Everything here is plain JDBC because the connection
+ * provider depends on this service while the JPA infrastructure is still being built.
+ */
+@Service
+public class TenantHibernationService {
+    private static final Logger logger = LoggerFactory.getLogger(TenantHibernationService.class);
+    // Shorter than the daily schedule, so a node firing a little late does not start a second pass
+    private static final Duration HIBERNATION_WINDOW = Duration.ofHours(12);
+
+    private static final String CANDIDATES_SQL = """
+            SELECT schema_name FROM public.tenants
+            WHERE hibernated_at IS NULL AND schema_name IS NOT NULL
+              AND (active = FALSE OR last_accessed_at < ?)
+              AND NOT EXISTS (SELECT 1 FROM public.tenant_offboarding_jobs j WHERE j.tenant_id = tenants.id)
+            """;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final TenantArchiver archiver;
+    private final TenantMigrations tenantMigrations;
+    private final AsyncTaskExecutor taskExecutor;
+    private final MeterRegistry meterRegistry;
+    private final ScheduledJobCoordinator jobCoordinator;
+
+    private final Set<String> hibernated = ConcurrentHashMap.newKeySet();
+    private final Set<String> restoring = ConcurrentHashMap.newKeySet();
+    private final Map<String, LocalDateTime> lastAccess = new ConcurrentHashMap<>();
+
+    @Value("${multitenancy.hibernation.enabled:false}")
+    private boolean enabled;
+
+    @Value("${multitenancy.hibernation.idle-threshold:30d}")
+    private Duration idleThreshold;
+
+    @Value("${multitenancy.hibernation.archive-dir:tenant-archives}")
+    private String archiveDirectory;
+
+    @Value("${multitenancy.hibernation.job-partitions:4}")
+    private int jobPartitions;
+
+    public TenantHibernationService(DataSource dataSource,
+                                    TenantArchiver archiver,
+                                    TenantMigrations tenantMigrations,
+                                    @Qualifier("applicationTaskExecutor") AsyncTaskExecutor taskExecutor,
+                                    MeterRegistry meterRegistry,
+                                    ScheduledJobCoordinator jobCoordinator) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.archiver = archiver;
+        this.tenantMigrations = tenantMigrations;
+        this.taskExecutor = taskExecutor;
+        this.meterRegistry = meterRegistry;
+        this.jobCoordinator = jobCoordinator;
+
+        Gauge.builder("bookly.tenant.hibernated", hibernated, Set::size)
+                .description("Number of tenants whose schema is archived")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void checkArchiveDirectory() {
+        Path directory = archiveRoot();
+        if (enabled && !(Files.isDirectory(directory) && Files.isWritable(directory))) {
+            // Not created here: a missing mount would otherwise leave archives on one node's disk
+            throw new IllegalStateException("multitenancy.hibernation.archive-dir " + directory
+                    + " must be an existing, writable directory on storage shared by every node");
+        }
+    }
+
+    /**
+     * Resolve an archive recorded in {@code public.tenants.archive_location}.
+     */
+    public Path resolveArchive(String location) {
+        // Archives written before locations were relative hold an absolute path
+        return archiveRoot().resolve(location);
+    }
+
+    /**
+     * Record tenant activity and make sure its schema is present.
+     *
+     * @param schemaName Tenant schema about to be used
+     * @throws BooklyException with {@link ErrorCode#TENANT_WARMING_UP} while the schema is being restored
+     */
+    public void ensureAvailable(String schemaName) {
+        lastAccess.put(schemaName, LocalDateTime.now());
+
+        if (!hibernated.contains(schemaName)) {
+            return;
+        }
+
+        if (restoring.add(schemaName)) {
+            taskExecutor.execute(() -> {
+                try {
+                    restore(schemaName);
+                } finally {
+                    restoring.remove(schemaName);
+                }
+            });
+        }
+
+        throw new BooklyException(
+                ErrorCode.TENANT_WARMING_UP,
+                "Library is warming up after a period of inactivity, please retry shortly");
+    }
+
+    /**
+     * Check the database for a hibernation this node has not picked up yet. Called when a
+     * query in the tenant's schema fails because its tables are missing.
+     *
+     * @throws BooklyException with {@link ErrorCode#TENANT_WARMING_UP} if the tenant is hibernated
+     */
+    public void checkHibernated(String schemaName) {
+        Boolean archived = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM public.tenants WHERE schema_name = ? AND hibernated_at IS NOT NULL)",
+                Boolean.class, schemaName);
+        if (Boolean.TRUE.equals(archived)) {
+            hibernated.add(schemaName);
+            ensureAvailable(schemaName);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadHibernatedTenants() {
+        List<String> schemas = jdbcTemplate.queryForList(
+                "SELECT schema_name FROM public.tenants WHERE hibernated_at IS NOT NULL", String.class);
+        hibernated.retainAll(schemas);
+        hibernated.addAll(schemas);
+    }
+
+    @Scheduled(fixedDelayString = "${multitenancy.hibernation.activity-flush-ms:60000}")
+    public void flushActivity() {
+        try {
+            Map<String, LocalDateTime> snapshot = new HashMap<>(lastAccess);
+            snapshot.forEach(lastAccess::remove);
+
+            if (!snapshot.isEmpty()) {
+                List<Object[]> batch = new ArrayList<>(snapshot.size());
+                snapshot.forEach((schema, accessedAt) -> batch.add(new Object[]{Timestamp.valueOf(accessedAt), schema}));
+                jdbcTemplate.batchUpdate(
+                        "UPDATE public.tenants SET last_accessed_at = GREATEST(last_accessed_at, ?) WHERE schema_name = ?",
+                        batch);
+            }
+
+            // Pick up hibernations and restores done by other nodes
+            loadHibernatedTenants();
+        } catch (Exception e) {
+            logger.error("Error flushing tenant activity", e);
+        }
+    }
+
+    // Tenants are split into parts by schema name, so the nodes archive different tenants in parallel
+    @Scheduled(cron = "${multitenancy.hibernation.cron:0 30 3 * * *}")
+    public void hibernateIdleTenants() {
+        if (!enabled) {
+            return;
+        }
+
+        flushActivity();
+        jobCoordinator.runPartitioned("tenant-hibernation", jobPartitions, HIBERNATION_WINDOW, part -> {
+            LocalDateTime cutoff = LocalDateTime.now().minus(idleThreshold);
+            List<String> candidates = jdbcTemplate.queryForList(CANDIDATES_SQL, String.class, Timestamp.valueOf(cutoff))
+                    .stream()
+                    .filter(schemaName -> Math.floorMod(schemaName.hashCode(), jobPartitions) == part)
+                    .toList();
+
+            int count = 0;
+            for (String schemaName : candidates) {
+                try {
+                    if (hibernate(schemaName, cutoff)) {
+                        count++;
+                    }
+                } catch (Exception e) {
+                    logger.error("Error hibernating tenant schema {}", schemaName, e);
+                }
+            }
+            logger.info("Hibernated {} of {} idle tenants in part {}", count, candidates.size(), part);
+        });
+    }
+
+    /**
+     * Archive the tenant schema and drop it.
+     *
+     * @param schemaName Tenant schema
+     * @param cutoff     Only hibernate if the tenant has not been used since this time
+     * @return {@code true} if the tenant was hibernated
+     */
+    public boolean hibernate(String schemaName, LocalDateTime cutoff) throws SQLException, IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String location = schemaName + ".bkar.gz";
+        Path archive = resolveArchive(location);
+        Files.createDirectories(archive.getParent());
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                if (!lockIdleTenant(connection, schemaName, cutoff)) {
+                    connection.rollback();
+                    return false;
+                }
+
+                int tables;
+                try (OutputStream file = Files.newOutputStream(archive);
+                     DataOutputStream out = new DataOutputStream(
+                             new BufferedOutputStream(new GZIPOutputStream(file, 64 * 1024)))) {
+                    tables = archiver.archive(connection, schemaName, out);
+                }
+
+                try (PreparedStatement ps = connection.prepareStatement(
+                        "UPDATE public.tenants SET hibernated_at = CURRENT_TIMESTAMP, archive_location = ? WHERE schema_name = ?")) {
+                    ps.setString(1, location);
+                    ps.setString(2, schemaName);
+                    ps.executeUpdate();
+                }
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("DROP SCHEMA " + SchemaDdlReader.quote(schemaName) + " CASCADE");
+                }
+                connection.commit();
+
+                hibernated.add(schemaName);
+                sample.stop(timer("hibernate", "success"));
+                logger.info("Hibernated tenant schema {} ({} tables, {} bytes)", schemaName, tables, Files.size(archive));
+                return true;
+            } catch (SQLException | IOException | RuntimeException e) {
+                connection.rollback();
+                Files.deleteIfExists(archive);
+                sample.stop(timer("hibernate", "failure"));
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Recreate a hibernated tenant schema from its archive.
+     */
+    public void restore(String schemaName) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                String location = lockHibernatedTenant(connection, schemaName);
+                if (location == null) {
+                    // Already restored, possibly by another node
+                    connection.rollback();
+                    hibernated.remove(schemaName);
+                    return;
+                }
+
+                Path archive = resolveArchive(location);
+                try (InputStream file = Files.newInputStream(archive);
+                     DataInputStream in = new DataInputStream(
+                             new BufferedInputStream(new GZIPInputStream(file, 64 * 1024)))) {
+                    archiver.restore(connection, schemaName, in);
+                }
+
+                try (PreparedStatement ps = connection.prepareStatement("""
+                        UPDATE public.tenants
+                        SET hibernated_at = NULL, archive_location = NULL, last_accessed_at = CURRENT_TIMESTAMP
+                        WHERE schema_name = ?
+                        """)) {
+                    ps.setString(1, schemaName);
+                    ps.executeUpdate();
+                }
+                connection.commit();
+
+                // The archive holds the schema as it was, so catch up on migrations added since
+                tenantMigrations.forSchema(schemaName).migrate();
+                hibernated.remove(schemaName);
+                Files.deleteIfExists(archive);
+                sample.stop(timer("restore", "success"));
+                logger.info("Restored tenant schema {} from {}", schemaName, archive);
+            } catch (SQLException | IOException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (Exception e) {
+            sample.stop(timer("restore", "failure"));
+            logger.error("Error restoring tenant schema {}", schemaName, e);
+        }
+    }
+
+    private Path archiveRoot() {
+        return Paths.get(archiveDirectory).toAbsolutePath();
+    }
+
+    private boolean lockIdleTenant(Connection connection, String schemaName, LocalDateTime cutoff) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("""
+                SELECT 1 FROM public.tenants
+                WHERE schema_name = ? AND hibernated_at IS NULL
+                  AND (active = FALSE OR last_accessed_at < ?)
+                  AND NOT EXISTS (SELECT 1 FROM public.tenant_offboarding_jobs j WHERE j.tenant_id = tenants.id)
+                FOR UPDATE SKIP LOCKED
+                """)) {
+            ps.setString(1, schemaName);
+            ps.setTimestamp(2, Timestamp.valueOf(cutoff));
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private String lockHibernatedTenant(Connection connection, String schemaName) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "SELECT archive_location FROM public.tenants WHERE schema_name = ? AND hibernated_at IS NOT NULL FOR UPDATE")) {
+            ps.setString(1, schemaName);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+
+    private Timer timer(String operation, String outcome) {
+        return Timer.builder("bookly.tenant.hibernation")
+                .description("Time taken to hibernate or restore a tenant schema")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
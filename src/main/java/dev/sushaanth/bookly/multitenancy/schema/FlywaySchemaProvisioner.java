@@ -0,0 +1,22 @@
+package dev.sushaanth.bookly.multitenancy.schema;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Provisions tenant schemas by replaying the full tenant migration history.
+ */
+@Component
+@ConditionalOnProperty(name = "multitenancy.provisioning.mode", havingValue = "flyway", matchIfMissing = true)
+public class FlywaySchemaProvisioner implements TenantSchemaProvisioner {
+    private final TenantMigrations tenantMigrations;
+
+    public FlywaySchemaProvisioner(TenantMigrations tenantMigrations) {
+        this.tenantMigrations = tenantMigrations;
+    }
+
+    @Override
+    public void provision(String schemaName) {
+        tenantMigrations.forSchema(schemaName).migrate();
+    }
+}
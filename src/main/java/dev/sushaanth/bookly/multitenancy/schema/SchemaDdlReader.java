@@ -0,0 +1,275 @@
+package dev.sushaanth.bookly.multitenancy.schema;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the DDL of a schema from the PostgreSQL catalog.
+ * <p>
+ * The statements are rendered with the schema on the search path, so they come back
+ * unqualified and can be replayed into any other schema by pointing the search path
+ * at it. Only sequences, tables, constraints and indexes are supported, which covers
+ * everything the tenant migrations create.
+ */
+public final class SchemaDdlReader {
+
+    private static final String SEQUENCES_SQL = """
+            SELECT c.relname, format_type(s.seqtypid, NULL), s.seqincrement, s.seqmin, s.seqmax, s.seqstart, s.seqcycle
+            FROM pg_class c
+            JOIN pg_namespace n ON n.oid = c.relnamespace
+            JOIN pg_sequence s ON s.seqrelid = c.oid
+            WHERE n.nspname = ? AND c.relkind = 'S'
+              AND NOT EXISTS (SELECT 1 FROM pg_depend d WHERE d.objid = c.oid AND d.deptype = 'i')
+            ORDER BY c.oid
+            """;
+
+    private static final String TABLES_SQL = """
+            SELECT c.oid, c.relname
+            FROM pg_class c
+            JOIN pg_namespace n ON n.oid = c.relnamespace
+            WHERE n.nspname = ? AND c.relkind = 'r'
+            ORDER BY c.oid
+            """;
+
+    private static final String COLUMNS_SQL = """
+            SELECT a.attname, format_type(a.atttypid, a.atttypmod), a.attnotnull,
+                   pg_get_expr(d.adbin, d.adrelid), a.attidentity, a.attgenerated
+            FROM pg_attribute a
+            LEFT JOIN pg_attrdef d ON d.adrelid = a.attrelid AND d.adnum = a.attnum
+            WHERE a.attrelid = ? AND a.attnum > 0 AND NOT a.attisdropped
+            ORDER BY a.attnum
+            """;
+
+    private static final String SEQUENCE_OWNERS_SQL = """
+            SELECT s.relname, t.relname, a.attname
+            FROM pg_depend d
+            JOIN pg_class s ON s.oid = d.objid
+            JOIN pg_class t ON t.oid = d.refobjid
+            JOIN pg_attribute a ON a.attrelid = t.oid AND a.attnum = d.refobjsubid
+            JOIN pg_namespace n ON n.oid = s.relnamespace
+            WHERE n.nspname = ? AND s.relkind = 'S' AND d.deptype = 'a'
+            """;
+
+    // Foreign keys last so every referenced key already exists
+    private static final String CONSTRAINTS_SQL = """
+            SELECT con.conname, rel.relname, pg_get_constraintdef(con.oid)
+            FROM pg_constraint con
+            JOIN pg_class rel ON rel.oid = con.conrelid
+            JOIN pg_namespace n ON n.oid = con.connamespace
+            WHERE n.nspname = ? AND con.contype IN ('p', 'u', 'c', 'x', 'f')
+            ORDER BY CASE con.contype WHEN 'f' THEN 1 ELSE 0 END, con.oid
+            """;
+
+    private static final String INDEXES_SQL = """
+            SELECT pg_get_indexdef(i.indexrelid)
+            FROM pg_index i
+            JOIN pg_class c ON c.oid = i.indexrelid
+            JOIN pg_namespace n ON n.oid = c.relnamespace
+            WHERE n.nspname = ?
+              AND NOT EXISTS (SELECT 1 FROM pg_constraint con
+                              WHERE con.conindid = i.indexrelid AND con.contype IN ('p', 'u', 'x'))
+            ORDER BY i.indexrelid
+            """;
+
+    private static final String UNSUPPORTED_SQL = """
+            SELECT count(*) FROM pg_class c
+            JOIN pg_namespace n ON n.oid = c.relnamespace
+            WHERE n.nspname = ? AND c.relkind IN ('v', 'm', 'p', 'f')
+            UNION ALL
+            SELECT count(*) FROM pg_proc p
+            JOIN pg_namespace n ON n.oid = p.pronamespace
+            WHERE n.nspname = ?
+            UNION ALL
+            SELECT count(*) FROM pg_trigger t
+            JOIN pg_class c ON c.oid = t.tgrelid
+            JOIN pg_namespace n ON n.oid = c.relnamespace
+            WHERE n.nspname = ? AND NOT t.tgisinternal
+            """;
+
+    private SchemaDdlReader() {
+        // Utility class, no instantiation
+    }
+
+    /**
+     * Read the DDL needed to recreate the given schema's objects.
+     *
+     * @param connection Connection to read the catalog with
+     * @param schemaName Schema to read
+     * @return DDL in dependency order, unqualified by schema
+     * @throws SQLException if the catalog cannot be read
+     * @throws IllegalStateException if the schema contains objects that cannot be captured
+     */
+    public static SchemaDdl readDdl(Connection connection, String schemaName) throws SQLException {
+        if (hasUnsupportedObjects(connection, schemaName)) {
+            throw new IllegalStateException(
+                    "Schema " + schemaName + " contains views, functions or triggers that cannot be captured");
+        }
+
+        // Render names relative to the schema, then put the caller's search path back
+        String previousSearchPath = setSearchPath(connection, quote(schemaName));
+        try {
+            List<String> preData = new ArrayList<>();
+            readSequences(connection, schemaName, preData);
+            readTables(connection, schemaName, preData);
+            readSequenceOwners(connection, schemaName, preData);
+
+            List<String> postData = new ArrayList<>();
+            readConstraints(connection, schemaName, postData);
+            readIndexes(connection, schemaName, postData);
+            return new SchemaDdl(List.copyOf(preData), List.copyOf(postData));
+        } finally {
+            setSearchPath(connection, previousSearchPath);
+        }
+    }
+
+    /**
+     * Quote an identifier for use in SQL.
+     */
+    public static String quote(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * DDL of a schema, split so data can be loaded between the two halves.
+     *
+     * @param preData  Sequences and tables
+     * @param postData Constraints and indexes
+     */
+    public record SchemaDdl(List<String> preData, List<String> postData) {
+
+        public List<String> statements() {
+            List<String> statements = new ArrayList<>(preData.size() + postData.size());
+            statements.addAll(preData);
+            statements.addAll(postData);
+            return statements;
+        }
+    }
+
+    private static String setSearchPath(Connection connection, String searchPath) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "SELECT current_setting('search_path'), set_config('search_path', ?, false)")) {
+            ps.setString(1, searchPath);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getString(1);
+            }
+        }
+    }
+
+    private static boolean hasUnsupportedObjects(Connection connection, String schemaName) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(UNSUPPORTED_SQL)) {
+            ps.setString(1, schemaName);
+            ps.setString(2, schemaName);
+            ps.setString(3, schemaName);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    if (rs.getLong(1) > 0) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void readSequences(Connection connection, String schemaName, List<String> ddl) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(SEQUENCES_SQL)) {
+            ps.setString(1, schemaName);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ddl.add("CREATE SEQUENCE " + quote(rs.getString(1))
+                            + " AS " + rs.getString(2)
+                            + " INCREMENT BY " + rs.getLong(3)
+                            + " MINVALUE " + rs.getLong(4)
+                            + " MAXVALUE " + rs.getLong(5)
+                            + " START WITH " + rs.getLong(6)
+                            + (rs.getBoolean(7) ? " CYCLE" : " NO CYCLE"));
+                }
+            }
+        }
+    }
+
+    private static void readTables(Connection connection, String schemaName, List<String> ddl) throws SQLException {
+        try (PreparedStatement tables = connection.prepareStatement(TABLES_SQL);
+             PreparedStatement columns = connection.prepareStatement(COLUMNS_SQL)) {
+            tables.setString(1, schemaName);
+            try (ResultSet rs = tables.executeQuery()) {
+                while (rs.next()) {
+                    columns.setLong(1, rs.getLong(1));
+                    ddl.add("CREATE TABLE " + quote(rs.getString(2)) + " (" + readColumns(columns) + ")");
+                }
+            }
+        }
+    }
+
+    private static String readColumns(PreparedStatement columns) throws SQLException {
+        List<String> definitions = new ArrayList<>();
+        try (ResultSet rs = columns.executeQuery()) {
+            while (rs.next()) {
+                StringBuilder column = new StringBuilder(quote(rs.getString(1)))
+                        .append(' ').append(rs.getString(2));
+                String defaultExpression = rs.getString(4);
+                String identity = rs.getString(5);
+                String generated = rs.getString(6);
+
+                if ("s".equals(generated)) {
+                    column.append(" GENERATED ALWAYS AS (").append(defaultExpression).append(") STORED");
+                } else if ("a".equals(identity)) {
+                    column.append(" GENERATED ALWAYS AS IDENTITY");
+                } else if ("d".equals(identity)) {
+                    column.append(" GENERATED BY DEFAULT AS IDENTITY");
+                } else if (defaultExpression != null) {
+                    column.append(" DEFAULT ").append(defaultExpression);
+                }
+                if (rs.getBoolean(3)) {
+                    column.append(" NOT NULL");
+                }
+                definitions.add(column.toString());
+            }
+        }
+        return String.join(", ", definitions);
+    }
+
+    private static void readSequenceOwners(Connection connection, String schemaName, List<String> ddl) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(SEQUENCE_OWNERS_SQL)) {
+            ps.setString(1, schemaName);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ddl.add("ALTER SEQUENCE " + quote(rs.getString(1))
+                            + " OWNED BY " + quote(rs.getString(2)) + "." + quote(rs.getString(3)));
+                }
+            }
+        }
+    }
+
+    private static void readConstraints(Connection connection, String schemaName, List<String> ddl) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(CONSTRAINTS_SQL)) {
+            ps.setString(1, schemaName);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ddl.add("ALTER TABLE " + quote(rs.getString(2))
+                            + " ADD CONSTRAINT " + quote(rs.getString(1))
+                            + " " + rs.getString(3));
+                }
+            }
+        }
+    }
+
+    private static void readIndexes(Connection connection, String schemaName, List<String> ddl) throws SQLException {
+        // pg_get_indexdef always qualifies the table, so strip the schema back off
+        String qualifier = " " + quote(schemaName) + ".";
+        String bareQualifier = " " + schemaName + ".";
+        try (PreparedStatement ps = connection.prepareStatement(INDEXES_SQL)) {
+            ps.setString(1, schemaName);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ddl.add(rs.getString(1).replace(qualifier, " ").replace(bareQualifier, " "));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package dev.sushaanth.bookly.multitenancy.schema;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Provisions tenant schemas by cloning a "golden" template schema.
+ * <p>
+ * The template is migrated with Flyway once, its DDL is captured from the catalog,
+ * and each new tenant schema is then created by replaying that DDL in a single
+ * batch together with a copy of the template's Flyway history. Later tenant
+ * migrations therefore still apply incrementally on top of a cloned schema.
+ */
+@Component
+@ConditionalOnProperty(name = "multitenancy.provisioning.mode", havingValue = "template")
+public class TemplateSchemaProvisioner implements TenantSchemaProvisioner {
+    private static final Logger logger = LoggerFactory.getLogger(TemplateSchemaProvisioner.class);
+
+    private final TenantMigrations tenantMigrations;
+    private final FlywaySchemaProvisioner fallback;
+    private final String templateSchema;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile SchemaTemplate template;
+
+    public TemplateSchemaProvisioner(TenantMigrations tenantMigrations,
+                                     @Value("${multitenancy.provisioning.template-schema:tenant_template}") String templateSchema) {
+        this.tenantMigrations = tenantMigrations;
+        this.fallback = new FlywaySchemaProvisioner(tenantMigrations);
+        this.templateSchema = templateSchema;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void prepareTemplate() {
+        refreshTemplate();
+    }
+
+    /**
+     * Migrate the template schema to the latest version and recapture its DDL.
+     *
+     * @return The captured template
+     */
+    public SchemaTemplate refreshTemplate() {
+        lock.lock();
+        try {
+            Flyway flyway = tenantMigrations.forSchema(templateSchema);
+            flyway.migrate();
+
+            MigrationInfo current = flyway.info().current();
+            String version = current != null && current.getVersion() != null
+                    ? current.getVersion().getVersion()
+                    : "0";
+            String historyTable = flyway.getConfiguration().getTable();
+
+            try (Connection connection = tenantMigrations.getDataSource().getConnection()) {
+                List<String> ddl = SchemaDdlReader.readDdl(connection, templateSchema).statements();
+                template = new SchemaTemplate(templateSchema, version, historyTable, ddl);
+                logger.info("Captured template schema {} at version {} ({} statements)",
+                        templateSchema, version, ddl.size());
+            } catch (IllegalStateException e) {
+                template = SchemaTemplate.unsupported(templateSchema, version, historyTable);
+                logger.warn("Template schema cannot be cloned, falling back to Flyway: {}", e.getMessage());
+            }
+            return template;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to capture template schema " + templateSchema, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void provision(String schemaName) {
+        SchemaTemplate current = template;
+        if (current == null) {
+            current = refreshTemplate();
+        }
+
+        if (!current.cloneable()) {
+            fallback.provision(schemaName);
+            return;
+        }
+
+        try (Connection connection = tenantMigrations.getDataSource().getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                String schema = SchemaDdlReader.quote(schemaName);
+                statement.addBatch("CREATE SCHEMA " + schema);
+                statement.addBatch("SET LOCAL search_path TO " + schema);
+                for (String ddl : current.ddl()) {
+                    statement.addBatch(ddl);
+                }
+                statement.addBatch("INSERT INTO " + SchemaDdlReader.quote(current.historyTable())
+                        + " SELECT * FROM " + SchemaDdlReader.quote(current.schemaName())
+                        + "." + SchemaDdlReader.quote(current.historyTable()));
+                statement.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+            logger.debug("Cloned schema {} from template at version {}", schemaName, current.version());
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to clone template into schema " + schemaName, e);
+        }
+    }
+
+    /**
+     * DDL captured from the template schema at a given migration version.
+     */
+    public record SchemaTemplate(String schemaName, String version, String historyTable, List<String> ddl) {
+
+        static SchemaTemplate unsupported(String schemaName, String version, String historyTable) {
+            return new SchemaTemplate(schemaName, version, historyTable, null);
+        }
+
+        public boolean cloneable() {
+            return ddl != null;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package dev.sushaanth.bookly.multitenancy.schema;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Builds Flyway instances for tenant schemas so every component migrates
+ * tenants from the same locations and history table.
+ */
+@Component
+public class TenantMigrations {
+    private final DataSource dataSource;
+    private final String[] locations;
+
+    public TenantMigrations(DataSource dataSource,
+                            @Value("${multitenancy.migration.locations:classpath:db/tenant-migration}") String[] locations) {
+        this.dataSource = dataSource;
+        this.locations = locations;
+    }
+
+    public Flyway forSchema(String schemaName) {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .schemas(schemaName)
+                .locations(locations)
+                .load();
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+}
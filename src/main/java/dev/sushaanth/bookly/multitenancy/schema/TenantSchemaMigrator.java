@@ -0,0 +1,73 @@
+package dev.sushaanth.bookly.multitenancy.schema;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Brings every existing tenant schema up to the latest tenant migration at startup.
+ * <p>
+ * Provisioning only migrates a schema once, when it is created, so a tenant migration
+ * added later would otherwise never reach the libraries that already exist. Schemas that
+ * are up to date cost Flyway a single history lookup. Hibernated tenants have no schema
+ * and are migrated when they are restored. Flyway locks each schema while it migrates,
+ * so nodes starting together do not apply a migration twice.
+ */
+@Component
+public class TenantSchemaMigrator {
+    private static final Logger logger = LoggerFactory.getLogger(TenantSchemaMigrator.class);
+
+    private static final String LIVE_SCHEMAS_SQL = """
+            SELECT t.schema_name FROM public.tenants t
+            WHERE t.hibernated_at IS NULL AND t.schema_name IS NOT NULL
+              AND EXISTS (SELECT 1 FROM pg_catalog.pg_namespace n WHERE n.nspname = t.schema_name)
+            ORDER BY t.schema_name
+            """;
+
+    private final TenantMigrations tenantMigrations;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${multitenancy.migration.on-startup:true}")
+    private boolean onStartup;
+
+    public TenantSchemaMigrator(TenantMigrations tenantMigrations) {
+        this.tenantMigrations = tenantMigrations;
+        this.jdbcTemplate = new JdbcTemplate(tenantMigrations.getDataSource());
+    }
+
+    // Runs before the application reports itself ready for traffic
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        if (onStartup) {
+            migrateAll();
+        }
+    }
+
+    /**
+     * Apply pending tenant migrations to every live tenant schema. A schema that fails is
+     * logged and skipped, so one broken library does not hold back the others.
+     *
+     * @return The number of migrations applied across all schemas
+     */
+    public int migrateAll() {
+        List<String> schemas = jdbcTemplate.queryForList(LIVE_SCHEMAS_SQL, String.class);
+        int applied = 0;
+        int failed = 0;
+        for (String schemaName : schemas) {
+            try {
+                applied += tenantMigrations.forSchema(schemaName).migrate().migrationsExecuted;
+            } catch (Exception e) {
+                failed++;
+                logger.error("Error migrating tenant schema {}", schemaName, e);
+            }
+        }
+        logger.info("Checked {} tenant schemas: {} migrations applied, {} schemas failed", schemas.size(), applied, failed);
+        return applied;
+    }
+}
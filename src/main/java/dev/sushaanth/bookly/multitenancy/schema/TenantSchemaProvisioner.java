@@ -0,0 +1,14 @@
+package dev.sushaanth.bookly.multitenancy.schema;
+
+/**
+ * Creates the database schema backing a newly registered tenant.
+ */
+public interface TenantSchemaProvisioner {
+
+    /**
+     * Create the given schema and bring it to the latest tenant migration version.
+     *
+     * @param schemaName Name of the schema to create
+     */
+    void provision(String schemaName);
+}
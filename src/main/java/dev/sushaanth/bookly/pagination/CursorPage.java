@@ -0,0 +1,37 @@
+package dev.sushaanth.bookly.pagination;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated listing.
+ *
+ * @param items      Items on this page
+ * @param nextCursor Cursor for the following page, or {@code null} if this is the last page
+ */
+public record CursorPage<T>(List<T> items, String nextCursor) {
+    public static final int DEFAULT_SIZE = 50;
+    public static final int MAX_SIZE = 200;
+
+    /**
+     * Clamp a requested page size to the allowed range.
+     */
+    public static int boundedSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_SIZE;
+        }
+        return Math.max(1, Math.min(size, MAX_SIZE));
+    }
+
+    /**
+     * Build a page from rows fetched with a limit of {@code size + 1}; the extra row only
+     * signals that another page exists.
+     */
+    public static <R, T> CursorPage<T> of(List<R> rows, int size, Function<R, PageCursor> cursor,
+                                          Function<R, T> mapper) {
+        boolean hasMore = rows.size() > size;
+        List<R> page = hasMore ? rows.subList(0, size) : rows;
+        String nextCursor = hasMore ? cursor.apply(page.get(page.size() - 1)).encode() : null;
+        return new CursorPage<>(page.stream().map(mapper).toList(), nextCursor);
+    }
+}
@@ -0,0 +1,46 @@
+package dev.sushaanth.bookly.pagination;
+
+import dev.sushaanth.bookly.exception.BooklyException;
+import dev.sushaanth.bookly.exception.BooklyException.ErrorCode;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position after the last row of a page in {@code (created_at, id)} order.
+ * <p>
+ * The next page starts strictly after this key, so it is found with an index range
+ * scan however deep the page is, unlike {@code OFFSET} which reads and discards every
+ * row before it. Clients only ever see the encoded form.
+ */
+public record PageCursor(LocalDateTime createdAt, UUID id) {
+    private static final char SEPARATOR = '|';
+
+    public String encode() {
+        String raw = createdAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param cursor Encoded cursor, may be {@code null} or blank for the first page
+     * @return Decoded cursor, or {@code null} for the first page
+     * @throws BooklyException with {@link ErrorCode#INVALID_PAGE_CURSOR} if the cursor is malformed
+     */
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            return new PageCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new BooklyException(ErrorCode.INVALID_PAGE_CURSOR, "Invalid page cursor");
+        }
+    }
+}
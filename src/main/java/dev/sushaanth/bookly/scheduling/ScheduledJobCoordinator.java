@@ -0,0 +1,212 @@
+package dev.sushaanth.bookly.scheduling;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Makes sure a scheduled job runs on only one node per schedule window.
+ * <p>
+ * Every node fires its {@code @Scheduled} methods as usual and hands the work to this
+ * coordinator. The first node to take the job's Postgres advisory lock claims it in
+ * {@code public.scheduled_jobs} and runs it; the others skip. A claim is refused while
+ * another node's lease is live or if the job already started within the window, so a
+ * node firing a little late does not run it a second time. The advisory lock belongs to
+ * the database session, so a node that dies mid-run releases it with its connection.
+ * <p>
+ * Partitioned jobs are split into numbered parts that are claimed one at a time. Each
+ * node starts at a random part, so nodes firing together share the work out between them.
+ */
+@Component
+public class ScheduledJobCoordinator {
+    private static final Logger logger = LoggerFactory.getLogger(ScheduledJobCoordinator.class);
+
+    private static final String TRY_LOCK_SQL = "SELECT pg_try_advisory_lock(hashtext('scheduled_jobs'), hashtext(?))";
+    private static final String UNLOCK_SQL = "SELECT pg_advisory_unlock(hashtext('scheduled_jobs'), hashtext(?))";
+
+    private static final String INSERT_JOB_SQL =
+            "INSERT INTO public.scheduled_jobs (job_name) VALUES (?) ON CONFLICT (job_name) DO NOTHING";
+
+    private static final String CLAIM_SQL = """
+            UPDATE public.scheduled_jobs
+            SET owner_node = ?,
+                lease_expires_at = CURRENT_TIMESTAMP + make_interval(secs => ?),
+                last_started_at = CURRENT_TIMESTAMP,
+                last_status = 'RUNNING',
+                last_error = NULL
+            WHERE job_name = ?
+              AND (lease_expires_at IS NULL OR lease_expires_at < CURRENT_TIMESTAMP)
+              AND (last_started_at IS NULL OR last_started_at <= CURRENT_TIMESTAMP - make_interval(secs => ?))
+            """;
+
+    private static final String FINISH_SQL = """
+            UPDATE public.scheduled_jobs
+            SET lease_expires_at = NULL, last_finished_at = CURRENT_TIMESTAMP, last_status = ?, last_error = ?
+            WHERE job_name = ? AND owner_node = ?
+            """;
+
+    /**
+     * Work done by a job while this node holds it.
+     */
+    @FunctionalInterface
+    public interface Job {
+        void run() throws Exception;
+    }
+
+    /**
+     * Work done for one part of a partitioned job.
+     */
+    @FunctionalInterface
+    public interface PartitionJob {
+        void run(int partition) throws Exception;
+    }
+
+    private final DataSource dataSource;
+    private final MeterRegistry meterRegistry;
+    private final String nodeId;
+    private final Duration lease;
+
+    public ScheduledJobCoordinator(DataSource dataSource,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${scheduling.node-id:}") String nodeId,
+                                   @Value("${scheduling.lease:15m}") Duration lease) {
+        this.dataSource = dataSource;
+        this.meterRegistry = meterRegistry;
+        // pid@hostname unless configured
+        this.nodeId = nodeId.isBlank() ? ManagementFactory.getRuntimeMXBean().getName() : nodeId;
+        this.lease = lease;
+    }
+
+    /**
+     * Run the job here unless another node holds it or it already started within the window.
+     *
+     * @param jobName Unique name of the job
+     * @param window  Minimum time between runs; keep it below the schedule interval
+     * @return {@code true} if the job ran on this node, even if it failed
+     */
+    public boolean runExclusive(String jobName, Duration window, Job job) {
+        return runClaimed(jobName, window, job);
+    }
+
+    /**
+     * Run each part of the job that no other node holds or has run within the window.
+     *
+     * @param jobName    Unique name of the job; part {@code n} is recorded as {@code jobName#n}
+     * @param partitions Number of parts
+     * @param window     Minimum time between runs of a part; keep it below the schedule interval
+     * @return Number of parts run on this node
+     */
+    public int runPartitioned(String jobName, int partitions, Duration window, PartitionJob job) {
+        int start = ThreadLocalRandom.current().nextInt(partitions);
+        int ran = 0;
+        for (int i = 0; i < partitions; i++) {
+            int partition = (start + i) % partitions;
+            if (runClaimed(jobName + "#" + partition, window, () -> job.run(partition))) {
+                ran++;
+            }
+        }
+        return ran;
+    }
+
+    private boolean runClaimed(String jobName, Duration window, Job job) {
+        try (Connection connection = dataSource.getConnection()) {
+            if (!tryLock(connection, jobName)) {
+                count(jobName, "skipped");
+                return false;
+            }
+            try {
+                if (!claim(connection, jobName, window)) {
+                    count(jobName, "skipped");
+                    return false;
+                }
+                execute(connection, jobName, job);
+                return true;
+            } finally {
+                // Pooled connections outlive this call, so the session lock must be let go explicitly
+                unlock(connection, jobName);
+            }
+        } catch (SQLException e) {
+            logger.error("Could not coordinate scheduled job {}", jobName, e);
+            return false;
+        }
+    }
+
+    private void execute(Connection connection, String jobName, Job job) throws SQLException {
+        String status = "SUCCEEDED";
+        String error = null;
+        try {
+            job.run();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            status = "INTERRUPTED";
+            error = e.toString();
+        } catch (Exception e) {
+            logger.error("Scheduled job {} failed", jobName, e);
+            status = "FAILED";
+            error = e.toString();
+        }
+        count(jobName, status.toLowerCase(Locale.ROOT));
+
+        try (PreparedStatement ps = connection.prepareStatement(FINISH_SQL)) {
+            ps.setString(1, status);
+            ps.setString(2, error);
+            ps.setString(3, jobName);
+            ps.setString(4, nodeId);
+            ps.executeUpdate();
+        }
+    }
+
+    private boolean tryLock(Connection connection, String jobName) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(TRY_LOCK_SQL)) {
+            ps.setString(1, jobName);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private void unlock(Connection connection, String jobName) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(UNLOCK_SQL)) {
+            ps.setString(1, jobName);
+            ps.executeQuery().close();
+        }
+    }
+
+    private boolean claim(Connection connection, String jobName, Duration window) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(INSERT_JOB_SQL)) {
+            ps.setString(1, jobName);
+            ps.executeUpdate();
+        }
+        try (PreparedStatement ps = connection.prepareStatement(CLAIM_SQL)) {
+            ps.setString(1, nodeId);
+            ps.setLong(2, lease.toSeconds());
+            ps.setString(3, jobName);
+            ps.setLong(4, window.toSeconds());
+            return ps.executeUpdate() == 1;
+        }
+    }
+
+    private void count(String jobName, String outcome) {
+        // Partitions of a job share its metrics
+        int part = jobName.indexOf('#');
+        Counter.builder("bookly.jobs.runs")
+                .description("Scheduled job runs by outcome")
+                .tag("job", part < 0 ? jobName : jobName.substring(0, part))
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -1,11 +1,15 @@
 package dev.sushaanth.bookly.security.controller;
 
+import dev.sushaanth.bookly.pagination.CursorPage;
+import dev.sushaanth.bookly.security.dto.BulkInvitationRequest;
+import dev.sushaanth.bookly.security.dto.BulkInvitationResult;
 import dev.sushaanth.bookly.security.dto.InvitationRequest;
 import dev.sushaanth.bookly.security.dto.InvitationResponse;
 import dev.sushaanth.bookly.security.service.InvitationService;
 import dev.sushaanth.bookly.security.utils.SecurityUtils;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
@@ -23,9 +27,10 @@ public class InvitationController {
 
     @GetMapping
     @PreAuthorize("hasRole('ROLE_LIBRARY_ADMIN')")
-    public List<InvitationResponse> getPendingInvitations() {
+    public CursorPage<InvitationResponse> getPendingInvitations(@RequestParam(required = false) String cursor,
+                                                                @RequestParam(required = false) Integer size) {
         UUID adminId = SecurityUtils.getCurrentUserId();
-        return invitationService.getPendingInvitations(adminId);
+        return invitationService.getPendingInvitations(adminId, cursor, size);
     }
 
     @PostMapping
@@ -36,6 +41,20 @@ public class InvitationController {
         return invitationService.createEmployeeInvitation(request.email(), adminId);
     }
 
+    @PostMapping(path = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('ROLE_LIBRARY_ADMIN')")
+    public List<BulkInvitationResult> createInvitations(@Valid @RequestBody BulkInvitationRequest request) {
+        UUID adminId = SecurityUtils.getCurrentUserId();
+        return invitationService.createEmployeeInvitations(request.emails(), adminId);
+    }
+
+    @PostMapping(path = "/bulk", consumes = "text/csv")
+    @PreAuthorize("hasRole('ROLE_LIBRARY_ADMIN')")
+    public List<BulkInvitationResult> createInvitationsFromCsv(@RequestBody String csv) {
+        UUID adminId = SecurityUtils.getCurrentUserId();
+        return invitationService.createEmployeeInvitations(BulkInvitationRequest.fromCsv(csv).emails(), adminId);
+    }
+
     @PostMapping("/resend/{id}")
     @PreAuthorize("hasRole('ROLE_LIBRARY_ADMIN')")
     public InvitationResponse resendInvitation(@PathVariable UUID id) {
@@ -0,0 +1,36 @@
+package dev.sushaanth.bookly.security.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Email addresses to invite in one request, sent as JSON or as CSV with the address
+ * in the first column.
+ */
+public record BulkInvitationRequest(
+        @NotEmpty(message = "At least one email is required")
+        @Size(max = 1000, message = "At most 1000 invitations can be created per request")
+        List<String> emails
+) {
+    /**
+     * Read the first column of each CSV line, skipping blank lines and an {@code email} header.
+     */
+    public static BulkInvitationRequest fromCsv(String csv) {
+        List<String> emails = new ArrayList<>();
+        for (String line : csv.split("\\R")) {
+            int comma = line.indexOf(',');
+            String email = (comma < 0 ? line : line.substring(0, comma)).strip();
+            if (email.length() >= 2 && email.startsWith("\"") && email.endsWith("\"")) {
+                email = email.substring(1, email.length() - 1).strip();
+            }
+            if (email.isEmpty() || (emails.isEmpty() && email.equalsIgnoreCase("email"))) {
+                continue;
+            }
+            emails.add(email);
+        }
+        return new BulkInvitationRequest(emails);
+    }
+}
@@ -0,0 +1,22 @@
+package dev.sushaanth.bookly.security.dto;
+
+import java.util.UUID;
+
+/**
+ * Outcome for one address of a bulk invitation request.
+ *
+ * @param index Position of the address in the request
+ * @param id    Invitation id, or {@code null} if the address was rejected
+ */
+public record BulkInvitationResult(
+        int index,
+        String email,
+        Status status,
+        UUID id,
+        String message
+) {
+    public enum Status {
+        INVITED,
+        REJECTED
+    }
+}
@@ -14,6 +14,8 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
@@ -32,6 +34,8 @@ public class JwtRequestFilter extends OncePerRequestFilter {
             "/error"
     );
 
+    // Keeps the authentication for the async dispatch that writes a deferred or reactive result
+    private final SecurityContextRepository securityContextRepository = new RequestAttributeSecurityContextRepository();
     private final UserDetailsServiceImpl userDetailsService;
     private final JwtTokenUtil jwtTokenUtil;
     private final TenantRepository tenantRepository;
@@ -48,50 +52,65 @@ public class JwtRequestFilter extends OncePerRequestFilter {
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
             throws ServletException, IOException {
 
-        try {
-            final String authorizationHeader = request.getHeader("Authorization");
+        final String authorizationHeader = request.getHeader("Authorization");
 
-            if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
-                chain.doFilter(request, response);
-                return;
-            }
+        if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
+            chain.doFilter(request, response);
+            return;
+        }
 
+        String schemaName = null;
+        try {
             String jwt = authorizationHeader.substring(7);
-            if (!jwtTokenUtil.validateToken(jwt)) {
-                chain.doFilter(request, response);
-                return;
+            if (jwtTokenUtil.validateToken(jwt)) {
+                schemaName = jwtTokenUtil.getSchemaNameFromToken(jwt);
+                authenticate(jwt, request, response);
             }
+        } catch (Exception e) {
+            logger.error("Error processing JWT token", e);
+        }
 
-            String username = jwtTokenUtil.getUsernameFromToken(jwt);
-            String schemaName = jwtTokenUtil.getSchemaNameFromToken(jwt);
-            UUID userId = jwtTokenUtil.getUserIdFromToken(jwt);  // Extract userId from token
+        doFilterInTenant(schemaName, request, response, chain);
+    }
 
-            // Set tenant context
-            if (schemaName != null) {
-                TenantContext.setTenantId(schemaName);
-            }
+    private void authenticate(String jwt, HttpServletRequest request, HttpServletResponse response) {
+        String username = jwtTokenUtil.getUsernameFromToken(jwt);
+        UUID userId = jwtTokenUtil.getUserIdFromToken(jwt);  // Extract userId from token
+        UUID tenantId = jwtTokenUtil.getTenantIdFromToken(jwt);
 
-            // Set authentication if not already set
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        // Set authentication if not already set
+        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
 
-                // Create Authentication with userId in details
-                Map<String, Object> details = new HashMap<>();
-                details.put("userId", userId);
+            // Create Authentication with userId and tenantId in details
+            Map<String, Object> details = new HashMap<>();
+            details.put("userId", userId);
+            details.put("tenantId", tenantId);
 
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                authToken.setDetails(details);  // Store userId in authentication details
+            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                    userDetails, null, userDetails.getAuthorities());
+            authToken.setDetails(details);  // Store userId and tenantId in authentication details
 
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-            }
+            SecurityContextHolder.getContext().setAuthentication(authToken);
+            securityContextRepository.saveContext(SecurityContextHolder.getContext(), request, response);
+        }
+    }
 
-            chain.doFilter(request, response);
+    /**
+     * Continue the chain with the token's tenant bound, or outside any tenant without one.
+     */
+    private void doFilterInTenant(String schemaName, HttpServletRequest request, HttpServletResponse response,
+                                  FilterChain chain) throws ServletException, IOException {
+        try {
+            TenantContext.callWhere(schemaName, () -> {
+                chain.doFilter(request, response);
+                return null;
+            });
+        } catch (ServletException | IOException | RuntimeException e) {
+            throw e;
         } catch (Exception e) {
-            logger.error("Error processing JWT token", e);
-            chain.doFilter(request, response);
-        } finally {
-            TenantContext.clear();
+            // The chain declares nothing else
+            throw new ServletException(e);
         }
     }
 
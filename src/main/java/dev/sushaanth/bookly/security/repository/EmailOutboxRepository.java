@@ -0,0 +1,31 @@
+package dev.sushaanth.bookly.security.repository;
+
+import dev.sushaanth.bookly.security.model.OutboxEmail;
+import jakarta.persistence.QueryHint;
+import jakarta.transaction.Transactional;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public interface EmailOutboxRepository extends JpaRepository<OutboxEmail, UUID> {
+    /**
+     * Delete up to {@code limit} emails sent before the given time, oldest first, in one transaction.
+     * The order lets idx_email_outbox_sent drive the delete instead of a heap scan that has
+     * to step over the rows earlier chunks left dead. Naming the table in the hint keeps the
+     * delete from clearing unrelated second-level cache regions.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "public.email_outbox"))
+    @Transactional
+    @Query(value = "DELETE FROM public.email_outbox WHERE id IN (" +
+            "SELECT id FROM public.email_outbox WHERE status = 'SENT' AND sent_at < :before " +
+            "ORDER BY sent_at LIMIT :limit)",
+            nativeQuery = true)
+    int deleteSentChunk(@Param("before") LocalDateTime before, @Param("limit") int limit);
+}
@@ -1,9 +1,11 @@
 package dev.sushaanth.bookly.security.repository;
 
+import dev.sushaanth.bookly.security.dto.InvitationResponse;
 import dev.sushaanth.bookly.security.model.EmployeeInvitation;
-import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -11,9 +13,32 @@ import java.util.Optional;
 import java.util.UUID;
 
 public interface EmployeeInvitationRepository extends JpaRepository<EmployeeInvitation, UUID> {
-    Optional<EmployeeInvitation> findByEmailAndUsedFalse(String email);
-    @Modifying
-    @Transactional
-    int deleteAllByExpiresAtBeforeAndUsedFalse(LocalDateTime dateTime);
+    // Expired invitations stay until their partition is dropped, so only live ones count
+    Optional<EmployeeInvitation> findByEmailAndUsedFalseAndExpiresAtAfter(String email, LocalDateTime now);
     List<EmployeeInvitation> findByTenantIdAndUsedFalse(UUID tenantId);
+
+    /**
+     * First page of a tenant's pending invitations together with the inviter's name, in one query.
+     */
+    @Query("SELECT new dev.sushaanth.bookly.security.dto.InvitationResponse(" +
+            "i.id, i.email, i.invitedBy, COALESCE(CONCAT(u.firstName, ' ', u.lastName), 'Unknown'), " +
+            "i.createdAt, i.expiresAt, i.used) " +
+            "FROM EmployeeInvitation i LEFT JOIN LibraryUser u ON u.id = i.invitedBy " +
+            "WHERE i.tenantId = :tenantId AND i.used = false " +
+            "ORDER BY i.createdAt, i.id")
+    List<InvitationResponse> findPendingWithInviterName(@Param("tenantId") UUID tenantId, Limit limit);
+
+    /**
+     * Page of a tenant's pending invitations following the given {@code (created_at, id)} key.
+     */
+    @Query("SELECT new dev.sushaanth.bookly.security.dto.InvitationResponse(" +
+            "i.id, i.email, i.invitedBy, COALESCE(CONCAT(u.firstName, ' ', u.lastName), 'Unknown'), " +
+            "i.createdAt, i.expiresAt, i.used) " +
+            "FROM EmployeeInvitation i LEFT JOIN LibraryUser u ON u.id = i.invitedBy " +
+            "WHERE i.tenantId = :tenantId AND i.used = false AND (i.createdAt, i.id) > (:createdAt, :id) " +
+            "ORDER BY i.createdAt, i.id")
+    List<InvitationResponse> findPendingWithInviterNameAfter(@Param("tenantId") UUID tenantId,
+                                                             @Param("createdAt") LocalDateTime createdAt,
+                                                             @Param("id") UUID id,
+                                                             Limit limit);
 }
\ No newline at end of file
@@ -1,13 +1,60 @@
 package dev.sushaanth.bookly.security.repository;
 
 import dev.sushaanth.bookly.security.model.LibraryUser;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 import java.util.UUID;
 
 public interface LibraryUserRepository extends JpaRepository<LibraryUser, UUID> {
+    /**
+     * Runs on every authenticated request, so the matching id is kept in the query cache
+     * and the user itself in the second-level cache.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<LibraryUser> findByUsername(String username);
+
     Optional<LibraryUser> findByEmail(String email);
     boolean existsByUsernameAndTenantId(String username, UUID tenantId);
+
+    /**
+     * Which of the values a new registration would collide with, checked in one query.
+     * A {@code null} library name is never reported as taken.
+     */
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM public.users WHERE email = :email) AS \"emailTaken\", " +
+            "EXISTS (SELECT 1 FROM public.users WHERE username = :username) AS \"usernameTaken\", " +
+            "EXISTS (SELECT 1 FROM public.tenants WHERE display_name = :libraryName) AS \"libraryNameTaken\"",
+            nativeQuery = true)
+    RegistrationConflicts findConflicts(@Param("email") String email,
+                                        @Param("username") String username,
+                                        @Param("libraryName") String libraryName);
+
+    /**
+     * Insert the user unless the email or username is already taken, leaving the decision
+     * to the unique constraints so concurrent registrations cannot both succeed.
+     *
+     * @return 1 if the user was inserted, 0 on a conflict
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "public.users"))
+    @Query(value = "INSERT INTO public.users (id, username, email, firstname, lastname, password, role, tenant_id) " +
+            "VALUES (:#{#user.id}, :#{#user.username}, :#{#user.email}, :#{#user.firstName}, " +
+            ":#{#user.lastName}, :#{#user.password}, :#{#user.role.name()}, :#{#user.tenantId}) " +
+            "ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("user") LibraryUser user);
+
+    interface RegistrationConflicts {
+        boolean getEmailTaken();
+
+        boolean getUsernameTaken();
+
+        boolean getLibraryNameTaken();
+    }
 }
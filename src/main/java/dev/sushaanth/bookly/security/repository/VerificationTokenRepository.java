@@ -1,18 +1,20 @@
 package dev.sushaanth.bookly.security.repository;
 
 import dev.sushaanth.bookly.security.model.VerificationToken;
-import jakarta.transaction.Transactional;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface VerificationTokenRepository extends JpaRepository<VerificationToken, UUID> {
     Optional<VerificationToken> findByEmailAndToken(String email, String token);
     Optional<VerificationToken> findByEmail(String email);
+
     @Modifying
-    @Transactional
-    int deleteAllByExpiryDateBefore(LocalDateTime dateTime);
+    @Query("UPDATE VerificationToken t SET t.verified = true " +
+            "WHERE t.email = :email AND t.token = :token AND t.verified = false")
+    int markVerified(@Param("email") String email, @Param("token") String token);
 }
\ No newline at end of file
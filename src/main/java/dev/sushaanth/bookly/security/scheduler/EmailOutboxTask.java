@@ -0,0 +1,58 @@
+package dev.sushaanth.bookly.security.scheduler;
+
+import dev.sushaanth.bookly.scheduling.ScheduledJobCoordinator;
+import dev.sushaanth.bookly.security.repository.EmailOutboxRepository;
+import dev.sushaanth.bookly.security.service.EmailOutboxDispatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+@Component
+public class EmailOutboxTask {
+
+    private final EmailOutboxDispatcher dispatcher;
+    private final EmailOutboxRepository outboxRepository;
+    private final ExpiredRowPurger purger;
+    private final ScheduledJobCoordinator jobCoordinator;
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxTask.class);
+    // Shorter than the hourly schedule, so a node firing a little late does not clean up twice
+    private static final Duration CLEANUP_WINDOW = Duration.ofMinutes(30);
+
+    @Value("${email.outbox.retention:7d}")
+    private Duration retention;
+
+    public EmailOutboxTask(EmailOutboxDispatcher dispatcher,
+                           EmailOutboxRepository outboxRepository,
+                           ExpiredRowPurger purger,
+                           ScheduledJobCoordinator jobCoordinator) {
+        this.dispatcher = dispatcher;
+        this.outboxRepository = outboxRepository;
+        this.purger = purger;
+        this.jobCoordinator = jobCoordinator;
+    }
+
+    // Picks up retries that have come due and emails queued by other nodes
+    @Scheduled(fixedDelayString = "${email.outbox.poll-ms:10000}")
+    public void dispatchPendingEmails() {
+        try {
+            dispatcher.refreshPendingCount();
+            dispatcher.requestDispatch();
+        } catch (Exception e) {
+            logger.error("Error dispatching outbox emails", e);
+        }
+    }
+
+    @Scheduled(cron = "0 15 * * * *") // Run once per hour, on one node
+    public void cleanupSentEmails() {
+        jobCoordinator.runExclusive("email-outbox-cleanup", CLEANUP_WINDOW, () -> {
+            LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+            int deleted = purger.purge("email_outbox", limit -> outboxRepository.deleteSentChunk(cutoff, limit));
+            logger.info("Cleaned up {} sent outbox emails", deleted);
+        });
+    }
+}
@@ -0,0 +1,67 @@
+package dev.sushaanth.bookly.security.scheduler;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Deletes expired rows in bounded chunks for the cleanup tasks.
+ * <p>
+ * Each chunk is one set-based {@code DELETE} in its own short transaction, so a large
+ * backlog never turns into one long transaction or a heap full of loaded entities.
+ * Rows purged and time per run are exported as {@code bookly.cleanup.purged} and
+ * {@code bookly.cleanup.duration}, tagged with the table.
+ */
+@Component
+public class ExpiredRowPurger {
+    private final MeterRegistry meterRegistry;
+
+    @Value("${cleanup.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${cleanup.pause:50ms}")
+    private Duration pause;
+
+    public ExpiredRowPurger(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Run chunks until one deletes fewer rows than the batch size.
+     *
+     * @param table       Table name used to tag the metrics
+     * @param deleteChunk Deletes up to the given number of rows and returns how many it deleted
+     * @return Total rows deleted
+     */
+    public int purge(String table, IntUnaryOperator deleteChunk) throws InterruptedException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        int total = 0;
+        try {
+            int deleted;
+            do {
+                deleted = deleteChunk.applyAsInt(batchSize);
+                total += deleted;
+                if (deleted == batchSize) {
+                    // Let other work through between chunks
+                    Thread.sleep(pause.toMillis());
+                }
+            } while (deleted == batchSize);
+            return total;
+        } finally {
+            sample.stop(Timer.builder("bookly.cleanup.duration")
+                    .description("Time taken by one cleanup run")
+                    .tag("table", table)
+                    .register(meterRegistry));
+            Counter.builder("bookly.cleanup.purged")
+                    .description("Expired rows deleted by the cleanup tasks")
+                    .tag("table", table)
+                    .register(meterRegistry)
+                    .increment(total);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package dev.sushaanth.bookly.security.scheduler;
+
+import dev.sushaanth.bookly.scheduling.ScheduledJobCoordinator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Keeps the expiry-partitioned tables supplied with partitions and drops old ones.
+ * <p>
+ * Partitions for the coming {@code partitions.premake} are created ahead of time, so
+ * new rows never land in the default partition. A partition is detached and dropped
+ * once everything in it has been expired for the table's retention, which removes the
+ * rows without a {@code DELETE} or the vacuum work that follows one. Partitions created
+ * and dropped are exported as {@code bookly.partitions.created} and
+ * {@code bookly.partitions.dropped}, tagged with the table.
+ */
+@Component
+public class PartitionMaintenanceTask {
+    private static final Logger logger = LoggerFactory.getLogger(PartitionMaintenanceTask.class);
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final Duration RUN_WINDOW = Duration.ofMinutes(30);
+
+    private static final String LIST_PARTITIONS_SQL = """
+            SELECT c.relname FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = to_regclass(?)
+            ORDER BY c.relname
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ScheduledJobCoordinator jobCoordinator;
+    private final List<PartitionedTable> tables;
+
+    @Value("${partitions.premake:30d}")
+    private Duration premake;
+
+    @Value("${partitions.lock-timeout:5s}")
+    private Duration lockTimeout;
+
+    public PartitionMaintenanceTask(JdbcTemplate jdbcTemplate,
+                                    MeterRegistry meterRegistry,
+                                    ScheduledJobCoordinator jobCoordinator,
+                                    @Value("${partitions.retention.verification-tokens:1d}") Duration tokenRetention,
+                                    @Value("${partitions.retention.employee-invitations:30d}") Duration invitationRetention,
+                                    @Value("${partitions.retention.refresh-tokens:7d}") Duration refreshTokenRetention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+        this.jobCoordinator = jobCoordinator;
+        this.tables = List.of(
+                new PartitionedTable("verification_tokens", ChronoUnit.DAYS, tokenRetention),
+                new PartitionedTable("employee_invitations", ChronoUnit.WEEKS, invitationRetention),
+                new PartitionedTable("refresh_tokens", ChronoUnit.WEEKS, refreshTokenRetention));
+    }
+
+    // Each table is a separate part, so nodes firing together can look after different tables
+    @Scheduled(cron = "${partitions.maintenance-cron:0 30 * * * *}") // Run once per hour
+    public void maintainPartitions() {
+        jobCoordinator.runPartitioned("partition-maintenance", tables.size(), RUN_WINDOW, part -> {
+            PartitionedTable table = tables.get(part);
+            LocalDateTime now = LocalDateTime.now();
+            int created = createPartitions(table, now);
+            int dropped = dropExpiredPartitions(table, now);
+            if (created > 0 || dropped > 0) {
+                logger.info("Created {} and dropped {} partitions of {}", created, dropped, table.name());
+            }
+        });
+    }
+
+    private int createPartitions(PartitionedTable table, LocalDateTime now) {
+        Integer created = jdbcTemplate.queryForObject(
+                "SELECT public.ensure_range_partitions(?, ?, ?, ?)", Integer.class,
+                table.name(), table.postgresUnit(), Timestamp.valueOf(now), Timestamp.valueOf(now.plus(premake)));
+        int count = created == null ? 0 : created;
+        counter("bookly.partitions.created", "Partitions created ahead of time", table).increment(count);
+        return count;
+    }
+
+    private int dropExpiredPartitions(PartitionedTable table, LocalDateTime now) {
+        String prefix = table.name() + "_p";
+        LocalDateTime cutoff = now.minus(table.retention());
+        int dropped = 0;
+
+        List<String> partitions = jdbcTemplate.queryForList(LIST_PARTITIONS_SQL, String.class, "public." + table.name());
+        for (String partition : partitions) {
+            if (!partition.startsWith(prefix)) {
+                continue;
+            }
+            LocalDate start;
+            try {
+                start = LocalDate.parse(partition.substring(prefix.length()), SUFFIX);
+            } catch (DateTimeParseException e) {
+                continue;
+            }
+            if (start.atStartOfDay().plus(1, table.unit()).isAfter(cutoff)) {
+                continue;
+            }
+
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                // One transaction, so a partition is never left detached but not dropped
+                boolean autoCommit = connection.getAutoCommit();
+                connection.setAutoCommit(false);
+                try (Statement statement = connection.createStatement()) {
+                    // Detaching locks the parent briefly; give up rather than queue behind long transactions
+                    statement.execute("SET LOCAL lock_timeout = " + lockTimeout.toMillis());
+                    statement.execute("ALTER TABLE public." + table.name() + " DETACH PARTITION public." + partition);
+                    statement.execute("DROP TABLE public." + partition);
+                    connection.commit();
+                } catch (SQLException e) {
+                    connection.rollback();
+                    throw e;
+                } finally {
+                    connection.setAutoCommit(autoCommit);
+                }
+                return null;
+            });
+            dropped++;
+        }
+        counter("bookly.partitions.dropped", "Expired partitions dropped", table).increment(dropped);
+        return dropped;
+    }
+
+    private Counter counter(String name, String description, PartitionedTable table) {
+        return Counter.builder(name)
+                .description(description)
+                .tag("table", table.name())
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param unit      Width of each partition, matching the range used to create it
+     * @param retention How long after its last row expires a partition is kept
+     */
+    private record PartitionedTable(String name, ChronoUnit unit, Duration retention) {
+
+        String postgresUnit() {
+            return unit == ChronoUnit.WEEKS ? "week" : "day";
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package dev.sushaanth.bookly.security.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers emails from the outbox in batches.
+ * <p>
+ * Each batch is claimed with {@code FOR UPDATE SKIP LOCKED}, so several nodes can drain
+ * the outbox side by side, and is sent in parallel over the sessions of {@link SmtpTransportPool}. Claiming pushes
+ * {@code next_attempt_at} forward by the lease, so a batch claimed by a node that dies
+ * before recording the outcome is retried once the lease runs out. Failed messages are
+ * retried with exponential backoff until the attempt limit is reached.
+ * <p>
+ * Draining starts as soon as a transaction that queued an email commits, and
+ * {@code EmailOutboxTask} polls as a fallback for retries and missed wake-ups.
+ * <p>
+ * Draining runs on a platform thread of its own even when virtual threads are enabled, like the SMTP sends:
+ * Jakarta Mail holds a monitor while it talks to the mail server, which would pin the
+ * carrier of a virtual thread for the whole batch.
+ */
+@Service
+public class EmailOutboxDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+    private static final String CLAIM_SQL = """
+            UPDATE public.email_outbox SET attempts = attempts + 1, next_attempt_at = ?
+            WHERE id IN (
+                SELECT id FROM public.email_outbox
+                WHERE status = 'PENDING' AND next_attempt_at <= ?
+                ORDER BY next_attempt_at
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED)
+            RETURNING id, recipient, subject, body, attempts, created_at
+            """;
+
+    private static final String MARK_SENT_SQL =
+            "UPDATE public.email_outbox SET status = 'SENT', sent_at = ?, last_error = NULL WHERE id = ?";
+
+    private static final String MARK_FAILED_SQL =
+            "UPDATE public.email_outbox SET status = ?, next_attempt_at = ?, last_error = ? WHERE id = ?";
+
+    private final JavaMailSender mailSender;
+    private final SmtpTransportPool transportPool;
+    private final JdbcTemplate jdbcTemplate;
+    private final ThreadPoolTaskExecutor drainExecutor;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean wakeRequested = new AtomicBoolean();
+    private final AtomicLong pending = new AtomicLong();
+    private final Timer sendTimer;
+    private final Timer deliveryTimer;
+
+    @Value("${spring.mail.username}")
+    private String emailFrom;
+
+    @Value("${email.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${email.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${email.outbox.initial-backoff:30s}")
+    private Duration initialBackoff;
+
+    @Value("${email.outbox.max-backoff:1h}")
+    private Duration maxBackoff;
+
+    @Value("${email.outbox.lease:5m}")
+    private Duration lease;
+
+    public EmailOutboxDispatcher(JavaMailSender mailSender,
+                                 SmtpTransportPool transportPool,
+                                 JdbcTemplate jdbcTemplate,
+                                 ThreadPoolTaskExecutorBuilder executorBuilder,
+                                 MeterRegistry meterRegistry) {
+        this.mailSender = mailSender;
+        this.transportPool = transportPool;
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+        // Only one drain runs at a time
+        this.drainExecutor = executorBuilder
+                .corePoolSize(1)
+                .maxPoolSize(1)
+                .threadNamePrefix("email-outbox-")
+                .build();
+        this.drainExecutor.initialize();
+
+        Gauge.builder("bookly.email.outbox.pending", pending, AtomicLong::get)
+                .description("Number of emails waiting in the outbox")
+                .register(meterRegistry);
+        this.sendTimer = Timer.builder("bookly.email.send")
+                .description("Time taken to send one batch of emails over SMTP")
+                .register(meterRegistry);
+        this.deliveryTimer = Timer.builder("bookly.email.delivery")
+                .description("Time from queueing an email to handing it to the mail server")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        drainExecutor.shutdown();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmailQueued(EmailQueuedEvent event) {
+        requestDispatch();
+    }
+
+    /**
+     * Drain the outbox in the background unless this node is already draining it.
+     */
+    public void requestDispatch() {
+        wakeRequested.set(true);
+        if (draining.compareAndSet(false, true)) {
+            drainExecutor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            // Keep going while batches come back full or new emails were queued meanwhile
+            while (wakeRequested.getAndSet(false)) {
+                int claimed;
+                do {
+                    claimed = dispatchBatch();
+                } while (claimed == batchSize);
+            }
+        } catch (Exception e) {
+            logger.error("Error dispatching outbox emails", e);
+        } finally {
+            draining.set(false);
+        }
+        // An email queued just before the flag was cleared would otherwise wait for the next poll
+        if (wakeRequested.get()) {
+            requestDispatch();
+        }
+    }
+
+    /**
+     * Claim and send one batch of due emails.
+     *
+     * @return Number of emails claimed
+     */
+    public int dispatchBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<QueuedEmail> batch = jdbcTemplate.query(CLAIM_SQL,
+                (rs, rowNum) -> new QueuedEmail(
+                        rs.getObject("id", UUID.class),
+                        rs.getString("recipient"),
+                        rs.getString("subject"),
+                        rs.getString("body"),
+                        rs.getInt("attempts"),
+                        rs.getTimestamp("created_at").toLocalDateTime()),
+                Timestamp.valueOf(now.plus(lease)), Timestamp.valueOf(now), batchSize);
+
+        if (!batch.isEmpty()) {
+            send(batch);
+        }
+        return batch.size();
+    }
+
+    /**
+     * Refresh the outbox depth reported by the {@code bookly.email.outbox.pending} gauge.
+     */
+    public void refreshPendingCount() {
+        Long count = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM public.email_outbox WHERE status = 'PENDING'", Long.class);
+        pending.set(count != null ? count : 0);
+    }
+
+    private void send(List<QueuedEmail> batch) {
+        Map<MimeMessage, QueuedEmail> messages = new LinkedHashMap<>();
+        Map<QueuedEmail, Exception> failures = new HashMap<>();
+        for (QueuedEmail email : batch) {
+            try {
+                messages.put(toMimeMessage(email), email);
+            } catch (MessagingException e) {
+                failures.put(email, e);
+            }
+        }
+
+        if (!messages.isEmpty()) {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
+                transportPool.send(new ArrayList<>(messages.keySet()))
+                        .forEach((message, cause) -> failures.put(messages.get(message), cause));
+            } finally {
+                sample.stop(sendTimer);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> sent = new ArrayList<>();
+        for (QueuedEmail email : messages.values()) {
+            if (!failures.containsKey(email)) {
+                sent.add(new Object[]{Timestamp.valueOf(now), email.id()});
+                deliveryTimer.record(Duration.between(email.createdAt(), now));
+            }
+        }
+        if (!sent.isEmpty()) {
+            jdbcTemplate.batchUpdate(MARK_SENT_SQL, sent);
+            counter("sent").increment(sent.size());
+        }
+
+        if (!failures.isEmpty()) {
+            recordFailures(failures, now);
+        }
+    }
+
+    private void recordFailures(Map<QueuedEmail, Exception> failures, LocalDateTime now) {
+        List<Object[]> updates = new ArrayList<>(failures.size());
+        failures.forEach((email, cause) -> {
+            boolean giveUp = email.attempts() >= maxAttempts;
+            logger.warn("Failed to send email {} to {} (attempt {}{})", email.id(), email.recipient(),
+                    email.attempts(), giveUp ? ", giving up" : "", cause);
+            updates.add(new Object[]{
+                    giveUp ? "FAILED" : "PENDING",
+                    Timestamp.valueOf(now.plus(backoff(email.attempts()))),
+                    cause.getMessage(),
+                    email.id()
+            });
+            counter(giveUp ? "failed" : "retry").increment();
+        });
+        jdbcTemplate.batchUpdate(MARK_FAILED_SQL, updates);
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private MimeMessage toMimeMessage(QueuedEmail email) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+
+        helper.setFrom(emailFrom);
+        helper.setTo(email.recipient());
+        helper.setSubject(email.subject());
+        helper.setText(email.body(), true);
+        return message;
+    }
+
+    private Counter counter(String outcome) {
+        return Counter.builder("bookly.email.messages")
+                .description("Outbox emails by delivery outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record QueuedEmail(UUID id, String recipient, String subject, String body, int attempts,
+                               LocalDateTime createdAt) {
+    }
+}
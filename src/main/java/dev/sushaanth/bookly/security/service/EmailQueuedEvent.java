@@ -0,0 +1,10 @@
+package dev.sushaanth.bookly.security.service;
+
+import java.util.UUID;
+
+/**
+ * Published when an email is written to the outbox, so the dispatcher can deliver it
+ * as soon as the surrounding transaction commits.
+ */
+public record EmailQueuedEvent(UUID emailId) {
+}
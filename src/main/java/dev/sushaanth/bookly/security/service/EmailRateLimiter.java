@@ -0,0 +1,293 @@
+package dev.sushaanth.bookly.security.service;
+
+import dev.sushaanth.bookly.exception.BooklyException;
+import dev.sushaanth.bookly.exception.BooklyException.ErrorCode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Limits how often emails go to a single recipient and to the members of a single tenant.
+ * <p>
+ * A request for a recipient who was sent an email for the same purpose within the cooldown
+ * is coalesced into that earlier send instead of producing another one. Beyond the cooldown,
+ * each recipient and each tenant may be sent a fixed number of emails per window, whatever
+ * they are for. State is held in memory
+ * on each node, so checks never touch the database.
+ * <p>
+ * A reservation taken inside a transaction is handed back if that transaction rolls back,
+ * so a failed request neither consumes quota nor starts a cooldown.
+ */
+@Component
+public class EmailRateLimiter {
+
+    public enum Outcome {
+        /** Go ahead and send */
+        SEND,
+        /** An email was sent moments ago, reuse it instead of sending another */
+        COALESCE,
+        /** A quota is used up, only returned by {@link #acquireAll} */
+        RATE_LIMITED
+    }
+
+    /**
+     * What an email is for. Cooldowns are kept per purpose, so an invitation does not hold
+     * back a verification code sent moments later; quotas are shared.
+     */
+    public enum Purpose {
+        /** Verification codes */
+        OTP,
+        /** Employee invitations and their resends */
+        INVITATION
+    }
+
+    /**
+     * @param outcome       Whether to send
+     * @param pendingExpiry Expiry recorded for the earlier send when coalescing, may be {@code null}
+     * @param cooldownLeft  Time until another email may be sent when coalescing or rate limited
+     */
+    public record Decision(Outcome outcome, LocalDateTime pendingExpiry, Duration cooldownLeft) {
+    }
+
+    private static final Decision SEND = new Decision(Outcome.SEND, null, Duration.ZERO);
+
+    /**
+     * The decision for one recipient, with the window changes to keep or undo for a send
+     */
+    private record Reservation(Decision decision, List<Change<?>> changes) {
+    }
+
+    private record Change<K>(Map<K, Window> windows, K key, Window reserved, Window previous) {
+
+        void undo() {
+            restore(windows, key, reserved, previous);
+        }
+
+        void undoOnRollback() {
+            releaseOnRollback(windows, key, reserved, previous);
+        }
+    }
+
+    private final Map<String, Window> cooldowns = new ConcurrentHashMap<>();
+    private final Map<String, Window> recipients = new ConcurrentHashMap<>();
+    private final Map<UUID, Window> tenants = new ConcurrentHashMap<>();
+
+    @Value("${email.rate-limit.cooldown:60s}")
+    private Duration cooldown;
+
+    @Value("${email.rate-limit.window:1h}")
+    private Duration window;
+
+    @Value("${email.rate-limit.max-per-recipient:5}")
+    private int maxPerRecipient;
+
+    @Value("${email.rate-limit.max-per-tenant:200}")
+    private int maxPerTenant;
+
+    /**
+     * Reserve a send to the recipient, or coalesce it into one for the same purpose made
+     * within the cooldown.
+     *
+     * @param recipient Email address
+     * @param purpose   What the email is for
+     * @param tenantId  Tenant whose quota the send counts against, or {@code null} if none
+     * @throws BooklyException with {@link ErrorCode#EMAIL_RATE_LIMITED} if a quota is used up
+     */
+    public Decision acquire(String recipient, Purpose purpose, UUID tenantId) {
+        long now = System.nanoTime();
+        Reservation reservation = reserveRecipient(recipient, purpose, now);
+        Decision decision = reservation.decision();
+        if (decision.outcome() == Outcome.RATE_LIMITED) {
+            throw rateLimited("Too many emails requested for " + recipient, decision.cooldownLeft());
+        }
+        if (decision.outcome() == Outcome.COALESCE) {
+            return decision;
+        }
+
+        if (tenantId != null && reserveTenant(tenantId, 1, now) == 0) {
+            reservation.changes().forEach(Change::undo);
+            throw rateLimited("Too many emails sent for this library", tenants.get(tenantId).retryAfter(now, window));
+        }
+
+        reservation.changes().forEach(Change::undoOnRollback);
+        return decision;
+    }
+
+    /**
+     * Reserve sends to many recipients of one tenant, taking every send that passes the
+     * recipient checks from the tenant's quota in one step. Sends past the quota are
+     * handed back and reported as {@link Outcome#RATE_LIMITED}.
+     *
+     * @param addresses Email addresses, without duplicates
+     * @param purpose   What the emails are for
+     * @param tenantId  Tenant whose quota the sends count against
+     * @return The decision for each address, in order
+     */
+    public List<Decision> acquireAll(List<String> addresses, Purpose purpose, UUID tenantId) {
+        long now = System.nanoTime();
+        List<Reservation> reservations = new ArrayList<>(addresses.size());
+        int sends = 0;
+        for (String address : addresses) {
+            Reservation reservation = reserveRecipient(address, purpose, now);
+            reservations.add(reservation);
+            if (reservation.decision().outcome() == Outcome.SEND) {
+                sends++;
+            }
+        }
+
+        int granted = reserveTenant(tenantId, sends, now);
+        Duration retryAfter = granted < sends ? tenants.get(tenantId).retryAfter(now, window) : Duration.ZERO;
+
+        List<Decision> decisions = new ArrayList<>(addresses.size());
+        int next = 0;
+        for (Reservation reservation : reservations) {
+            if (reservation.decision().outcome() != Outcome.SEND) {
+                decisions.add(reservation.decision());
+            } else if (++next <= granted) {
+                reservation.changes().forEach(Change::undoOnRollback);
+                decisions.add(reservation.decision());
+            } else {
+                reservation.changes().forEach(Change::undo);
+                decisions.add(new Decision(Outcome.RATE_LIMITED, null, retryAfter));
+            }
+        }
+        return decisions;
+    }
+
+    private Reservation reserveRecipient(String recipient, Purpose purpose, long now) {
+        String cooldownKey = cooldownKey(recipient, purpose);
+        Window[] previousCooldown = new Window[1];
+        Window cooling = cooldowns.compute(cooldownKey, (k, current) -> {
+            previousCooldown[0] = current;
+            if (current != null && now - current.lastSent() < cooldown.toNanos()) {
+                return current;
+            }
+            return Window.start(now, 1);
+        });
+        if (cooling == previousCooldown[0]) {
+            Duration cooldownLeft = Duration.ofNanos(cooling.lastSent() + cooldown.toNanos() - now);
+            return new Reservation(new Decision(Outcome.COALESCE, cooling.expiry(), cooldownLeft), List.of());
+        }
+        Change<String> cooldownChange = new Change<>(cooldowns, cooldownKey, cooling, previousCooldown[0]);
+
+        String key = recipient.toLowerCase(Locale.ROOT);
+        Window[] previous = new Window[1];
+        Window updated = recipients.compute(key, (k, current) -> {
+            previous[0] = current;
+            Window active = current == null || current.expired(now, window) ? null : current;
+            if (active != null && active.count() >= maxPerRecipient) {
+                return current;
+            }
+            return active == null ? Window.start(now, 1) : active.add(now, 1);
+        });
+        if (updated == previous[0]) {
+            cooldownChange.undo();
+            return new Reservation(new Decision(Outcome.RATE_LIMITED, null, updated.retryAfter(now, window)), List.of());
+        }
+        return new Reservation(SEND, List.of(cooldownChange, new Change<>(recipients, key, updated, previous[0])));
+    }
+
+    /**
+     * Take up to the requested number of sends from the tenant's quota in one step.
+     *
+     * @return How many were granted
+     */
+    private int reserveTenant(UUID tenantId, int requested, long now) {
+        Window[] previous = new Window[1];
+        int[] granted = new int[1];
+        Window updated = tenants.compute(tenantId, (k, current) -> {
+            previous[0] = current;
+            Window active = current == null || current.expired(now, window) ? null : current;
+            int available = maxPerTenant - (active == null ? 0 : active.count());
+            granted[0] = Math.max(0, Math.min(requested, available));
+            if (granted[0] == 0) {
+                return current;
+            }
+            return active == null ? Window.start(now, granted[0]) : active.add(now, granted[0]);
+        });
+        if (granted[0] > 0) {
+            releaseOnRollback(tenants, tenantId, updated, previous[0]);
+        }
+        return granted[0];
+    }
+
+    /**
+     * Remember when the email just sent to the recipient expires, for coalesced responses.
+     */
+    public void recordExpiry(String recipient, Purpose purpose, LocalDateTime expiry) {
+        cooldowns.computeIfPresent(cooldownKey(recipient, purpose), (k, current) -> current.withExpiry(expiry));
+    }
+
+    @Scheduled(fixedDelayString = "${email.rate-limit.cleanup-ms:300000}")
+    public void evictExpiredWindows() {
+        long now = System.nanoTime();
+        cooldowns.values().removeIf(w -> now - w.lastSent() >= cooldown.toNanos());
+        recipients.values().removeIf(w -> w.expired(now, window));
+        tenants.values().removeIf(w -> w.expired(now, window));
+    }
+
+    private static String cooldownKey(String recipient, Purpose purpose) {
+        return purpose.name() + ':' + recipient.toLowerCase(Locale.ROOT);
+    }
+
+    private static <K> void releaseOnRollback(Map<K, Window> windows, K key, Window reserved, Window previous) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    restore(windows, key, reserved, previous);
+                }
+            }
+        });
+    }
+
+    private static <K> void restore(Map<K, Window> windows, K key, Window reserved, Window previous) {
+        // Only undo our own reservation, later ones have moved the window on already
+        windows.computeIfPresent(key, (k, current) -> current.sameReservation(reserved) ? previous : current);
+    }
+
+    private static BooklyException rateLimited(String message, Duration retryAfter) {
+        return new BooklyException(ErrorCode.EMAIL_RATE_LIMITED, message + ", please try again later", retryAfter);
+    }
+
+    private record Window(long start, int count, long lastSent, LocalDateTime expiry) {
+
+        static Window start(long now, int sends) {
+            return new Window(now, sends, now, null);
+        }
+
+        Window add(long now, int sends) {
+            return new Window(start, count + sends, now, null);
+        }
+
+        Window withExpiry(LocalDateTime expiry) {
+            return new Window(start, count, lastSent, expiry);
+        }
+
+        boolean sameReservation(Window other) {
+            return start == other.start && count == other.count && lastSent == other.lastSent;
+        }
+
+        boolean expired(long now, Duration window) {
+            return now - start >= window.toNanos();
+        }
+
+        Duration retryAfter(long now, Duration window) {
+            return Duration.ofNanos(Math.max(0, start + window.toNanos() - now));
+        }
+    }
+}
@@ -1,32 +1,43 @@
 package dev.sushaanth.bookly.security.service;
 
+import dev.sushaanth.bookly.security.model.OutboxEmail;
+import dev.sushaanth.bookly.security.repository.EmailOutboxRepository;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.ClassPathResource;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.util.FileCopyUtils;
 
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Renders emails and writes them to the outbox.
+ * <p>
+ * Nothing is sent here. The email joins the caller's transaction, so it is only
+ * delivered if that transaction commits, and {@link EmailOutboxDispatcher} sends it
+ * in the background without holding the caller's request thread or connection.
+ */
 @Service
 public class EmailService {
-    private final JavaMailSender mailSender;
-
-    @Value("${spring.mail.username}")
-    private String emailFrom;
+    private final EmailOutboxRepository outboxRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EmailTemplate otpTemplate;
+    private final EmailTemplate invitationTemplate;
 
     @Value("${application.base-url}")
     private String baseUrl;
 
-    public EmailService(JavaMailSender mailSender) {
-        this.mailSender = mailSender;
+    public EmailService(EmailOutboxRepository outboxRepository, ApplicationEventPublisher eventPublisher) {
+        this.outboxRepository = outboxRepository;
+        this.eventPublisher = eventPublisher;
+
+        // Compiled at startup, so a missing or misspelt variable stops the application from starting
+        this.otpTemplate = EmailTemplate.load("email-templates/otp-email.html", Set.of("otp"));
+        this.invitationTemplate = EmailTemplate.load("email-templates/invitation-email.html",
+                Set.of("adminName", "libraryName", "baseUrl", "invitationId"));
     }
 
     public void sendOtp(String to, String otp) {
@@ -36,57 +47,57 @@ public class EmailService {
         sendEmail(
                 to,
                 "Bookly - Email Verification",
-                "email-templates/otp-email.html",
+                otpTemplate,
                 templateModel
         );
     }
 
     public void sendEmployeeInvitation(String to, String adminName, String libraryName, String invitationId) {
-        Map<String, Object> templateModel = new HashMap<>();
-        templateModel.put("adminName", adminName);
-        templateModel.put("libraryName", libraryName);
-        templateModel.put("baseUrl", baseUrl);
-        templateModel.put("invitationId", invitationId);
-
         sendEmail(
                 to,
-                "Invitation to join " + libraryName + " on Bookly",
-                "email-templates/invitation-email.html",
-                templateModel
+                invitationSubject(libraryName),
+                invitationTemplate,
+                invitationModel(adminName, libraryName, invitationId)
         );
     }
 
-    private void sendEmail(String to, String subject, String templatePath, Map<String, Object> model) {
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+    /**
+     * Queue invitation emails for many addresses with batched outbox inserts.
+     *
+     * @param invitations Invitation id for each recipient
+     */
+    public void sendEmployeeInvitations(String adminName, String libraryName, Map<String, UUID> invitations) {
+        if (invitations.isEmpty()) {
+            return;
+        }
 
-            helper.setFrom(emailFrom);
-            helper.setTo(to);
-            helper.setSubject(subject);
+        String subject = invitationSubject(libraryName);
+        List<OutboxEmail> emails = new ArrayList<>(invitations.size());
+        invitations.forEach((to, invitationId) -> emails.add(new OutboxEmail(
+                to, subject, invitationTemplate.render(invitationModel(adminName, libraryName, invitationId.toString())))));
 
-            String template = loadTemplate(templatePath);
-            String content = processTemplate(template, model);
+        List<OutboxEmail> saved = outboxRepository.saveAll(emails);
+        // One wake-up is enough, the dispatcher drains the whole outbox once it starts
+        eventPublisher.publishEvent(new EmailQueuedEvent(saved.get(0).getId()));
+    }
 
-            helper.setText(content, true);
-            mailSender.send(message);
-        } catch (MessagingException | IOException e) {
-            throw new RuntimeException("Failed to send email", e);
-        }
+    private String invitationSubject(String libraryName) {
+        return "Invitation to join " + libraryName + " on Bookly";
     }
 
-    private String loadTemplate(String path) throws IOException {
-        ClassPathResource resource = new ClassPathResource(path);
-        try (InputStreamReader reader = new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8)) {
-            return FileCopyUtils.copyToString(reader);
-        }
+    private Map<String, Object> invitationModel(String adminName, String libraryName, String invitationId) {
+        Map<String, Object> templateModel = new HashMap<>();
+        templateModel.put("adminName", adminName);
+        templateModel.put("libraryName", libraryName);
+        templateModel.put("baseUrl", baseUrl);
+        templateModel.put("invitationId", invitationId);
+        return templateModel;
     }
 
-    private String processTemplate(String template, Map<String, Object> model) {
-        String result = template;
-        for (Map.Entry<String, Object> entry : model.entrySet()) {
-            result = result.replace("${" + entry.getKey() + "}", entry.getValue().toString());
-        }
-        return result;
+    private void sendEmail(String to, String subject, EmailTemplate template, Map<String, Object> model) {
+        String content = template.render(model);
+
+        OutboxEmail email = outboxRepository.save(new OutboxEmail(to, subject, content));
+        eventPublisher.publishEvent(new EmailQueuedEvent(email.getId()));
     }
 }
\ No newline at end of file
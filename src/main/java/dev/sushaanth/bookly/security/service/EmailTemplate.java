@@ -0,0 +1,130 @@
+package dev.sushaanth.bookly.security.service;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.FileCopyUtils;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An email template split once into literal text and {@code ${name}} placeholders.
+ * <p>
+ * Rendering walks the segments and appends each one to a single buffer sized from
+ * the literal text and the longest output seen so far, so the document is written
+ * exactly once per render. Templates are immutable and safe to share between threads.
+ */
+public final class EmailTemplate {
+    private static final String PLACEHOLDER_START = "${";
+    private static final String PLACEHOLDER_END = "}";
+
+    private final String name;
+    // literals[i] precedes placeholders[i]; the last literal follows the last placeholder
+    private final String[] literals;
+    private final String[] placeholders;
+    private volatile int sizeHint;
+
+    private EmailTemplate(String name, String[] literals, String[] placeholders) {
+        this.name = name;
+        this.literals = literals;
+        this.placeholders = placeholders;
+
+        int literalLength = 0;
+        for (String literal : literals) {
+            literalLength += literal.length();
+        }
+        this.sizeHint = literalLength + 32 * placeholders.length;
+    }
+
+    /**
+     * Load and compile a classpath template, checking that it uses exactly the given variables.
+     *
+     * @throws IllegalStateException if the template references a variable that is not provided,
+     *                               or a provided variable is never used
+     */
+    public static EmailTemplate load(String path, Set<String> variables) {
+        String source;
+        try (InputStreamReader reader = new InputStreamReader(
+                new ClassPathResource(path).getInputStream(), StandardCharsets.UTF_8)) {
+            source = FileCopyUtils.copyToString(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load email template " + path, e);
+        }
+
+        EmailTemplate template = compile(path, source);
+        Set<String> used = template.variables();
+
+        Set<String> missing = new LinkedHashSet<>(used);
+        missing.removeAll(variables);
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Email template " + path + " uses variables with no value: " + missing);
+        }
+        Set<String> unused = new LinkedHashSet<>(variables);
+        unused.removeAll(used);
+        if (!unused.isEmpty()) {
+            throw new IllegalStateException("Email template " + path + " never uses variables: " + unused);
+        }
+        return template;
+    }
+
+    /**
+     * Split template source into literal and placeholder segments.
+     */
+    public static EmailTemplate compile(String name, String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+
+        int position = 0;
+        int start;
+        while ((start = source.indexOf(PLACEHOLDER_START, position)) >= 0) {
+            int end = source.indexOf(PLACEHOLDER_END, start + PLACEHOLDER_START.length());
+            if (end < 0) {
+                break;
+            }
+            literals.add(source.substring(position, start));
+            placeholders.add(source.substring(start + PLACEHOLDER_START.length(), end));
+            position = end + PLACEHOLDER_END.length();
+        }
+        literals.add(source.substring(position));
+
+        return new EmailTemplate(name, literals.toArray(String[]::new), placeholders.toArray(String[]::new));
+    }
+
+    /**
+     * Render the template with the given values.
+     *
+     * @throws IllegalArgumentException if a variable used by the template has no value
+     */
+    public String render(Map<String, ?> model) {
+        StringBuilder out = new StringBuilder(sizeHint);
+        for (int i = 0; i < placeholders.length; i++) {
+            out.append(literals[i]);
+            Object value = model.get(placeholders[i]);
+            if (value == null) {
+                throw new IllegalArgumentException(
+                        "No value for ${" + placeholders[i] + "} in email template " + name);
+            }
+            out.append(value);
+        }
+        out.append(literals[placeholders.length]);
+
+        if (out.length() > sizeHint) {
+            sizeHint = out.length();
+        }
+        return out.toString();
+    }
+
+    public Set<String> variables() {
+        return new LinkedHashSet<>(List.of(placeholders));
+    }
+
+    public String getName() {
+        return name;
+    }
+}
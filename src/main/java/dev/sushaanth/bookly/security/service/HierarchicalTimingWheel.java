@@ -0,0 +1,144 @@
+package dev.sushaanth.bookly.security.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Expires items at a deadline with constant-time scheduling, in the style of the
+ * hashed hierarchical timing wheels used by operating system timers.
+ * <p>
+ * Time is counted in ticks. The lowest level has one slot per tick; each higher level
+ * has slots as wide as a full turn of the level below. An item is placed in the lowest
+ * level whose span covers its deadline and moves down a level each time the wheel turns
+ * past its slot, so advancing the clock only touches items that are due or about to
+ * move. Items cannot be cancelled; callers ignore expiries for items they have replaced.
+ */
+public final class HierarchicalTimingWheel<T> {
+    private final long tickNanos;
+    private final int slotBits;
+    private final int slotMask;
+    private final long origin;
+    private final List<List<Timer<T>>[]> levels = new ArrayList<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param tickNanos     Resolution of the wheel; items expire up to one tick late
+     * @param slotsPerLevel Slots on each level, rounded up to a power of two
+     * @param nowNanos      Current {@link System#nanoTime()}
+     */
+    public HierarchicalTimingWheel(long tickNanos, int slotsPerLevel, long nowNanos) {
+        if (tickNanos <= 0 || slotsPerLevel < 2) {
+            throw new IllegalArgumentException("Tick must be positive and a level needs at least two slots");
+        }
+        this.tickNanos = tickNanos;
+        this.slotBits = 32 - Integer.numberOfLeadingZeros(slotsPerLevel - 1);
+        this.slotMask = (1 << slotBits) - 1;
+        this.origin = nowNanos;
+    }
+
+    /**
+     * Schedule the item to expire at the given {@link System#nanoTime()} deadline.
+     * A deadline that has already passed expires on the next tick.
+     */
+    public void schedule(T item, long deadlineNanos) {
+        long elapsed = deadlineNanos - origin;
+        long tick = elapsed <= 0 ? 0 : (elapsed + tickNanos - 1) / tickNanos;
+
+        lock.lock();
+        try {
+            place(new Timer<>(item, Math.max(tick, currentTick + 1)));
+            size++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Move the clock forward to the given {@link System#nanoTime()}, handing every item
+     * whose deadline has passed to the callback.
+     */
+    public void advance(long nowNanos, Consumer<? super T> expired) {
+        long target = (nowNanos - origin) / tickNanos;
+        List<T> due = new ArrayList<>();
+
+        lock.lock();
+        try {
+            while (currentTick < target) {
+                currentTick++;
+                // Higher levels first, so items falling two levels land before the lower slot is read
+                for (int level = Math.min(cascadeDepth(currentTick), levels.size() - 1); level >= 1; level--) {
+                    List<Timer<T>> moving = take(level, slot(currentTick, level));
+                    if (moving != null) {
+                        moving.forEach(this::place);
+                    }
+                }
+                List<Timer<T>> expiring = levels.isEmpty() ? null : take(0, slot(currentTick, 0));
+                if (expiring != null) {
+                    expiring.forEach(timer -> due.add(timer.item()));
+                    size -= expiring.size();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        // Outside the lock so callbacks may schedule again
+        due.forEach(expired);
+    }
+
+    /**
+     * Number of items waiting to expire.
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void place(Timer<T> timer) {
+        // The lowest level whose full turn still reaches the deadline
+        long delta = timer.tick() - currentTick;
+        int level = 0;
+        while (slotBits * (level + 1) < Long.SIZE && delta >>> (slotBits * (level + 1)) != 0) {
+            level++;
+        }
+        while (levels.size() <= level) {
+            @SuppressWarnings("unchecked")
+            List<Timer<T>>[] slots = new List[slotMask + 1];
+            levels.add(slots);
+        }
+
+        List<Timer<T>>[] slots = levels.get(level);
+        int slot = slot(timer.tick(), level);
+        if (slots[slot] == null) {
+            slots[slot] = new ArrayList<>();
+        }
+        slots[slot].add(timer);
+    }
+
+    private List<Timer<T>> take(int level, int slot) {
+        List<Timer<T>>[] slots = levels.get(level);
+        List<Timer<T>> bucket = slots[slot];
+        slots[slot] = null;
+        return bucket;
+    }
+
+    private int slot(long tick, int level) {
+        return (int) ((tick >>> (slotBits * level)) & slotMask);
+    }
+
+    // How many levels turn over at this tick
+    private int cascadeDepth(long tick) {
+        return Long.numberOfTrailingZeros(tick) / slotBits;
+    }
+
+    private record Timer<T>(T item, long tick) {
+    }
+}
@@ -0,0 +1,104 @@
+package dev.sushaanth.bookly.security.service;
+
+import dev.sushaanth.bookly.security.model.VerificationToken;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps verification codes in memory, so issuing and checking a code never touches the database.
+ * <p>
+ * Each code is scheduled on a {@link HierarchicalTimingWheel} when issued and dropped once it
+ * has been expired for {@code security.otp.memory.retention}, which leaves time to complete a
+ * registration after verifying. Codes live only on the node that issued them, so this store
+ * needs a single node or sticky sessions for the registration endpoints.
+ */
+@Component
+@ConditionalOnProperty(name = "security.otp.store", havingValue = "memory")
+public class InMemoryVerificationTokenStore implements VerificationTokenStore {
+    private final Map<String, Entry> tokens = new ConcurrentHashMap<>();
+    private final HierarchicalTimingWheel<Entry> expiries;
+    private final Duration retention;
+
+    public InMemoryVerificationTokenStore(MeterRegistry meterRegistry,
+                                          @Value("${security.otp.memory.tick-ms:1000}") long tickMillis,
+                                          @Value("${security.otp.memory.retention:1h}") Duration retention) {
+        this.expiries = new HierarchicalTimingWheel<>(
+                Duration.ofMillis(tickMillis).toNanos(), 64, System.nanoTime());
+        this.retention = retention;
+
+        Gauge.builder("bookly.otp.tokens", tokens, Map::size)
+                .description("Verification codes held in memory")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public VerificationToken issue(String email, String otp, LocalDateTime expiryDate) {
+        LocalDateTime now = LocalDateTime.now();
+        Entry entry = new Entry(email, otp, expiryDate, now);
+        tokens.put(email, entry);
+
+        Duration untilRemoval = Duration.between(now, expiryDate).plus(retention);
+        expiries.schedule(entry, System.nanoTime() + untilRemoval.toNanos());
+        return entry.toToken();
+    }
+
+    @Override
+    public Optional<VerificationToken> findByEmail(String email) {
+        return Optional.ofNullable(tokens.get(email)).map(Entry::toToken);
+    }
+
+    @Override
+    public boolean markVerified(String email, String otp) {
+        boolean[] marked = new boolean[1];
+        tokens.computeIfPresent(email, (key, entry) -> {
+            if (entry.otp.equals(otp) && !entry.verified) {
+                entry.verified = true;
+                marked[0] = true;
+            }
+            return entry;
+        });
+        return marked[0];
+    }
+
+    @Scheduled(fixedDelayString = "${security.otp.memory.tick-ms:1000}")
+    public void expireTokens() {
+        // Only drop the entry the timer was set for, not a code issued since
+        expiries.advance(System.nanoTime(), entry -> tokens.remove(entry.email, entry));
+    }
+
+    // Compared by identity, so a reissued code is never removed by the timer of the one it replaced
+    private static final class Entry {
+        private final String email;
+        private final String otp;
+        private final LocalDateTime expiryDate;
+        private final LocalDateTime createdAt;
+        private volatile boolean verified;
+
+        Entry(String email, String otp, LocalDateTime expiryDate, LocalDateTime createdAt) {
+            this.email = email;
+            this.otp = otp;
+            this.expiryDate = expiryDate;
+            this.createdAt = createdAt;
+        }
+
+        VerificationToken toToken() {
+            VerificationToken token = new VerificationToken();
+            token.setEmail(email);
+            token.setToken(otp);
+            token.setVerified(verified);
+            token.setExpiryDate(expiryDate);
+            token.setCreatedAt(createdAt);
+            return token;
+        }
+    }
+}
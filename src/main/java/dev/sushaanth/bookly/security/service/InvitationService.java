@@ -2,6 +2,10 @@ package dev.sushaanth.bookly.security.service;
 
 import dev.sushaanth.bookly.exception.BooklyException;
 import dev.sushaanth.bookly.exception.BooklyException.ErrorCode;
+import dev.sushaanth.bookly.pagination.CursorPage;
+import dev.sushaanth.bookly.pagination.PageCursor;
+import dev.sushaanth.bookly.security.dto.BulkInvitationResult;
+import dev.sushaanth.bookly.security.dto.InvitationRequest;
 import dev.sushaanth.bookly.security.dto.InvitationResponse;
 import dev.sushaanth.bookly.security.model.EmployeeInvitation;
 import dev.sushaanth.bookly.security.model.LibraryUser;
@@ -10,44 +14,84 @@ import dev.sushaanth.bookly.security.repository.EmployeeInvitationRepository;
 import dev.sushaanth.bookly.security.repository.LibraryUserRepository;
 import dev.sushaanth.bookly.tenant.Tenant;
 import dev.sushaanth.bookly.tenant.TenantRepository;
+import jakarta.validation.Validator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Array;
+import java.sql.PreparedStatement;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Service
 public class InvitationService {
     private static final Logger logger = LoggerFactory.getLogger(InvitationService.class);
+    private static final int MAX_BULK_INVITATIONS = 1000;
+
+    private static final String EXISTING_EMAILS_SQL = """
+            SELECT email, 'Email already registered in the system' AS reason
+            FROM public.users WHERE email = ANY(?)
+            UNION ALL
+            SELECT email, 'Invitation already exists for this email'
+            FROM public.employee_invitations WHERE is_used = FALSE AND expires_at > LOCALTIMESTAMP AND email = ANY(?)
+            """;
+
+    private static final String INSERT_INVITATION_SQL = """
+            INSERT INTO public.employee_invitations (id, email, tenant_id, invited_by, created_at, expires_at, is_used)
+            VALUES (?, ?, ?, ?, ?, ?, FALSE)
+            """;
 
     private final EmployeeInvitationRepository invitationRepository;
     private final LibraryUserRepository userRepository;
     private final TenantRepository tenantRepository;
     private final EmailService emailService;
+    private final EmailRateLimiter emailRateLimiter;
+    private final JdbcTemplate jdbcTemplate;
+    private final Validator validator;
 
     public InvitationService(
             EmployeeInvitationRepository invitationRepository,
             LibraryUserRepository userRepository,
             TenantRepository tenantRepository,
-            EmailService emailService) {
+            EmailService emailService,
+            EmailRateLimiter emailRateLimiter,
+            JdbcTemplate jdbcTemplate,
+            Validator validator) {
         this.invitationRepository = invitationRepository;
         this.userRepository = userRepository;
         this.tenantRepository = tenantRepository;
         this.emailService = emailService;
+        this.emailRateLimiter = emailRateLimiter;
+        this.jdbcTemplate = jdbcTemplate;
+        this.validator = validator;
     }
 
-    public List<InvitationResponse> getPendingInvitations(UUID adminId) {
+    public CursorPage<InvitationResponse> getPendingInvitations(UUID adminId, String cursor, Integer size) {
         // Get admin's tenant ID
         LibraryUser admin = validateAdmin(adminId);
 
-        return invitationRepository.findByTenantIdAndUsedFalse(admin.getTenantId())
-                .stream()
-                .map(this::mapToInvitationResponse)
-                .collect(Collectors.toList());
+        PageCursor after = PageCursor.decode(cursor);
+        int pageSize = CursorPage.boundedSize(size);
+        Limit limit = Limit.of(pageSize + 1);
+
+        List<InvitationResponse> invitations = after == null
+                ? invitationRepository.findPendingWithInviterName(admin.getTenantId(), limit)
+                : invitationRepository.findPendingWithInviterNameAfter(
+                        admin.getTenantId(), after.createdAt(), after.id(), limit);
+        return CursorPage.of(invitations, pageSize,
+                invitation -> new PageCursor(invitation.createdAt(), invitation.id()),
+                invitation -> invitation);
     }
 
     @Transactional
@@ -55,6 +99,17 @@ public class InvitationService {
         // Validate admin and tenant
         LibraryUser admin = validateAdmin(adminId);
 
+        // Checked before the remaining lookups so rejected requests stay cheap
+        EmailRateLimiter.Decision decision = emailRateLimiter.acquire(
+                email, EmailRateLimiter.Purpose.INVITATION, admin.getTenantId());
+        if (decision.outcome() == EmailRateLimiter.Outcome.COALESCE) {
+            throw new BooklyException(
+                    ErrorCode.EMAIL_RATE_LIMITED,
+                    "An email was just sent to this address, please try again shortly",
+                    decision.cooldownLeft()
+            );
+        }
+
         // Check if email already exists
         if (userRepository.findByEmail(email).isPresent()) {
             throw new BooklyException(
@@ -63,8 +118,8 @@ public class InvitationService {
             );
         }
 
-        // Check if invitation already exists
-        if (invitationRepository.findByEmailAndUsedFalse(email).isPresent()) {
+        // Check if a live invitation already exists; expired ones can be replaced
+        if (invitationRepository.findByEmailAndUsedFalseAndExpiresAtAfter(email, LocalDateTime.now()).isPresent()) {
             throw new BooklyException(
                     ErrorCode.INVALID_CREDENTIALS,
                     "Invitation already exists for this email"
@@ -100,6 +155,102 @@ public class InvitationService {
         return mapToInvitationResponse(invitation);
     }
 
+    /**
+     * Invite many addresses at once, reporting the outcome for each one.
+     * <p>
+     * Addresses that are malformed, repeated, already registered or already invited
+     * are rejected individually. The rest are checked against existing users and
+     * invitations in a single query, inserted with one JDBC batch and their emails
+     * queued to the outbox together. Each invited row takes a send from the library's
+     * email quota, reserved for the whole import at once; rows past the quota are rejected.
+     */
+    @Transactional
+    public List<BulkInvitationResult> createEmployeeInvitations(List<String> emails, UUID adminId) {
+        LibraryUser admin = validateAdmin(adminId);
+
+        if (emails.isEmpty() || emails.size() > MAX_BULK_INVITATIONS) {
+            throw new BooklyException(
+                    ErrorCode.INVALID_IMPORT,
+                    "Between 1 and " + MAX_BULK_INVITATIONS + " emails can be invited per request"
+            );
+        }
+
+        Tenant tenant = tenantRepository.findById(admin.getTenantId())
+                .orElseThrow(() -> new BooklyException(
+                        ErrorCode.TENANT_NOT_FOUND,
+                        "Tenant not found"
+                ));
+
+        BulkInvitationResult[] results = new BulkInvitationResult[emails.size()];
+        Map<String, Integer> candidates = new LinkedHashMap<>();
+        for (int i = 0; i < emails.size(); i++) {
+            String email = emails.get(i) == null ? "" : emails.get(i).strip();
+            if (!validator.validate(new InvitationRequest(email, null)).isEmpty()) {
+                results[i] = rejected(i, email, "Not a valid email address");
+                continue;
+            }
+            Integer first = candidates.putIfAbsent(email, i);
+            if (first != null) {
+                results[i] = rejected(i, email, "Duplicate of row " + (first + 1));
+            }
+        }
+
+        Map<String, String> existing = findExistingEmails(candidates.keySet());
+
+        List<String> accepted = new ArrayList<>(candidates.size());
+        for (Map.Entry<String, Integer> candidate : candidates.entrySet()) {
+            String email = candidate.getKey();
+            int index = candidate.getValue();
+
+            String reason = existing.get(email);
+            if (reason != null) {
+                results[index] = rejected(index, email, reason);
+            } else {
+                accepted.add(email);
+            }
+        }
+
+        // Rows beyond what is left of the library's email quota are rejected, not the whole import
+        List<EmailRateLimiter.Decision> decisions = emailRateLimiter.acquireAll(
+                accepted, EmailRateLimiter.Purpose.INVITATION, admin.getTenantId());
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusDays(7);
+        Map<String, UUID> invited = new LinkedHashMap<>();
+        for (int i = 0; i < accepted.size(); i++) {
+            String email = accepted.get(i);
+            int index = candidates.get(email);
+
+            switch (decisions.get(i).outcome()) {
+                case COALESCE -> {
+                    results[index] = rejected(index, email, "An email was just sent to this address");
+                    continue;
+                }
+                case RATE_LIMITED -> {
+                    results[index] = rejected(index, email, "Email limit reached, please try again later");
+                    continue;
+                }
+                case SEND -> {
+                }
+            }
+
+            UUID id = UUID.randomUUID();
+            invited.put(email, id);
+            results[index] = new BulkInvitationResult(index, email, BulkInvitationResult.Status.INVITED, id, null);
+        }
+
+        List<Object[]> rows = new ArrayList<>(invited.size());
+        invited.forEach((email, id) -> rows.add(new Object[]{id, email, admin.getTenantId(), adminId, now, expiresAt}));
+        jdbcTemplate.batchUpdate(INSERT_INVITATION_SQL, rows);
+
+        emailService.sendEmployeeInvitations(admin.getUsername(), tenant.getDisplayName(), invited);
+
+        logger.info("Created {} of {} invitations in tenant {}",
+                invited.size(), emails.size(), tenant.getDisplayName());
+
+        return List.of(results);
+    }
+
     @Transactional
     public InvitationResponse resendInvitation(UUID invitationId, UUID adminId) {
         // Validate admin
@@ -128,6 +279,13 @@ public class InvitationService {
             );
         }
 
+        // A resend within the cooldown is answered by the email already on its way
+        EmailRateLimiter.Decision decision = emailRateLimiter.acquire(
+                invitation.getEmail(), EmailRateLimiter.Purpose.INVITATION, admin.getTenantId());
+        if (decision.outcome() == EmailRateLimiter.Outcome.COALESCE) {
+            return mapToInvitationResponse(invitation);
+        }
+
         // Update expiration date
         invitation.setExpiresAt(LocalDateTime.now().plusDays(7));
         invitation = invitationRepository.save(invitation);
@@ -179,6 +337,26 @@ public class InvitationService {
         logger.info("Deleted invitation for email: {}", invitation.getEmail());
     }
 
+    // Why each address cannot be invited, looked up in one round trip
+    private Map<String, String> findExistingEmails(Collection<String> emails) {
+        Map<String, String> existing = new HashMap<>();
+        if (emails.isEmpty()) {
+            return existing;
+        }
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(EXISTING_EMAILS_SQL);
+            Array array = connection.createArrayOf("varchar", emails.toArray());
+            statement.setArray(1, array);
+            statement.setArray(2, array);
+            return statement;
+        }, (RowCallbackHandler) rs -> existing.putIfAbsent(rs.getString("email"), rs.getString("reason")));
+        return existing;
+    }
+
+    private static BulkInvitationResult rejected(int index, String email, String reason) {
+        return new BulkInvitationResult(index, email, BulkInvitationResult.Status.REJECTED, null, reason);
+    }
+
     // Validate admin and return user object
     private LibraryUser validateAdmin(UUID adminId) {
         LibraryUser admin = userRepository.findById(adminId)
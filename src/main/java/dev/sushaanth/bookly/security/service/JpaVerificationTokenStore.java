@@ -0,0 +1,46 @@
+package dev.sushaanth.bookly.security.service;
+
+import dev.sushaanth.bookly.security.model.VerificationToken;
+import dev.sushaanth.bookly.security.repository.VerificationTokenRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Keeps verification codes in the {@code verification_tokens} table, shared by every node.
+ */
+@Component
+@ConditionalOnProperty(name = "security.otp.store", havingValue = "jpa", matchIfMissing = true)
+public class JpaVerificationTokenStore implements VerificationTokenStore {
+    private final VerificationTokenRepository tokenRepository;
+
+    public JpaVerificationTokenStore(VerificationTokenRepository tokenRepository) {
+        this.tokenRepository = tokenRepository;
+    }
+
+    @Override
+    public VerificationToken issue(String email, String otp, LocalDateTime expiryDate) {
+        VerificationToken token = tokenRepository.findByEmail(email)
+                .orElse(new VerificationToken());
+
+        token.setEmail(email);
+        token.setToken(otp);
+        token.setVerified(false);
+        token.setExpiryDate(expiryDate);
+        token.setCreatedAt(LocalDateTime.now());
+
+        return tokenRepository.save(token);
+    }
+
+    @Override
+    public Optional<VerificationToken> findByEmail(String email) {
+        return tokenRepository.findByEmail(email);
+    }
+
+    @Override
+    public boolean markVerified(String email, String otp) {
+        return tokenRepository.markVerified(email, otp) > 0;
+    }
+}
@@ -10,7 +10,6 @@ import dev.sushaanth.bookly.security.model.Role;
 import dev.sushaanth.bookly.security.model.VerificationToken;
 import dev.sushaanth.bookly.security.repository.EmployeeInvitationRepository;
 import dev.sushaanth.bookly.security.repository.LibraryUserRepository;
-import dev.sushaanth.bookly.security.repository.VerificationTokenRepository;
 import dev.sushaanth.bookly.tenant.Tenant;
 import dev.sushaanth.bookly.tenant.TenantRepository;
 import dev.sushaanth.bookly.tenant.TenantService;
@@ -22,41 +21,56 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
 import java.time.LocalDateTime;
-import java.util.Random;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 @Service
 public class RegistrationService {
     private static final Logger logger = LoggerFactory.getLogger(RegistrationService.class);
+    // Thread-safe and seeded once, rather than a new generator per code
+    private static final SecureRandom OTP_RANDOM = new SecureRandom();
 
-    private final VerificationTokenRepository tokenRepository;
+    private final VerificationTokenStore tokenStore;
     private final LibraryUserRepository userRepository;
     private final EmployeeInvitationRepository invitationRepository;
     private final TenantRepository tenantRepository;
     private final PasswordEncoder passwordEncoder;
     private final EmailService emailService;
+    private final EmailRateLimiter emailRateLimiter;
     private final TenantService tenantService;
 
     public RegistrationService(
-            VerificationTokenRepository tokenRepository,
+            VerificationTokenStore tokenStore,
             LibraryUserRepository userRepository,
             EmployeeInvitationRepository invitationRepository,
             TenantRepository tenantRepository,
             PasswordEncoder passwordEncoder,
             EmailService emailService,
+            EmailRateLimiter emailRateLimiter,
             TenantService tenantService) {
-        this.tokenRepository = tokenRepository;
+        this.tokenStore = tokenStore;
         this.userRepository = userRepository;
         this.invitationRepository = invitationRepository;
         this.tenantRepository = tenantRepository;
         this.passwordEncoder = passwordEncoder;
         this.emailService = emailService;
+        this.emailRateLimiter = emailRateLimiter;
         this.tenantService = tenantService;
     }
 
     @Transactional
     public EmailVerificationResponse initiateEmailVerification(InitialRegistrationRequest request) {
+        // Repeat requests within the cooldown reuse the code already sent
+        EmailRateLimiter.Decision decision = emailRateLimiter.acquire(request.email(), EmailRateLimiter.Purpose.OTP, null);
+        if (decision.outcome() == EmailRateLimiter.Outcome.COALESCE) {
+            return coalescedOtpResponse(request.email(), decision);
+        }
+
         // Validate email is not already registered
         if (userRepository.findByEmail(request.email()).isPresent()) {
             throw new BooklyException(ErrorCode.INVALID_CREDENTIALS, "Email already registered");
@@ -68,20 +82,12 @@ public class RegistrationService {
         // Generate OTP
         String otp = generateOtp();
 
-        // Create or update verification token
-        VerificationToken token = tokenRepository.findByEmail(request.email())
-                .orElse(new VerificationToken());
-
-        token.setEmail(request.email());
-        token.setToken(otp);
-        token.setVerified(false);
-        token.setExpiryDate(LocalDateTime.now().plusMinutes(10));
-        token.setCreatedAt(LocalDateTime.now());
-
-        tokenRepository.save(token);
+        // Create or replace verification token
+        VerificationToken token = tokenStore.issue(request.email(), otp, LocalDateTime.now().plusMinutes(10));
 
         // Send OTP email
         emailService.sendOtp(request.email(), otp);
+        emailRateLimiter.recordExpiry(request.email(), EmailRateLimiter.Purpose.OTP, token.getExpiryDate());
 
         logger.info("Library admin email verification initiated for: {}", request.email());
 
@@ -95,7 +101,10 @@ public class RegistrationService {
     @Transactional
     public EmailVerificationResult verifyEmail(VerificationRequest request) {
         // Find verification token
-        VerificationToken token = tokenRepository.findByEmailAndToken(request.email(), request.otp())
+        VerificationToken token = tokenStore.findByEmail(request.email())
+                .filter(candidate -> MessageDigest.isEqual(
+                        candidate.getToken().getBytes(StandardCharsets.UTF_8),
+                        request.otp().getBytes(StandardCharsets.UTF_8)))
                 .orElseThrow(() -> new BooklyException(ErrorCode.INVALID_OTP, "Invalid OTP"));
 
         // Validate token
@@ -107,9 +116,10 @@ public class RegistrationService {
             throw new BooklyException(ErrorCode.ALREADY_USED_OTP, "OTP already used");
         }
 
-        // Mark token as verified
-        token.setVerified(true);
-        tokenRepository.save(token);
+        // Mark token as verified, unless a new code replaced it meanwhile
+        if (!tokenStore.markVerified(request.email(), token.getToken())) {
+            throw new BooklyException(ErrorCode.INVALID_OTP, "Invalid OTP");
+        }
 
         logger.info("Email verified for: {}", request.email());
 
@@ -123,7 +133,7 @@ public class RegistrationService {
     @Transactional
     public RegistrationResponse completeRegistration(CompleteRegistrationRequest request) {
         // Find verification token
-        VerificationToken token = tokenRepository.findByEmail(request.email())
+        VerificationToken token = tokenStore.findByEmail(request.email())
                 .orElseThrow(() -> new BooklyException(
                         ErrorCode.INVALID_CREDENTIALS,
                         "No verification found for this email"
@@ -137,27 +147,14 @@ public class RegistrationService {
             );
         }
 
-        // Validate unique username
-        if (userRepository.findByUsername(request.username()).isPresent()) {
-            throw new BooklyException(
-                    ErrorCode.INVALID_CREDENTIALS,
-                    "Username already taken"
-            );
-        }
+        // Email, username and library name are checked together so every conflict is reported at once
+        checkConflicts(request.email(), request.username(), request.libraryName());
 
         // This endpoint is now ONLY for library admin registration
         return completeLibraryRegistration(request);
     }
 
     private RegistrationResponse completeLibraryRegistration(CompleteRegistrationRequest request) {
-        // Check for existing library name
-        if (tenantRepository.findByDisplayName(request.libraryName()).isPresent()) {
-            throw new BooklyException(
-                    ErrorCode.TENANT_ALREADY_EXISTS,
-                    "Library name already taken"
-            );
-        }
-
         try {
             // Create tenant
             TenantCreateRequest tenantRequest = new TenantCreateRequest(
@@ -177,7 +174,7 @@ public class RegistrationService {
             user.setRole(Role.ROLE_LIBRARY_ADMIN);
             user.setTenantId(tenantResponse.id());
 
-            userRepository.save(user);
+            insertUser(user);
 
             // Create user profile in tenant schema
             createUserProfileInTenant(user, tenantResponse.schemaName());
@@ -192,6 +189,8 @@ public class RegistrationService {
                     user.getRole().name(),
                     user.getTenantId()
             );
+        } catch (BooklyException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Failed to complete library registration", e);
             throw new BooklyException(
@@ -221,7 +220,7 @@ public class RegistrationService {
             user.setRole(Role.ROLE_EMPLOYEE);
             user.setTenantId(invitation.getTenantId());
 
-            userRepository.save(user);
+            insertUser(user);
 
             // Create user profile in tenant schema
             createUserProfileInTenant(user, tenant.getSchemaName());
@@ -341,21 +340,8 @@ public class RegistrationService {
             );
         }
 
-        // Check if email is already registered
-        if (userRepository.findByEmail(invitation.getEmail()).isPresent()) {
-            throw new BooklyException(
-                    ErrorCode.INVALID_CREDENTIALS,
-                    "An account with this email already exists"
-            );
-        }
-
-        // Validate unique username
-        if (userRepository.findByUsername(request.username()).isPresent()) {
-            throw new BooklyException(
-                    ErrorCode.INVALID_CREDENTIALS,
-                    "Username is already taken"
-            );
-        }
+        // Check email and username in one query
+        checkConflicts(invitation.getEmail(), request.username(), null);
 
         try {
             // Get tenant
@@ -375,7 +361,7 @@ public class RegistrationService {
             user.setRole(Role.ROLE_EMPLOYEE);
             user.setTenantId(invitation.getTenantId());
 
-            userRepository.save(user);
+            insertUser(user);
 
             // Create user profile in tenant schema
             createUserProfileInTenant(user, tenant.getSchemaName());
@@ -407,22 +393,27 @@ public class RegistrationService {
 
     @Transactional
     public EmailVerificationResponse resendOtp(String email) {
-        // Find existing token or create new one
-        VerificationToken token = tokenRepository.findByEmail(email)
-                .orElseThrow(() -> new BooklyException(
-                        ErrorCode.INVALID_CREDENTIALS,
-                        "No pending registration found for this email"
-                ));
+        // Repeat requests within the cooldown reuse the code already sent
+        EmailRateLimiter.Decision decision = emailRateLimiter.acquire(email, EmailRateLimiter.Purpose.OTP, null);
+        if (decision.outcome() == EmailRateLimiter.Outcome.COALESCE) {
+            return coalescedOtpResponse(email, decision);
+        }
+
+        // Only resend for a registration that is already pending
+        if (tokenStore.findByEmail(email).isEmpty()) {
+            throw new BooklyException(
+                    ErrorCode.INVALID_CREDENTIALS,
+                    "No pending registration found for this email"
+            );
+        }
 
-        // Generate new OTP
+        // Generate new OTP, which also resets verification status
         String otp = generateOtp();
-        token.setToken(otp);
-        token.setExpiryDate(LocalDateTime.now().plusMinutes(10));
-        token.setVerified(false); // Reset verification status
-        tokenRepository.save(token);
+        VerificationToken token = tokenStore.issue(email, otp, LocalDateTime.now().plusMinutes(10));
 
         // Send new OTP
         emailService.sendOtp(email, otp);
+        emailRateLimiter.recordExpiry(email, EmailRateLimiter.Purpose.OTP, token.getExpiryDate());
 
         logger.info("OTP resent for: {}", email);
 
@@ -433,24 +424,61 @@ public class RegistrationService {
         );
     }
 
-    private void createUserProfileInTenant(LibraryUser user, String schemaName) {
-        try {
-            // Set tenant context
-            TenantContext.setTenantId(schemaName);
+    // Report every value already taken, user conflicts before the library name
+    private void checkConflicts(String email, String username, String libraryName) {
+        LibraryUserRepository.RegistrationConflicts conflicts =
+                userRepository.findConflicts(email, username, libraryName);
+
+        List<String> taken = new ArrayList<>();
+        if (conflicts.getEmailTaken()) {
+            taken.add("Email already registered");
+        }
+        if (conflicts.getUsernameTaken()) {
+            taken.add("Username already taken");
+        }
+        if (conflicts.getLibraryNameTaken()) {
+            taken.add("Library name already taken");
+        }
+        if (taken.isEmpty()) {
+            return;
+        }
+
+        ErrorCode code = conflicts.getEmailTaken() || conflicts.getUsernameTaken()
+                ? ErrorCode.INVALID_CREDENTIALS
+                : ErrorCode.TENANT_ALREADY_EXISTS;
+        throw new BooklyException(code, String.join("; ", taken));
+    }
 
+    private void insertUser(LibraryUser user) {
+        user.setId(UUID.randomUUID());
+        if (userRepository.insertIfAbsent(user) == 0) {
+            // A concurrent registration took the email or username after the conflict check
+            checkConflicts(user.getEmail(), user.getUsername(), null);
+            throw new BooklyException(ErrorCode.INVALID_CREDENTIALS, "Email or username already taken");
+        }
+    }
+
+    private void createUserProfileInTenant(LibraryUser user, String schemaName) {
+        TenantContext.runWhere(schemaName, () -> {
             // TODO: need to implement this
             // SQL operations to create user profile in tenant schema
 
             logger.info("Created user profile in tenant schema: {}", schemaName);
-        } finally {
-            // Always clear tenant context
-            TenantContext.clear();
-        }
+        });
+    }
+
+    private EmailVerificationResponse coalescedOtpResponse(String email, EmailRateLimiter.Decision decision) {
+        logger.info("Coalesced OTP request for {} into the pending code, next send allowed in {}s", email,
+                decision.cooldownLeft().toSeconds());
+        return new EmailVerificationResponse(
+                email,
+                "Verification code already sent to your email",
+                decision.pendingExpiry()
+        );
     }
 
     private String generateOtp() {
-        Random random = new Random();
-        int otp = 100000 + random.nextInt(900000);
+        int otp = 100000 + OTP_RANDOM.nextInt(900000);
         return String.valueOf(otp);
     }
 }
\ No newline at end of file
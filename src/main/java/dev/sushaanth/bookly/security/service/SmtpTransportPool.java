@@ -0,0 +1,319 @@
+package dev.sushaanth.bookly.security.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps a bounded set of connected, authenticated SMTP sessions for reuse.
+ * <p>
+ * Opening a session costs a TCP connect, STARTTLS and AUTH, which is far more than
+ * sending a short message. Sessions are returned to the pool after use and checked
+ * with a NOOP before they are handed out again. Sessions idle for too long, or that
+ * have carried the configured number of messages, are closed so the pool never holds
+ * connections the server has already dropped or is about to refuse.
+ * <p>
+ * A batch is split across up to {@code max-sessions} sessions and sent in parallel, on
+ * platform threads of the pool's own: Jakarta Mail holds a monitor during SMTP I/O, which
+ * would pin the carrier of a virtual thread.
+ */
+@Component
+public class SmtpTransportPool {
+    private static final Logger logger = LoggerFactory.getLogger(SmtpTransportPool.class);
+
+    private final JavaMailSenderImpl mailSender;
+    private final MeterRegistry meterRegistry;
+    private final int maxSessions;
+    private final Semaphore permits;
+    private final ThreadPoolTaskExecutor senders;
+    private final ConcurrentLinkedDeque<PooledTransport> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger active = new AtomicInteger();
+    private final Timer messageTimer;
+    private final Counter connections;
+
+    @Value("${email.smtp.pool.max-idle:60s}")
+    private Duration maxIdle;
+
+    @Value("${email.smtp.pool.max-messages-per-session:100}")
+    private int maxMessagesPerSession;
+
+    @Value("${email.smtp.pool.borrow-timeout:30s}")
+    private Duration borrowTimeout;
+
+    public SmtpTransportPool(JavaMailSenderImpl mailSender,
+                             MeterRegistry meterRegistry,
+                             ThreadPoolTaskExecutorBuilder executorBuilder,
+                             @Value("${email.smtp.pool.max-sessions:4}") int maxSessions) {
+        this.mailSender = mailSender;
+        this.meterRegistry = meterRegistry;
+        this.maxSessions = maxSessions;
+        this.permits = new Semaphore(maxSessions, true);
+        this.senders = executorBuilder
+                .corePoolSize(maxSessions)
+                .maxPoolSize(maxSessions)
+                .threadNamePrefix("email-smtp-")
+                .build();
+        this.senders.initialize();
+
+        Gauge.builder("bookly.email.smtp.sessions", active, AtomicInteger::get)
+                .description("SMTP sessions currently sending")
+                .tag("state", "active")
+                .register(meterRegistry);
+        Gauge.builder("bookly.email.smtp.sessions", idle, ConcurrentLinkedDeque::size)
+                .description("Connected SMTP sessions waiting in the pool")
+                .tag("state", "idle")
+                .register(meterRegistry);
+        this.messageTimer = Timer.builder("bookly.email.smtp.message")
+                .description("Time taken to transmit one message on a pooled SMTP session")
+                .register(meterRegistry);
+        this.connections = Counter.builder("bookly.email.smtp.connections")
+                .description("SMTP sessions opened")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Send the messages over as many pooled sessions as the pool allows, splitting them
+     * into contiguous slices, each sent in order on one session.
+     *
+     * @return Messages that could not be sent, with the reason, including those of a slice
+     * that could not get a session
+     */
+    public Map<MimeMessage, Exception> send(List<MimeMessage> messages) {
+        int sessions = Math.min(maxSessions, messages.size());
+        if (sessions <= 1) {
+            try {
+                return sendOnOneSession(messages);
+            } catch (MailSendException e) {
+                Map<MimeMessage, Exception> failures = new LinkedHashMap<>();
+                messages.forEach(message -> failures.put(message, e));
+                return failures;
+            }
+        }
+
+        int sliceSize = (messages.size() + sessions - 1) / sessions;
+        List<Future<Map<MimeMessage, Exception>>> slices = new ArrayList<>();
+        for (int from = 0; from < messages.size(); from += sliceSize) {
+            List<MimeMessage> slice = messages.subList(from, Math.min(from + sliceSize, messages.size()));
+            slices.add(senders.submit(() -> sendOnOneSession(slice)));
+        }
+
+        Map<MimeMessage, Exception> failures = new LinkedHashMap<>();
+        for (int i = 0; i < slices.size(); i++) {
+            List<MimeMessage> slice = messages.subList(i * sliceSize, Math.min((i + 1) * sliceSize, messages.size()));
+            try {
+                failures.putAll(slices.get(i).get());
+            } catch (ExecutionException e) {
+                Exception cause = e.getCause() instanceof Exception exception ? exception : e;
+                slice.forEach(message -> failures.put(message, cause));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                slice.forEach(message -> failures.putIfAbsent(message, e));
+            }
+        }
+        return failures;
+    }
+
+    private Map<MimeMessage, Exception> sendOnOneSession(List<MimeMessage> messages) {
+        Map<MimeMessage, Exception> failures = new LinkedHashMap<>();
+        PooledTransport transport = borrow();
+        int next = 0;
+        try {
+            for (; next < messages.size(); next++) {
+                MimeMessage message = messages.get(next);
+                if (transport == null) {
+                    transport = connect();
+                }
+                try {
+                    transmit(transport, message);
+                } catch (MessagingException e) {
+                    failures.put(message, e);
+                    if (!transport.transport().isConnected()) {
+                        // The server dropped the session; open a fresh one for the rest
+                        close(transport);
+                        transport = null;
+                    }
+                }
+                if (transport != null && transport.messagesSent() >= maxMessagesPerSession) {
+                    close(transport);
+                    transport = null;
+                }
+            }
+        } catch (MessagingException e) {
+            // Reconnecting failed, nothing else can go out on this attempt
+            for (MimeMessage message : messages.subList(next, messages.size())) {
+                failures.put(message, e);
+            }
+        } finally {
+            release(transport);
+        }
+        return failures;
+    }
+
+    @Scheduled(fixedDelayString = "${email.smtp.pool.eviction-ms:30000}")
+    public void evictIdleSessions() {
+        long cutoff = System.nanoTime() - maxIdle.toNanos();
+        Iterator<PooledTransport> iterator = idle.iterator();
+        while (iterator.hasNext()) {
+            PooledTransport transport = iterator.next();
+            if (transport.lastUsed() - cutoff < 0 && idle.removeFirstOccurrence(transport)) {
+                close(transport);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdown();
+        closeIdleSessions();
+    }
+
+    private void closeIdleSessions() {
+        PooledTransport transport;
+        while ((transport = idle.pollFirst()) != null) {
+            close(transport);
+        }
+    }
+
+    private PooledTransport borrow() {
+        try {
+            if (!permits.tryAcquire(borrowTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new MailSendException("Timed out waiting for an SMTP session");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MailSendException("Interrupted waiting for an SMTP session", e);
+        }
+        active.incrementAndGet();
+
+        // Most recently used first, it is the least likely to have been dropped
+        PooledTransport transport;
+        while ((transport = idle.pollFirst()) != null) {
+            if (System.nanoTime() - transport.lastUsed() < maxIdle.toNanos()
+                    && isAlive(transport)) {
+                return transport;
+            }
+            close(transport);
+        }
+
+        try {
+            return connect();
+        } catch (MessagingException e) {
+            release(null);
+            throw new MailSendException("Failed to connect to the mail server", e);
+        }
+    }
+
+    private void release(PooledTransport transport) {
+        if (transport != null) {
+            if (transport.transport().isConnected()) {
+                transport.touch();
+                idle.offerFirst(transport);
+            } else {
+                close(transport);
+            }
+        }
+        active.decrementAndGet();
+        permits.release();
+    }
+
+    private PooledTransport connect() throws MessagingException {
+        Transport transport = mailSender.getSession().getTransport(mailSender.getProtocol());
+        String username = mailSender.getUsername();
+        String password = mailSender.getPassword();
+        if (!StringUtils.hasLength(username)) {
+            username = null;
+            password = null;
+        }
+        transport.connect(mailSender.getHost(), mailSender.getPort(), username, password);
+        connections.increment();
+        return new PooledTransport(transport);
+    }
+
+    private void transmit(PooledTransport transport, MimeMessage message) throws MessagingException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        if (message.getSentDate() == null) {
+            message.setSentDate(new Date());
+        }
+        // saveChanges() replaces the Message-ID, so keep one that was set explicitly
+        String messageId = message.getMessageID();
+        message.saveChanges();
+        if (messageId != null) {
+            message.setHeader("Message-ID", messageId);
+        }
+        transport.transport().sendMessage(message, message.getAllRecipients());
+        transport.sent();
+        sample.stop(messageTimer);
+    }
+
+    private boolean isAlive(PooledTransport transport) {
+        // SMTPTransport answers isConnected() by sending a NOOP to the server
+        return transport.transport().isConnected();
+    }
+
+    private void close(PooledTransport transport) {
+        try {
+            transport.transport().close();
+        } catch (MessagingException e) {
+            logger.debug("Error closing SMTP session", e);
+        }
+    }
+
+    private static final class PooledTransport {
+        private final Transport transport;
+        private int messagesSent;
+        private volatile long lastUsed = System.nanoTime();
+
+        PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+
+        Transport transport() {
+            return transport;
+        }
+
+        int messagesSent() {
+            return messagesSent;
+        }
+
+        void sent() {
+            messagesSent++;
+        }
+
+        long lastUsed() {
+            return lastUsed;
+        }
+
+        void touch() {
+            lastUsed = System.nanoTime();
+        }
+    }
+}
@@ -23,27 +23,14 @@ public class UserDetailsServiceImpl implements UserDetailsService {
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        // Store current tenant context
-        String currentTenant = TenantContext.getTenantId();
-
-        try {
-            // Clear tenant context to ensure we query from public schema
-            TenantContext.clear();
-
-            // Find the user
-            LibraryUser user = userRepository.findByUsername(username)
-                    .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
-
-            return new User(
-                    user.getUsername(),
-                    user.getPassword(),
-                    Collections.singletonList(new SimpleGrantedAuthority(user.getRole().getAuthority()))
-            );
-        } finally {
-            // Restore previous tenant context
-            if (currentTenant != null) {
-                TenantContext.setTenantId(currentTenant);
-            }
-        }
+        // Query outside any tenant, from the public schema, whatever tenant the caller is in
+        LibraryUser user = TenantContext.getWhere(null, () -> userRepository.findByUsername(username))
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
+
+        return new User(
+                user.getUsername(),
+                user.getPassword(),
+                Collections.singletonList(new SimpleGrantedAuthority(user.getRole().getAuthority()))
+        );
     }
 }
\ No newline at end of file
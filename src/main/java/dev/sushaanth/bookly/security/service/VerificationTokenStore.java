@@ -0,0 +1,29 @@
+package dev.sushaanth.bookly.security.service;
+
+import dev.sushaanth.bookly.security.model.VerificationToken;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Holds the one-time codes sent to confirm an email address during registration.
+ * <p>
+ * Selected with {@code security.otp.store}: {@code jpa} keeps codes in the
+ * {@code verification_tokens} table, {@code memory} keeps them on the node that issued them.
+ */
+public interface VerificationTokenStore {
+
+    /**
+     * Issue a new unverified code for the email, replacing any earlier one.
+     */
+    VerificationToken issue(String email, String otp, LocalDateTime expiryDate);
+
+    Optional<VerificationToken> findByEmail(String email);
+
+    /**
+     * Mark the code as verified if it is still the current, unverified code for the email.
+     *
+     * @return {@code true} if the code was marked verified
+     */
+    boolean markVerified(String email, String otp);
+}
@@ -15,19 +15,36 @@ public class SecurityUtils {
     }
 
     public static UUID getCurrentUserId() {
+        UUID userId = getDetail("userId");
+        if (userId != null) {
+            return userId;
+        }
+        throw new BooklyException(ErrorCode.INVALID_CREDENTIALS, "User ID not available in security context");
+    }
+
+    /**
+     * The tenant the current user signed in to, as recorded in their token
+     */
+    public static UUID getCurrentTenantId() {
+        UUID tenantId = getDetail("tenantId");
+        if (tenantId != null) {
+            return tenantId;
+        }
+        throw new BooklyException(ErrorCode.INVALID_CREDENTIALS, "Tenant ID not available in security context");
+    }
+
+    private static UUID getDetail(String key) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         if (auth != null && auth.isAuthenticated() && auth.getDetails() instanceof Map) {
             Map<String, Object> details = (Map<String, Object>) auth.getDetails();
-            if (details.containsKey("userId")) {
-                Object userId = details.get("userId");
-                if (userId instanceof UUID) {
-                    return (UUID) userId;
-                } else if (userId instanceof String) {
-                    return UUID.fromString((String) userId);
-                }
+            Object value = details.get(key);
+            if (value instanceof UUID) {
+                return (UUID) value;
+            } else if (value instanceof String) {
+                return UUID.fromString((String) value);
             }
         }
-        throw new BooklyException(ErrorCode.INVALID_CREDENTIALS, "User ID not available in security context");
+        return null;
     }
 
     public static String getCurrentUsername() {
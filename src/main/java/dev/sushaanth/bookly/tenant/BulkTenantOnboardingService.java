@@ -0,0 +1,182 @@
+package dev.sushaanth.bookly.tenant;
+
+import dev.sushaanth.bookly.multitenancy.schema.SchemaDdlReader;
+import dev.sushaanth.bookly.multitenancy.schema.TenantSchemaProvisioner;
+import dev.sushaanth.bookly.tenant.dto.BulkTenantResult;
+import dev.sushaanth.bookly.tenant.dto.BulkTenantResult.Status;
+import dev.sushaanth.bookly.tenant.dto.TenantCreateRequest;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.function.Consumer;
+
+/**
+ * Onboards many tenants in one request.
+ * <p>
+ * Display names are checked with a single query, all accepted tenant rows are written
+ * with one JDBC batch, and schemas are then provisioned in parallel on a bounded pool
+ * shared by every bulk request. Progress is reported per item as it happens.
+ */
+@Service
+public class BulkTenantOnboardingService {
+    private static final Logger logger = LoggerFactory.getLogger(BulkTenantOnboardingService.class);
+
+    private static final String INSERT_SQL = """
+            INSERT INTO public.tenants (id, schema_name, display_name, description, created_at, active)
+            VALUES (?, ?, ?, ?, ?, TRUE)
+            ON CONFLICT DO NOTHING
+            """;
+
+    private final TenantRepository tenantRepository;
+    private final TenantService tenantService;
+    private final TenantSchemaProvisioner schemaProvisioner;
+    private final JdbcTemplate jdbcTemplate;
+    private final ThreadPoolTaskExecutor provisioningExecutor;
+
+    public BulkTenantOnboardingService(TenantRepository tenantRepository,
+                                       TenantService tenantService,
+                                       TenantSchemaProvisioner schemaProvisioner,
+                                       JdbcTemplate jdbcTemplate,
+                                       ThreadPoolTaskExecutorBuilder executorBuilder,
+                                       @Value("${multitenancy.bulk.provisioning-concurrency:4}") int concurrency) {
+        this.tenantRepository = tenantRepository;
+        this.tenantService = tenantService;
+        this.schemaProvisioner = schemaProvisioner;
+        this.jdbcTemplate = jdbcTemplate;
+        this.provisioningExecutor = executorBuilder
+                .corePoolSize(concurrency)
+                .maxPoolSize(concurrency)
+                .threadNamePrefix("tenant-provisioning-")
+                .build();
+        this.provisioningExecutor.initialize();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        provisioningExecutor.shutdown();
+    }
+
+    /**
+     * Create the given tenants, reporting each item's progress to the consumer.
+     * The consumer is only ever called from the calling thread.
+     */
+    public void onboardTenants(List<TenantCreateRequest> requests, Consumer<BulkTenantResult> progress) {
+        Set<String> existing = new HashSet<>(tenantRepository.findExistingDisplayNames(
+                requests.stream().map(TenantCreateRequest::displayName).toList()));
+
+        // Reject names already taken or repeated within the request
+        Set<String> seen = new HashSet<>();
+        List<PendingTenant> accepted = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            TenantCreateRequest request = requests.get(i);
+            if (existing.contains(request.displayName()) || !seen.add(request.displayName())) {
+                progress.accept(new BulkTenantResult(i, request.displayName(), Status.REJECTED, null, null,
+                        "Tenant with name " + request.displayName() + " already exists"));
+                continue;
+            }
+            UUID id = UUID.randomUUID();
+            accepted.add(new PendingTenant(i, request, id, tenantService.generateSchemaName(id)));
+        }
+
+        List<PendingTenant> inserted = insertTenants(accepted, progress);
+
+        CompletionService<BulkTenantResult> completion = new ExecutorCompletionService<>(provisioningExecutor);
+        for (PendingTenant tenant : inserted) {
+            completion.submit(() -> provision(tenant));
+        }
+
+        int created = 0;
+        for (int i = 0; i < inserted.size(); i++) {
+            BulkTenantResult result = awaitNext(completion);
+            if (result.status() == Status.CREATED) {
+                created++;
+            }
+            progress.accept(result);
+        }
+        logger.info("Bulk onboarding created {} of {} requested tenants", created, requests.size());
+    }
+
+    private List<PendingTenant> insertTenants(List<PendingTenant> accepted, Consumer<BulkTenantResult> progress) {
+        if (accepted.isEmpty()) {
+            return accepted;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, accepted, accepted.size(), (ps, tenant) -> {
+            ps.setObject(1, tenant.id());
+            ps.setString(2, tenant.schemaName());
+            ps.setString(3, tenant.request().displayName());
+            ps.setString(4, tenant.request().description());
+            ps.setTimestamp(5, now);
+        });
+
+        // Rows that lost a race with a concurrent request were skipped by ON CONFLICT
+        Set<UUID> insertedIds = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT id FROM public.tenants WHERE id = ANY(?)", UUID.class,
+                (Object) accepted.stream().map(PendingTenant::id).toArray(UUID[]::new)));
+
+        List<PendingTenant> inserted = new ArrayList<>(insertedIds.size());
+        for (PendingTenant tenant : accepted) {
+            if (insertedIds.contains(tenant.id())) {
+                inserted.add(tenant);
+                progress.accept(tenant.result(Status.QUEUED, "Tenant queued for provisioning"));
+            } else {
+                progress.accept(new BulkTenantResult(tenant.index(), tenant.request().displayName(), Status.REJECTED,
+                        null, null, "Tenant with name " + tenant.request().displayName() + " already exists"));
+            }
+        }
+        return inserted;
+    }
+
+    private BulkTenantResult provision(PendingTenant tenant) {
+        try {
+            schemaProvisioner.provision(tenant.schemaName());
+            return tenant.result(Status.CREATED, "Tenant created");
+        } catch (Exception e) {
+            logger.error("Failed to provision schema {} for tenant {}",
+                    tenant.schemaName(), tenant.request().displayName(), e);
+            try {
+                jdbcTemplate.update("DELETE FROM public.tenants WHERE id = ?", tenant.id());
+                jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SchemaDdlReader.quote(tenant.schemaName()) + " CASCADE");
+            } catch (Exception cleanup) {
+                logger.error("Failed to clean up tenant {}", tenant.id(), cleanup);
+            }
+            return tenant.result(Status.FAILED, "Failed to create tenant: " + e.getMessage());
+        }
+    }
+
+    private BulkTenantResult awaitNext(CompletionService<BulkTenantResult> completion) {
+        try {
+            return completion.take().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while provisioning tenants", e);
+        } catch (ExecutionException e) {
+            // provision() reports its own failures, so this is unexpected
+            throw new IllegalStateException("Tenant provisioning task failed", e.getCause());
+        }
+    }
+
+    private record PendingTenant(int index, TenantCreateRequest request, UUID id, String schemaName) {
+
+        BulkTenantResult result(Status status, String message) {
+            return new BulkTenantResult(index, request.displayName(), status, id, schemaName, message);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package dev.sushaanth.bookly.tenant;
+
+import dev.sushaanth.bookly.multitenancy.context.ReactiveTenantContext;
+import dev.sushaanth.bookly.multitenancy.context.TenantContext;
+import dev.sushaanth.bookly.pagination.CursorPage;
+import dev.sushaanth.bookly.pagination.PageCursor;
+import dev.sushaanth.bookly.tenant.dto.TenantResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking variant of {@code GET /api/tenants}, with the same cursors and page sizes.
+ */
+@RestController
+@RequestMapping("/reactive/api/tenants")
+@ConditionalOnProperty(name = "reactive.enabled", havingValue = "true")
+public class ReactiveTenantController {
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveTenantController.class);
+
+    private final ReactiveTenantRepository tenantRepository;
+
+    public ReactiveTenantController(ReactiveTenantRepository tenantRepository) {
+        this.tenantRepository = tenantRepository;
+    }
+
+    @GetMapping
+    public Mono<CursorPage<TenantResponse>> getTenants(@RequestParam(required = false) String cursor,
+                                                       @RequestParam(required = false) Integer size) {
+        logger.info("Retrieving tenants");
+        PageCursor after = PageCursor.decode(cursor);
+        int pageSize = CursorPage.boundedSize(size);
+
+        return tenantRepository.findPage(after, pageSize + 1)
+                .collectList()
+                .map(rows -> CursorPage.of(rows, pageSize,
+                        row -> new PageCursor(row.createdAt(), row.id()),
+                        row -> new TenantResponse(row.id(), row.displayName(), row.description(), row.schemaName())))
+                .contextWrite(ReactiveTenantContext.withTenant(TenantContext.getTenantId()));
+    }
+}
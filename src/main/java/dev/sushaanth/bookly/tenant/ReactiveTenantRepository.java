@@ -0,0 +1,50 @@
+package dev.sushaanth.bookly.tenant;
+
+import dev.sushaanth.bookly.pagination.PageCursor;
+import io.r2dbc.spi.Readable;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Reads tenants over R2DBC, with the same keyset pagination as {@link TenantRepository}.
+ */
+@Repository
+@ConditionalOnProperty(name = "reactive.enabled", havingValue = "true")
+public class ReactiveTenantRepository {
+    private static final String COLUMNS = "SELECT id, display_name, description, schema_name, created_at FROM public.tenants ";
+
+    private final DatabaseClient databaseClient;
+
+    record TenantRow(UUID id, String displayName, String description, String schemaName, LocalDateTime createdAt) {
+    }
+
+    public ReactiveTenantRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    // Keyset pagination in (created_at, id) order, served by idx_tenants_created_id
+    Flux<TenantRow> findPage(PageCursor after, int limit) {
+        DatabaseClient.GenericExecuteSpec query = after == null
+                ? databaseClient.sql(COLUMNS + "ORDER BY created_at, id LIMIT :limit")
+                : databaseClient.sql(COLUMNS + "WHERE (created_at, id) > (:createdAt, :id) ORDER BY created_at, id LIMIT :limit")
+                        .bind("createdAt", after.createdAt())
+                        .bind("id", after.id());
+        return query.bind("limit", limit)
+                .map(ReactiveTenantRepository::toRow)
+                .all();
+    }
+
+    private static TenantRow toRow(Readable row) {
+        return new TenantRow(
+                row.get("id", UUID.class),
+                row.get("display_name", String.class),
+                row.get("description", String.class),
+                row.get("schema_name", String.class),
+                row.get("created_at", LocalDateTime.class));
+    }
+}
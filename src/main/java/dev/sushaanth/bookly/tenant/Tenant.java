@@ -3,6 +3,8 @@ package dev.sushaanth.bookly.tenant;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
@@ -11,8 +13,11 @@ import java.util.UUID;
 /**
  * Entity representing a tenant in the multi-tenant library management system.
  * Each tenant is a separate library with its own isolated schema.
+ * Kept in the second-level cache, as tenants are read far more often than they change.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "tenants")
 @Table(name = "tenants", schema = "public")
 public class Tenant {
     @Id
@@ -54,6 +59,18 @@ public class Tenant {
     @Column(name = "owner_id")
     private UUID ownerId;
 
+    /**
+     * Last time the tenant schema was used, maintained by the hibernation service
+     */
+    @Column(name = "last_accessed_at", insertable = false, updatable = false)
+    private LocalDateTime lastAccessedAt;
+
+    /**
+     * Timestamp of when the tenant schema was archived, null while the schema is live
+     */
+    @Column(name = "hibernated_at", insertable = false, updatable = false)
+    private LocalDateTime hibernatedAt;
+
     /**
      * Default no-args constructor required by JPA
      */
@@ -139,6 +156,14 @@ public class Tenant {
         this.ownerId = ownerId;
     }
 
+    public LocalDateTime getLastAccessedAt() {
+        return lastAccessedAt;
+    }
+
+    public LocalDateTime getHibernatedAt() {
+        return hibernatedAt;
+    }
+
     @Override
     public String toString() {
         return "Tenant{" +
@@ -1,14 +1,25 @@
 package dev.sushaanth.bookly.tenant;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.sushaanth.bookly.pagination.CursorPage;
+import dev.sushaanth.bookly.security.utils.SecurityUtils;
+import dev.sushaanth.bookly.tenant.dto.BulkTenantCreateRequest;
 import dev.sushaanth.bookly.tenant.dto.TenantCreateRequest;
+import dev.sushaanth.bookly.tenant.dto.TenantOffboardingResponse;
 import dev.sushaanth.bookly.tenant.dto.TenantResponse;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/tenants")
@@ -16,15 +27,25 @@ public class TenantManagementController {
     private static final Logger logger = LoggerFactory.getLogger(TenantManagementController.class);
 
     private final TenantService tenantService;
+    private final BulkTenantOnboardingService bulkOnboardingService;
+    private final TenantOffboardingService offboardingService;
+    private final ObjectMapper objectMapper;
 
-    public TenantManagementController(TenantService tenantService) {
+    public TenantManagementController(TenantService tenantService,
+                                      BulkTenantOnboardingService bulkOnboardingService,
+                                      TenantOffboardingService offboardingService,
+                                      ObjectMapper objectMapper) {
         this.tenantService = tenantService;
+        this.bulkOnboardingService = bulkOnboardingService;
+        this.offboardingService = offboardingService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
-    public List<TenantResponse> getAllTenants() {
-        logger.info("Retrieving all tenants");
-        return tenantService.getAllTenants();
+    public CursorPage<TenantResponse> getTenants(@RequestParam(required = false) String cursor,
+                                                 @RequestParam(required = false) Integer size) {
+        logger.info("Retrieving tenants");
+        return tenantService.getTenants(cursor, size);
     }
 
     @PostMapping
@@ -33,4 +54,38 @@ public class TenantManagementController {
         logger.info("Received request to create new tenant");
         return tenantService.createTenant(request);
     }
+
+    @PostMapping(path = "/bulk", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ROLE_LIBRARY_ADMIN')")
+    public ResponseEntity<StreamingResponseBody> createTenants(@Valid @RequestBody BulkTenantCreateRequest request) {
+        logger.info("Received request to create {} tenants", request.tenants().size());
+
+        StreamingResponseBody body = out -> bulkOnboardingService.onboardTenants(request.tenants(), result -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(result));
+                out.write('\n');
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasRole('ROLE_LIBRARY_ADMIN')")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public TenantOffboardingResponse deleteTenant(@PathVariable UUID id) {
+        logger.info("Received request to offboard tenant {}", id);
+        return offboardingService.startOffboarding(id, SecurityUtils.getCurrentTenantId());
+    }
+
+    @GetMapping("/offboarding/{jobId}")
+    @PreAuthorize("hasRole('ROLE_LIBRARY_ADMIN')")
+    public TenantOffboardingResponse getOffboardingJob(@PathVariable UUID jobId) {
+        return offboardingService.getJob(jobId, SecurityUtils.getCurrentTenantId());
+    }
 }
\ No newline at end of file
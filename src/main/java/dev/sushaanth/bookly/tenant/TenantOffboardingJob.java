@@ -0,0 +1,185 @@
+package dev.sushaanth.bookly.tenant;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Persistent state of a background tenant offboarding.
+ * Each phase is idempotent, so a job interrupted at any point resumes from its current phase.
+ */
+@Entity
+@Table(name = "tenant_offboarding_jobs", schema = "public")
+public class TenantOffboardingJob {
+
+    public enum Phase {
+        DEACTIVATE,
+        DELETE_INVITATIONS,
+        DELETE_REFRESH_TOKENS,
+        DELETE_USERS,
+        DROP_TABLES,
+        DROP_SCHEMA,
+        DELETE_TENANT,
+        DONE
+    }
+
+    public enum Status {
+        PENDING,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "tenant_id", nullable = false)
+    private UUID tenantId;
+
+    @Column(name = "schema_name")
+    private String schemaName;
+
+    @Column(name = "display_name", nullable = false)
+    private String displayName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "phase", nullable = false)
+    private Phase phase = Phase.DEACTIVATE;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private Status status = Status.PENDING;
+
+    @Column(name = "rows_deleted", nullable = false)
+    private long rowsDeleted;
+
+    @Column(name = "tables_dropped", nullable = false)
+    private int tablesDropped;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "last_error")
+    private String lastError;
+
+    /**
+     * The node running the job holds the lease until this time; expired leases are picked up again
+     */
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    public TenantOffboardingJob() {
+    }
+
+    public TenantOffboardingJob(Tenant tenant) {
+        this.tenantId = tenant.getId();
+        this.schemaName = tenant.getSchemaName();
+        this.displayName = tenant.getDisplayName();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and setters
+
+    public UUID getId() {
+        return id;
+    }
+
+    public UUID getTenantId() {
+        return tenantId;
+    }
+
+    public String getSchemaName() {
+        return schemaName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public Phase getPhase() {
+        return phase;
+    }
+
+    public void setPhase(Phase phase) {
+        this.phase = phase;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public long getRowsDeleted() {
+        return rowsDeleted;
+    }
+
+    public void addRowsDeleted(long rows) {
+        this.rowsDeleted += rows;
+    }
+
+    public int getTablesDropped() {
+        return tablesDropped;
+    }
+
+    public void incrementTablesDropped() {
+        this.tablesDropped++;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public LocalDateTime getLeaseExpiresAt() {
+        return leaseExpiresAt;
+    }
+
+    public void setLeaseExpiresAt(LocalDateTime leaseExpiresAt) {
+        this.leaseExpiresAt = leaseExpiresAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+}
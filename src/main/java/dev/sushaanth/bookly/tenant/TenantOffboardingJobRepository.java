@@ -0,0 +1,35 @@
+package dev.sushaanth.bookly.tenant;
+
+import dev.sushaanth.bookly.tenant.TenantOffboardingJob.Status;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface TenantOffboardingJobRepository extends JpaRepository<TenantOffboardingJob, UUID> {
+    Optional<TenantOffboardingJob> findFirstByTenantIdAndStatusIn(UUID tenantId, Collection<Status> statuses);
+
+    @Query("SELECT j.id FROM TenantOffboardingJob j " +
+            "WHERE j.status IN :statuses AND (j.leaseExpiresAt IS NULL OR j.leaseExpiresAt < :now)")
+    List<UUID> findResumableJobIds(@Param("statuses") Collection<Status> statuses, @Param("now") LocalDateTime now);
+
+    /**
+     * Take the lease on a job unless another node holds an unexpired one.
+     *
+     * @return 1 if the lease was taken, 0 otherwise
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE TenantOffboardingJob j SET j.leaseExpiresAt = :until, " +
+            "j.status = dev.sushaanth.bookly.tenant.TenantOffboardingJob.Status.RUNNING " +
+            "WHERE j.id = :id AND j.status <> dev.sushaanth.bookly.tenant.TenantOffboardingJob.Status.COMPLETED " +
+            "AND (j.leaseExpiresAt IS NULL OR j.leaseExpiresAt < :now)")
+    int claim(@Param("id") UUID id, @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+}
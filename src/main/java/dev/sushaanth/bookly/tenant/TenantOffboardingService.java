@@ -0,0 +1,304 @@
+package dev.sushaanth.bookly.tenant;
+
+import dev.sushaanth.bookly.exception.BooklyException;
+import dev.sushaanth.bookly.exception.BooklyException.ErrorCode;
+import dev.sushaanth.bookly.multitenancy.data.hibernate.TenantAwareRegionFactory;
+import dev.sushaanth.bookly.multitenancy.hibernation.TenantHibernationService;
+import dev.sushaanth.bookly.multitenancy.schema.SchemaDdlReader;
+import dev.sushaanth.bookly.security.model.LibraryUser;
+import dev.sushaanth.bookly.tenant.TenantOffboardingJob.Phase;
+import dev.sushaanth.bookly.tenant.TenantOffboardingJob.Status;
+import dev.sushaanth.bookly.tenant.dto.TenantOffboardingResponse;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Removes a tenant in small steps so no single statement holds heavy locks for long.
+ * <p>
+ * The tenant is first marked inactive. Its rows in the shared public tables are then
+ * deleted in bounded chunks, each in its own short transaction. Its tables are dropped
+ * one at a time with a pause in between, and finally the empty schema and the tenant
+ * row are removed. Progress is saved after every step. A job that stops half way is
+ * picked up again by {@link TenantOffboardingTask} once its lease expires.
+ * <p>
+ * These statements bypass Hibernate, so the second-level cache entries they make stale
+ * are evicted by hand after each phase.
+ */
+@Service
+public class TenantOffboardingService {
+    private static final Logger logger = LoggerFactory.getLogger(TenantOffboardingService.class);
+    private static final EnumSet<Status> UNFINISHED = EnumSet.of(Status.PENDING, Status.RUNNING, Status.FAILED);
+
+    private static final String DELETE_INVITATIONS_SQL = """
+            DELETE FROM public.employee_invitations WHERE id IN (
+                SELECT id FROM public.employee_invitations WHERE tenant_id = ? LIMIT ?)
+            """;
+
+    private static final String DELETE_REFRESH_TOKENS_SQL = """
+            DELETE FROM public.refresh_tokens WHERE id IN (
+                SELECT rt.id FROM public.refresh_tokens rt
+                JOIN public.users u ON u.id = rt.user_id
+                WHERE u.tenant_id = ? LIMIT ?)
+            """;
+
+    private static final String DELETE_USERS_SQL = """
+            DELETE FROM public.users WHERE id IN (
+                SELECT id FROM public.users WHERE tenant_id = ? LIMIT ?)
+            """;
+
+    private final TenantRepository tenantRepository;
+    private final TenantOffboardingJobRepository jobRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final AsyncTaskExecutor taskExecutor;
+    private final EntityManagerFactory entityManagerFactory;
+    private final TenantAwareRegionFactory regionFactory;
+    private final TenantHibernationService hibernationService;
+
+    @Value("${multitenancy.offboarding.batch-size:500}")
+    private int batchSize;
+
+    @Value("${multitenancy.offboarding.pause:200ms}")
+    private Duration pause;
+
+    @Value("${multitenancy.offboarding.lease:5m}")
+    private Duration lease;
+
+    @Value("${multitenancy.offboarding.lock-timeout:5s}")
+    private Duration lockTimeout;
+
+    @Value("${multitenancy.offboarding.max-attempts:5}")
+    private int maxAttempts;
+
+    public TenantOffboardingService(TenantRepository tenantRepository,
+                                    TenantOffboardingJobRepository jobRepository,
+                                    JdbcTemplate jdbcTemplate,
+                                    @Qualifier("applicationTaskExecutor") AsyncTaskExecutor taskExecutor,
+                                    EntityManagerFactory entityManagerFactory,
+                                    TenantAwareRegionFactory regionFactory,
+                                    TenantHibernationService hibernationService) {
+        this.tenantRepository = tenantRepository;
+        this.jobRepository = jobRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.taskExecutor = taskExecutor;
+        this.entityManagerFactory = entityManagerFactory;
+        this.regionFactory = regionFactory;
+        this.hibernationService = hibernationService;
+    }
+
+    /**
+     * Start offboarding a tenant, or return the job already running for it. Only an admin
+     * of the tenant itself may offboard it.
+     *
+     * @param adminTenantId The tenant of the admin making the request
+     */
+    public TenantOffboardingResponse startOffboarding(UUID tenantId, UUID adminTenantId) {
+        verifySameTenant(tenantId, adminTenantId);
+        TenantOffboardingJob job = jobRepository.findFirstByTenantIdAndStatusIn(tenantId, UNFINISHED)
+                .orElseGet(() -> {
+                    Tenant tenant = tenantRepository.findById(tenantId)
+                            .orElseThrow(() -> new BooklyException(
+                                    ErrorCode.TENANT_NOT_FOUND,
+                                    "Tenant not found"
+                            ));
+                    return jobRepository.save(new TenantOffboardingJob(tenant));
+                });
+
+        if (job.getStatus() == Status.FAILED) {
+            // Retrying a failed job starts a fresh set of attempts from the phase it reached
+            job.setStatus(Status.PENDING);
+            job.setAttempts(0);
+            job = jobRepository.save(job);
+        }
+
+        UUID jobId = job.getId();
+        taskExecutor.execute(() -> runJob(jobId));
+
+        logger.info("Offboarding of tenant {} scheduled as job {}", tenantId, jobId);
+        return mapToResponse(job);
+    }
+
+    public TenantOffboardingResponse getJob(UUID jobId, UUID adminTenantId) {
+        TenantOffboardingJob job = jobRepository.findById(jobId)
+                .orElseThrow(() -> new BooklyException(
+                        ErrorCode.TENANT_NOT_FOUND,
+                        "Offboarding job not found"
+                ));
+        verifySameTenant(job.getTenantId(), adminTenantId);
+        return mapToResponse(job);
+    }
+
+    private void verifySameTenant(UUID tenantId, UUID adminTenantId) {
+        if (!tenantId.equals(adminTenantId)) {
+            throw new BooklyException(
+                    ErrorCode.ACCESS_DENIED,
+                    "Not authorized to offboard this tenant"
+            );
+        }
+    }
+
+    /**
+     * Run every job that is unfinished and not leased by another node.
+     */
+    public void resumePendingJobs() {
+        List<UUID> jobIds = jobRepository.findResumableJobIds(
+                EnumSet.of(Status.PENDING, Status.RUNNING), LocalDateTime.now());
+        for (UUID jobId : jobIds) {
+            runJob(jobId);
+        }
+    }
+
+    /**
+     * Take the job's lease and drive it to completion or to its next failure.
+     */
+    public void runJob(UUID jobId) {
+        if (!claimLease(jobId)) {
+            return;
+        }
+
+        TenantOffboardingJob job = jobRepository.findById(jobId).orElseThrow();
+        try {
+            while (job.getPhase() != Phase.DONE) {
+                job = runPhase(job);
+                job.setPhase(Phase.values()[job.getPhase().ordinal() + 1]);
+                job.setLeaseExpiresAt(LocalDateTime.now().plus(lease));
+                job = jobRepository.save(job);
+            }
+
+            job.setStatus(Status.COMPLETED);
+            job.setCompletedAt(LocalDateTime.now());
+            job.setLeaseExpiresAt(null);
+            jobRepository.save(job);
+            logger.info("Offboarded tenant {} ({}): {} rows deleted, {} tables dropped",
+                    job.getDisplayName(), job.getTenantId(), job.getRowsDeleted(), job.getTablesDropped());
+        } catch (Exception e) {
+            logger.error("Offboarding job {} failed in phase {}", jobId, job.getPhase(), e);
+            job.setAttempts(job.getAttempts() + 1);
+            job.setLastError(e.getMessage());
+            job.setStatus(job.getAttempts() >= maxAttempts ? Status.FAILED : Status.PENDING);
+            // Release the lease so the scheduled task retries the job
+            job.setLeaseExpiresAt(null);
+            jobRepository.save(job);
+        }
+    }
+
+    private TenantOffboardingJob runPhase(TenantOffboardingJob job) throws InterruptedException, IOException {
+        switch (job.getPhase()) {
+            case DEACTIVATE -> {
+                jdbcTemplate.update(
+                        "UPDATE public.tenants SET active = FALSE, updated_at = CURRENT_TIMESTAMP WHERE id = ?",
+                        job.getTenantId());
+                entityManagerFactory.getCache().evict(Tenant.class, job.getTenantId());
+            }
+            case DELETE_INVITATIONS -> job = deleteInChunks(job, DELETE_INVITATIONS_SQL);
+            case DELETE_REFRESH_TOKENS -> job = deleteInChunks(job, DELETE_REFRESH_TOKENS_SQL);
+            case DELETE_USERS -> {
+                job = deleteInChunks(job, DELETE_USERS_SQL);
+                // The deleted ids are not known here, and cached username lookups may point at them
+                entityManagerFactory.getCache().evict(LibraryUser.class);
+                entityManagerFactory.getCache().unwrap(org.hibernate.Cache.class).evictQueryRegions();
+            }
+            case DROP_TABLES -> job = dropTables(job);
+            case DROP_SCHEMA -> {
+                if (job.getSchemaName() != null) {
+                    jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SchemaDdlReader.quote(job.getSchemaName()) + " CASCADE");
+                    regionFactory.evictTenant(job.getSchemaName());
+                }
+            }
+            case DELETE_TENANT -> {
+                jdbcTemplate.update("DELETE FROM public.tenants WHERE id = ?", job.getTenantId());
+                entityManagerFactory.getCache().evict(Tenant.class, job.getTenantId());
+            }
+            case DONE -> {
+            }
+        }
+        return job;
+    }
+
+    private TenantOffboardingJob deleteInChunks(TenantOffboardingJob job, String sql) throws InterruptedException {
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(sql, job.getTenantId(), batchSize);
+            if (deleted > 0) {
+                job.addRowsDeleted(deleted);
+                job.setLeaseExpiresAt(LocalDateTime.now().plus(lease));
+                job = jobRepository.save(job);
+                Thread.sleep(pause.toMillis());
+            }
+        } while (deleted == batchSize);
+        return job;
+    }
+
+    private TenantOffboardingJob dropTables(TenantOffboardingJob job) throws InterruptedException, IOException {
+        if (job.getSchemaName() == null) {
+            return job;
+        }
+
+        // A hibernated tenant has no live tables, only an archive to discard
+        List<String> archives = jdbcTemplate.queryForList(
+                "SELECT archive_location FROM public.tenants WHERE id = ? AND archive_location IS NOT NULL",
+                String.class, job.getTenantId());
+        for (String archive : archives) {
+            Files.deleteIfExists(hibernationService.resolveArchive(archive));
+        }
+
+        List<String> tables = jdbcTemplate.queryForList(
+                "SELECT tablename FROM pg_tables WHERE schemaname = ? ORDER BY tablename",
+                String.class, job.getSchemaName());
+        for (String table : tables) {
+            String qualified = SchemaDdlReader.quote(job.getSchemaName()) + "." + SchemaDdlReader.quote(table);
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    // Give up instead of queueing behind long transactions; the job retries later
+                    statement.execute("SET lock_timeout = " + lockTimeout.toMillis());
+                    try {
+                        statement.execute("DROP TABLE IF EXISTS " + qualified + " CASCADE");
+                    } finally {
+                        statement.execute("RESET lock_timeout");
+                    }
+                }
+                return null;
+            });
+            job.incrementTablesDropped();
+            job.setLeaseExpiresAt(LocalDateTime.now().plus(lease));
+            job = jobRepository.save(job);
+            Thread.sleep(pause.toMillis());
+        }
+        return job;
+    }
+
+    private boolean claimLease(UUID jobId) {
+        LocalDateTime now = LocalDateTime.now();
+        return jobRepository.claim(jobId, now, now.plus(lease)) > 0;
+    }
+
+    private TenantOffboardingResponse mapToResponse(TenantOffboardingJob job) {
+        return new TenantOffboardingResponse(
+                job.getId(),
+                job.getTenantId(),
+                job.getDisplayName(),
+                job.getPhase().name(),
+                job.getStatus().name(),
+                job.getRowsDeleted(),
+                job.getTablesDropped(),
+                job.getLastError(),
+                job.getCreatedAt(),
+                job.getCompletedAt()
+        );
+    }
+}
@@ -0,0 +1,26 @@
+package dev.sushaanth.bookly.tenant;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class TenantOffboardingTask {
+
+    private final TenantOffboardingService offboardingService;
+    private static final Logger logger = LoggerFactory.getLogger(TenantOffboardingTask.class);
+
+    public TenantOffboardingTask(TenantOffboardingService offboardingService) {
+        this.offboardingService = offboardingService;
+    }
+
+    @Scheduled(fixedDelayString = "${multitenancy.offboarding.resume-ms:60000}")
+    public void resumeOffboardingJobs() {
+        try {
+            offboardingService.resumePendingJobs();
+        } catch (Exception e) {
+            logger.error("Error resuming tenant offboarding jobs", e);
+        }
+    }
+}
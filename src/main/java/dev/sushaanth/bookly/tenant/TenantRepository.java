@@ -1,7 +1,17 @@
 package dev.sushaanth.bookly.tenant;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -9,4 +19,32 @@ public interface TenantRepository extends JpaRepository<Tenant, UUID> {
     Optional<Tenant> findBySchemaName(String schemaName);
     Optional<Tenant> findByDisplayName(String displayName);
     boolean existsBySchemaName(String schemaName);
+
+    /**
+     * Insert a tenant unless its display name is taken, leaving the decision to the unique constraint.
+     *
+     * The hint names the table written, so only the tenant cache region is invalidated.
+     *
+     * @return 1 if the tenant was inserted, 0 if the name is taken
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "public.tenants"))
+    @Query(value = "INSERT INTO public.tenants (id, schema_name, display_name, description, created_at, active) " +
+            "VALUES (:id, :schemaName, :displayName, :description, CURRENT_TIMESTAMP, TRUE) " +
+            "ON CONFLICT (display_name) DO NOTHING",
+            nativeQuery = true)
+    int insertIfNameAvailable(@Param("id") UUID id,
+                              @Param("schemaName") String schemaName,
+                              @Param("displayName") String displayName,
+                              @Param("description") String description);
+
+    @Query("SELECT t.displayName FROM Tenant t WHERE t.displayName IN :displayNames")
+    List<String> findExistingDisplayNames(@Param("displayNames") Collection<String> displayNames);
+
+    // Keyset pagination in (created_at, id) order, served by idx_tenants_created_id
+    @Query("SELECT t FROM Tenant t ORDER BY t.createdAt, t.id")
+    List<Tenant> findFirstPage(Limit limit);
+
+    @Query("SELECT t FROM Tenant t WHERE (t.createdAt, t.id) > (:createdAt, :id) ORDER BY t.createdAt, t.id")
+    List<Tenant> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") UUID id, Limit limit);
 }
\ No newline at end of file
@@ -2,17 +2,18 @@ package dev.sushaanth.bookly.tenant;
 
 import dev.sushaanth.bookly.exception.BooklyException;
 import dev.sushaanth.bookly.exception.BooklyException.ErrorCode;
+import dev.sushaanth.bookly.multitenancy.schema.TenantSchemaProvisioner;
+import dev.sushaanth.bookly.pagination.CursorPage;
+import dev.sushaanth.bookly.pagination.PageCursor;
 import dev.sushaanth.bookly.tenant.dto.TenantCreateRequest;
 import dev.sushaanth.bookly.tenant.dto.TenantResponse;
-import org.flywaydb.core.Flyway;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import javax.sql.DataSource;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Service
 public class TenantService {
@@ -20,41 +21,43 @@ public class TenantService {
     private String schemaPrefix;
 
     private final TenantRepository tenantRepository;
-    private final DataSource dataSource;
+    private final TenantSchemaProvisioner schemaProvisioner;
 
-    public TenantService(TenantRepository tenantRepository, DataSource dataSource) {
+    public TenantService(TenantRepository tenantRepository, TenantSchemaProvisioner schemaProvisioner) {
         this.tenantRepository = tenantRepository;
-        this.dataSource = dataSource;
+        this.schemaProvisioner = schemaProvisioner;
     }
 
-    public List<TenantResponse> getAllTenants() {
-        return tenantRepository.findAll().stream()
-                .map(this::mapToTenantResponse)
-                .collect(Collectors.toList());
+    public CursorPage<TenantResponse> getTenants(String cursor, Integer size) {
+        PageCursor after = PageCursor.decode(cursor);
+        int pageSize = CursorPage.boundedSize(size);
+        Limit limit = Limit.of(pageSize + 1);
+
+        List<Tenant> tenants = after == null
+                ? tenantRepository.findFirstPage(limit)
+                : tenantRepository.findPageAfter(after.createdAt(), after.id(), limit);
+        return CursorPage.of(tenants, pageSize,
+                tenant -> new PageCursor(tenant.getCreatedAt(), tenant.getId()),
+                this::mapToTenantResponse);
     }
 
     @Transactional
     public TenantResponse createTenant(TenantCreateRequest request) {
-        // Check if tenant display name exists
-        if (tenantRepository.findByDisplayName(request.displayName()).isPresent()) {
+        UUID id = UUID.randomUUID();
+        String schemaName = generateSchemaName(id);
+
+        // The unique constraint decides, so two requests for the same name cannot both pass
+        if (tenantRepository.insertIfNameAvailable(id, schemaName, request.displayName(), request.description()) == 0) {
             throw new BooklyException(
                     ErrorCode.TENANT_ALREADY_EXISTS,
                     "Tenant with name " + request.displayName() + " already exists");
         }
 
         try {
-            UUID id = UUID.randomUUID();
-            String schemaName = generateSchemaName(id);
-
-            // Create tenant entity
-            Tenant tenant = new Tenant(request.displayName(), request.description());
-            tenant.setSchemaName(schemaName);
-            tenant = tenantRepository.save(tenant);
-
-            // Create schema using Flyway
-            createTenantSchema(schemaName);
+            // Create schema using the configured provisioning mode
+            schemaProvisioner.provision(schemaName);
 
-            return mapToTenantResponse(tenant);
+            return new TenantResponse(id, request.displayName(), request.description(), schemaName);
         } catch (Exception e) {
             throw new BooklyException(
                     ErrorCode.TENANT_CREATION_FAILED,
@@ -62,21 +65,10 @@ public class TenantService {
         }
     }
 
-    private String generateSchemaName(UUID id) {
+    String generateSchemaName(UUID id) {
         return schemaPrefix + id.toString().replace("-", "");
     }
 
-    private void createTenantSchema(String schemaName) {
-        // Create schema with Flyway migrations
-        Flyway flyway = Flyway.configure()
-                .dataSource(dataSource)
-                .schemas(schemaName)
-                .locations("classpath:db/migration/tenants")
-                .load();
-
-        flyway.migrate();
-    }
-
     private TenantResponse mapToTenantResponse(Tenant tenant) {
         return new TenantResponse(
                 tenant.getId(),
@@ -0,0 +1,13 @@
+package dev.sushaanth.bookly.tenant.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BulkTenantCreateRequest(
+        @NotEmpty(message = "At least one tenant is required")
+        @Size(max = 1000, message = "At most 1000 tenants can be created per request")
+        List<@Valid TenantCreateRequest> tenants
+) {}
@@ -0,0 +1,22 @@
+package dev.sushaanth.bookly.tenant.dto;
+
+import java.util.UUID;
+
+/**
+ * Progress event for one item of a bulk tenant onboarding request, streamed as a line of NDJSON.
+ */
+public record BulkTenantResult(
+        int index,
+        String displayName,
+        Status status,
+        UUID id,
+        String schemaName,
+        String message
+) {
+    public enum Status {
+        QUEUED,
+        CREATED,
+        REJECTED,
+        FAILED
+    }
+}
@@ -0,0 +1,18 @@
+package dev.sushaanth.bookly.tenant.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record TenantOffboardingResponse(
+        UUID jobId,
+        UUID tenantId,
+        String displayName,
+        String phase,
+        String status,
+        long rowsDeleted,
+        int tablesDropped,
+        String lastError,
+        LocalDateTime createdAt,
+        LocalDateTime completedAt
+) {
+}
@@ -0,0 +1,35 @@
+package dev.sushaanth.bookly.user;
+
+import dev.sushaanth.bookly.multitenancy.context.ReactiveTenantContext;
+import dev.sushaanth.bookly.multitenancy.context.TenantContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+/**
+ * Non-blocking variant of {@code GET /users}. The request thread is released while the
+ * query runs, and the list is written once the last row arrives.
+ */
+@RestController
+@RequestMapping("reactive/users")
+@ConditionalOnProperty(name = "reactive.enabled", havingValue = "true")
+public class ReactiveUserController {
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveUserController.class);
+    private final ReactiveUserRepository userRepository;
+
+    public ReactiveUserController(ReactiveUserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @GetMapping()
+    Flux<User> getUsers() {
+        logger.info("returning a list users");
+        // The query runs on R2DBC threads, so the request's tenant travels in the Reactor context
+        return userRepository.findAll()
+                .contextWrite(ReactiveTenantContext.withTenant(TenantContext.getTenantId()));
+    }
+}
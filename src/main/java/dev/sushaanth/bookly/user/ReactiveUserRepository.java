@@ -0,0 +1,32 @@
+package dev.sushaanth.bookly.user;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.util.UUID;
+
+/**
+ * Reads library members over R2DBC. The table is left unqualified, so it resolves in the
+ * schema of the tenant in the subscriber context.
+ */
+@Repository
+@ConditionalOnProperty(name = "reactive.enabled", havingValue = "true")
+public class ReactiveUserRepository {
+    private final DatabaseClient databaseClient;
+
+    public ReactiveUserRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Flux<User> findAll() {
+        return databaseClient.sql("SELECT id, username, firstname, lastname FROM users")
+                .map(row -> new User(
+                        row.get("id", UUID.class),
+                        row.get("username", String.class),
+                        row.get("firstname", String.class),
+                        row.get("lastname", String.class)))
+                .all();
+    }
+}
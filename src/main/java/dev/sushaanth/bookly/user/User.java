@@ -2,10 +2,14 @@ package dev.sushaanth.bookly.user;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotEmpty;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.UUID;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "tenant-users")
 @Table(name = "users")
 public class User {
     @Id
@@ -27,6 +31,11 @@ public class User {
         this.lastName = lastName;
     }
 
+    User(UUID id, String username, String firstName, String lastName) {
+        this(username, firstName, lastName);
+        this.id = id;
+    }
+
     public UUID getId() {
         return id;
     }
@@ -1,10 +1,14 @@
 package dev.sushaanth.bookly.user;
 
+import dev.sushaanth.bookly.multitenancy.context.TenantContext;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -13,9 +17,11 @@ import java.util.List;
 public class UserController {
     private static final Logger logger = LoggerFactory.getLogger(UserController.class);
     private final UserRepository userRepository;
+    private final UserExportService userExportService;
 
-    public UserController(UserRepository userRepository) {
+    public UserController(UserRepository userRepository, UserExportService userExportService) {
         this.userRepository = userRepository;
+        this.userExportService = userExportService;
     }
 
     @GetMapping()
@@ -23,6 +29,17 @@ public class UserController {
         logger.info("returning a list users");
         return this.userRepository.findAll();
     }
+
+    @GetMapping(path = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    ResponseEntity<StreamingResponseBody> exportUsers() {
+        logger.info("exporting users");
+        // The body is written on another thread, outside the request's tenant scope
+        String tenantId = TenantContext.getTenantId();
+        StreamingResponseBody body = out -> userExportService.exportUsers(tenantId, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
     
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
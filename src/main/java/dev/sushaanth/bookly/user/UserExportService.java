@@ -0,0 +1,104 @@
+package dev.sushaanth.bookly.user;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.sushaanth.bookly.multitenancy.context.TenantContext;
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.jpa.HibernateHints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes every user of a tenant to a stream as newline-delimited JSON.
+ * <p>
+ * Rows are read through a server-side cursor in batches of {@code users.export.fetch-size}
+ * inside a read-only transaction. Each user is written and then detached from the
+ * persistence context, so memory use stays flat however large the table is. The rows
+ * bypass the second-level cache for the same reason.
+ */
+@Service
+public class UserExportService {
+    private static final Logger logger = LoggerFactory.getLogger(UserExportService.class);
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${users.export.fetch-size:500}")
+    private int fetchSize;
+
+    public UserExportService(EntityManager entityManager,
+                             PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Stream the tenant's users to the output, one JSON object per line.
+     *
+     * @param tenantId Schema to read from; the export usually runs off the request thread
+     * @return Number of users written
+     */
+    public long exportUsers(String tenantId, OutputStream out) {
+        Long written = TenantContext.getWhere(tenantId, () -> transactionTemplate.execute(status -> writeUsers(out)));
+        logger.info("Exported {} users from {}", written, tenantId);
+        return written;
+    }
+
+    private long writeUsers(OutputStream out) {
+        // Rows of a streamed query are loaded after the query returns, so a cache mode hint on
+        // the query would no longer apply; the session's mode is used for the whole export
+        Session session = entityManager.unwrap(Session.class);
+        CacheMode cacheMode = session.getCacheMode();
+        session.setCacheMode(CacheMode.IGNORE);
+        try {
+            return streamUsers(out);
+        } finally {
+            session.setCacheMode(cacheMode);
+        }
+    }
+
+    private long streamUsers(OutputStream out) {
+        long written = 0;
+        // Postgres only uses a cursor for a non-zero fetch size inside a transaction
+        try (Stream<User> users = entityManager.createQuery("SELECT u FROM User u ORDER BY u.id", User.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+             JsonGenerator generator = objectMapper.createGenerator(out)) {
+            // Lines are separated by a newline instead of the default space
+            generator.setRootValueSeparator(null);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+            Iterator<User> iterator = users.iterator();
+            while (iterator.hasNext()) {
+                User user = iterator.next();
+                generator.writeObject(user);
+                generator.writeRaw('\n');
+                entityManager.detach(user);
+                if (++written % fetchSize == 0) {
+                    generator.flush();
+                }
+            }
+            generator.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return written;
+    }
+}
@@ -0,0 +1,6 @@
+-- Track tenant activity and hibernation state
+ALTER TABLE public.tenants ADD COLUMN IF NOT EXISTS last_accessed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
+ALTER TABLE public.tenants ADD COLUMN IF NOT EXISTS hibernated_at TIMESTAMP;
+ALTER TABLE public.tenants ADD COLUMN IF NOT EXISTS archive_location VARCHAR(1024);
+
+CREATE INDEX IF NOT EXISTS idx_tenants_hibernated_at ON public.tenants(hibernated_at);
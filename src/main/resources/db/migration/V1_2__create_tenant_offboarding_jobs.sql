@@ -0,0 +1,23 @@
+-- Track background tenant offboarding so an interrupted job can resume where it stopped
+CREATE TABLE IF NOT EXISTS public.tenant_offboarding_jobs (
+    id UUID PRIMARY KEY,
+    tenant_id UUID NOT NULL,
+    schema_name VARCHAR(255),
+    display_name VARCHAR(255) NOT NULL,
+    phase VARCHAR(50) NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    rows_deleted BIGINT NOT NULL DEFAULT 0,
+    tables_dropped INTEGER NOT NULL DEFAULT 0,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    last_error TEXT,
+    lease_expires_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP,
+    completed_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_offboarding_jobs_tenant ON public.tenant_offboarding_jobs(tenant_id);
+CREATE INDEX IF NOT EXISTS idx_offboarding_jobs_status ON public.tenant_offboarding_jobs(status);
+CREATE INDEX IF NOT EXISTS idx_invitations_tenant ON public.employee_invitations(tenant_id);
+CREATE INDEX IF NOT EXISTS idx_users_tenant ON public.users(tenant_id);
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_user ON public.refresh_tokens(user_id);
@@ -0,0 +1,4 @@
+-- Listings page through rows in (created_at, id) order starting after the last key seen
+CREATE INDEX IF NOT EXISTS idx_tenants_created_id ON public.tenants(created_at, id);
+CREATE INDEX IF NOT EXISTS idx_invitations_pending_created_id
+    ON public.employee_invitations(tenant_id, created_at, id) WHERE is_used = FALSE;
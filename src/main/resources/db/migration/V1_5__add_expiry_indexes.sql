@@ -0,0 +1,7 @@
+-- Drive the chunked cleanup deletes from an index instead of a sequential scan
+CREATE INDEX IF NOT EXISTS idx_verification_tokens_expiry
+    ON public.verification_tokens(expiry_date);
+
+CREATE INDEX IF NOT EXISTS idx_invitations_unused_expires
+    ON public.employee_invitations(expires_at)
+    WHERE is_used = FALSE;
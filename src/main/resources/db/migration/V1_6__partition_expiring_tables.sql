@@ -0,0 +1,138 @@
+-- Range-partition the short-lived auth tables by expiry, so expired rows are removed by
+-- dropping whole partitions instead of deleting them row by row.
+-- Partitions are named <table>_pYYYYMMDD after their lower bound. Rows outside every
+-- partition land in <table>_default and are moved out when their partition is created.
+
+CREATE OR REPLACE FUNCTION public.ensure_range_partitions(
+    p_parent TEXT, p_unit TEXT, p_from TIMESTAMP, p_to TIMESTAMP) RETURNS INTEGER
+LANGUAGE plpgsql AS $$
+DECLARE
+    v_key TEXT;
+    v_start TIMESTAMP := date_trunc(p_unit, p_from);
+    v_end TIMESTAMP;
+    v_name TEXT;
+    v_created INTEGER := 0;
+BEGIN
+    SELECT a.attname INTO v_key
+    FROM pg_partitioned_table pt
+    JOIN pg_attribute a ON a.attrelid = pt.partrelid AND a.attnum = pt.partattrs[0]
+    WHERE pt.partrelid = format('public.%I', p_parent)::regclass;
+
+    WHILE v_start < p_to LOOP
+        v_end := v_start + ('1 ' || p_unit)::INTERVAL;
+        v_name := p_parent || '_p' || to_char(v_start, 'YYYYMMDD');
+        IF to_regclass(format('public.%I', v_name)) IS NULL THEN
+            -- Built detached and then attached, so rows already in the default partition can move first
+            EXECUTE format('CREATE TABLE public.%I (LIKE public.%I INCLUDING DEFAULTS)', v_name, p_parent);
+            EXECUTE format('WITH moved AS (DELETE FROM public.%I WHERE %I >= $1 AND %I < $2 RETURNING *) '
+                           'INSERT INTO public.%I SELECT * FROM moved',
+                           p_parent || '_default', v_key, v_key, v_name)
+                USING v_start, v_end;
+            EXECUTE format('ALTER TABLE public.%I ATTACH PARTITION public.%I FOR VALUES FROM (%L) TO (%L)',
+                           p_parent, v_name, v_start, v_end);
+            v_created := v_created + 1;
+        END IF;
+        v_start := v_end;
+    END LOOP;
+    RETURN v_created;
+END;
+$$;
+
+-- Verification codes, one partition per day of expiry
+ALTER TABLE public.verification_tokens RENAME TO verification_tokens_unpartitioned;
+ALTER INDEX public.verification_tokens_pkey RENAME TO verification_tokens_unpartitioned_pkey;
+DROP INDEX IF EXISTS public.idx_tokens_email_token;
+DROP INDEX IF EXISTS public.idx_verification_tokens_expiry;
+
+CREATE TABLE public.verification_tokens (
+    id UUID NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    token VARCHAR(255) NOT NULL,
+    verified BOOLEAN NOT NULL DEFAULT FALSE,
+    expiry_date TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, expiry_date)
+) PARTITION BY RANGE (expiry_date);
+
+CREATE TABLE public.verification_tokens_default PARTITION OF public.verification_tokens DEFAULT;
+CREATE INDEX idx_tokens_email_token ON public.verification_tokens(email, token);
+
+SELECT public.ensure_range_partitions('verification_tokens', 'day',
+    LEAST((SELECT MIN(expiry_date) FROM public.verification_tokens_unpartitioned), LOCALTIMESTAMP),
+    LOCALTIMESTAMP + INTERVAL '30 days');
+
+INSERT INTO public.verification_tokens (id, email, token, verified, expiry_date, created_at)
+SELECT id, email, token, verified, expiry_date, created_at FROM public.verification_tokens_unpartitioned;
+
+DROP TABLE public.verification_tokens_unpartitioned;
+
+-- Employee invitations, one partition per week of expiry
+ALTER TABLE public.employee_invitations RENAME TO employee_invitations_unpartitioned;
+ALTER INDEX public.employee_invitations_pkey RENAME TO employee_invitations_unpartitioned_pkey;
+ALTER TABLE public.employee_invitations_unpartitioned DROP CONSTRAINT fk_tenant;
+ALTER TABLE public.employee_invitations_unpartitioned DROP CONSTRAINT fk_invited_by;
+DROP INDEX IF EXISTS public.idx_invitations_email;
+DROP INDEX IF EXISTS public.idx_invitations_tenant;
+DROP INDEX IF EXISTS public.idx_invitations_pending_created_id;
+DROP INDEX IF EXISTS public.idx_invitations_unused_expires;
+
+CREATE TABLE public.employee_invitations (
+    id UUID NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    tenant_id UUID NOT NULL,
+    invited_by UUID NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL,
+    is_used BOOLEAN NOT NULL DEFAULT FALSE,
+    PRIMARY KEY (id, expires_at),
+    CONSTRAINT fk_tenant FOREIGN KEY (tenant_id) REFERENCES public.tenants(id),
+    CONSTRAINT fk_invited_by FOREIGN KEY (invited_by) REFERENCES public.users(id)
+) PARTITION BY RANGE (expires_at);
+
+CREATE TABLE public.employee_invitations_default PARTITION OF public.employee_invitations DEFAULT;
+CREATE INDEX idx_invitations_email ON public.employee_invitations(email);
+CREATE INDEX idx_invitations_tenant ON public.employee_invitations(tenant_id);
+CREATE INDEX idx_invitations_pending_created_id
+    ON public.employee_invitations(tenant_id, created_at, id)
+    WHERE is_used = FALSE;
+
+SELECT public.ensure_range_partitions('employee_invitations', 'week',
+    LEAST((SELECT MIN(expires_at) FROM public.employee_invitations_unpartitioned), LOCALTIMESTAMP),
+    LOCALTIMESTAMP + INTERVAL '30 days');
+
+INSERT INTO public.employee_invitations (id, email, tenant_id, invited_by, created_at, expires_at, is_used)
+SELECT id, email, tenant_id, invited_by, created_at, expires_at, is_used
+FROM public.employee_invitations_unpartitioned;
+
+DROP TABLE public.employee_invitations_unpartitioned;
+
+-- Refresh tokens, one partition per week of expiry
+ALTER TABLE public.refresh_tokens RENAME TO refresh_tokens_unpartitioned;
+ALTER INDEX public.refresh_tokens_pkey RENAME TO refresh_tokens_unpartitioned_pkey;
+ALTER TABLE public.refresh_tokens_unpartitioned DROP CONSTRAINT fk_user;
+DROP INDEX IF EXISTS public.idx_refresh_tokens_token;
+DROP INDEX IF EXISTS public.idx_refresh_tokens_user;
+
+CREATE TABLE public.refresh_tokens (
+    id UUID NOT NULL,
+    token TEXT NOT NULL,
+    user_id UUID NOT NULL,
+    expiry_date TIMESTAMP NOT NULL,
+    revoked BOOLEAN NOT NULL DEFAULT FALSE,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, expiry_date),
+    CONSTRAINT fk_user FOREIGN KEY (user_id) REFERENCES public.users(id)
+) PARTITION BY RANGE (expiry_date);
+
+CREATE TABLE public.refresh_tokens_default PARTITION OF public.refresh_tokens DEFAULT;
+CREATE INDEX idx_refresh_tokens_token ON public.refresh_tokens(token);
+CREATE INDEX idx_refresh_tokens_user ON public.refresh_tokens(user_id);
+
+SELECT public.ensure_range_partitions('refresh_tokens', 'week',
+    LEAST((SELECT MIN(expiry_date) FROM public.refresh_tokens_unpartitioned), LOCALTIMESTAMP),
+    LOCALTIMESTAMP + INTERVAL '30 days');
+
+INSERT INTO public.refresh_tokens (id, token, user_id, expiry_date, revoked, created_at)
+SELECT id, token, user_id, expiry_date, revoked, created_at FROM public.refresh_tokens_unpartitioned;
+
+DROP TABLE public.refresh_tokens_unpartitioned;
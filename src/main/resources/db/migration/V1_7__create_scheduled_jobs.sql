@@ -0,0 +1,10 @@
+-- One row per coordinated scheduled job (or job partition): who holds it and how its last run went
+CREATE TABLE IF NOT EXISTS public.scheduled_jobs (
+    job_name VARCHAR(255) PRIMARY KEY,
+    owner_node VARCHAR(255),
+    lease_expires_at TIMESTAMP,
+    last_started_at TIMESTAMP,
+    last_finished_at TIMESTAMP,
+    last_status VARCHAR(50),
+    last_error TEXT
+);
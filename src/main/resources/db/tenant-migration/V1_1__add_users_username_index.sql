@@ -0,0 +1,2 @@
+-- UserRepository.findByUsername filters on username
+CREATE INDEX IF NOT EXISTS idx_users_username ON users(username);
@@ -0,0 +1,180 @@
+package dev.sushaanth.bookly;
+
+import dev.sushaanth.bookly.cache.CacheInvalidation;
+import dev.sushaanth.bookly.cache.CacheInvalidationBus;
+import dev.sushaanth.bookly.multitenancy.schema.TenantMigrations;
+import dev.sushaanth.bookly.security.jwt.JwtTokenUtil;
+import dev.sushaanth.bookly.security.model.Role;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the request and JDBC paths on virtual threads while Flight Recorder watches for
+ * {@code jdk.VirtualThreadPinned}, and fails if any pinned stack passes through our code.
+ * Pinning inside libraries is only reported.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.mail.username=noreply@bookly.test",
+        "spring.mail.password=secret",
+        "application.base-url=http://localhost:8080",
+        "spring.threads.virtual.enabled=true",
+        "jwt.secret=cGlubmluZy10ZXN0LXNpZ25pbmcta2V5LTAxMjM0NTY3ODlhYmNkZWY="
+})
+class VirtualThreadPinningTest {
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningTest.class);
+    private static final String APPLICATION_PACKAGE = "dev.sushaanth.bookly.";
+    private static final String SCHEMA = "tenant_pinning";
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15.0")
+            .withDatabaseName("multitenant-test")
+            .withUsername("postgres")
+            .withPassword("postgres");
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TenantMigrations tenantMigrations;
+
+    @Autowired
+    private JwtTokenUtil jwtTokenUtil;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    private final List<RecordedEvent> pinned = new CopyOnWriteArrayList<>();
+    private RecordingStream recording;
+
+    @BeforeEach
+    void startRecording() {
+        recording = new RecordingStream();
+        recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+        recording.onEvent("jdk.VirtualThreadPinned", pinned::add);
+        recording.startAsync();
+    }
+
+    @AfterEach
+    void stopRecording() {
+        recording.close();
+    }
+
+    @Test
+    void requestAndJdbcPathsDoNotPinCarriers() throws Exception {
+        String token = createLibrary();
+        HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Integer>> requests = IntStream.range(0, 200)
+                    .mapToObj(i -> executor.submit(() -> client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/users"))
+                            .header("Authorization", "Bearer " + token)
+                            .build(), HttpResponse.BodyHandlers.discarding()).statusCode()))
+                    .toList();
+            List<Future<?>> invalidations = IntStream.range(0, 50)
+                    .<Future<?>>mapToObj(i -> executor.submit(() -> cacheInvalidationBus.publish(
+                            List.of(new CacheInvalidation("jpa", "tenant-users", SCHEMA, String.valueOf(i))))))
+                    .toList();
+            for (Future<Integer> request : requests) {
+                assertThat(request.get()).isEqualTo(200);
+            }
+            for (Future<?> invalidation : invalidations) {
+                invalidation.get();
+            }
+            // A canary, so the test cannot pass because nothing was recorded
+            executor.submit(VirtualThreadPinningTest::pinOnPurpose).get();
+        }
+        recording.stop();
+
+        assertThat(pinned).as("pinned events, including the canary").anyMatch(event -> passesThrough(event, "pinOnPurpose"));
+        List<String> ours = pinned.stream()
+                .filter(event -> !passesThrough(event, "pinOnPurpose"))
+                .filter(event -> frames(event).stream().anyMatch(VirtualThreadPinningTest::isApplicationCode))
+                .map(VirtualThreadPinningTest::describe)
+                .toList();
+        pinned.stream()
+                .filter(event -> !passesThrough(event, "pinOnPurpose"))
+                .forEach(event -> logger.info("Pinned in a library: {}", describe(event)));
+        assertThat(ours).as("carriers pinned in application code").isEmpty();
+    }
+
+    private static synchronized void pinOnPurpose() {
+        try {
+            Thread.sleep(10);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private String createLibrary() {
+        UUID tenantId = UUID.randomUUID();
+        UUID adminId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO public.tenants (id, schema_name, display_name) VALUES (?, ?, ?)",
+                tenantId, SCHEMA, "Pinning " + tenantId);
+        jdbcTemplate.update("""
+                INSERT INTO public.users (id, username, email, firstname, lastname, password, role, tenant_id)
+                VALUES (?, ?, ?, 'Ada', 'Lovelace', 'x', 'ROLE_LIBRARY_ADMIN', ?)
+                """, adminId, "admin-" + adminId, adminId + "@bookly.test", tenantId);
+        jdbcTemplate.execute("CREATE SCHEMA IF NOT EXISTS " + SCHEMA);
+        tenantMigrations.forSchema(SCHEMA).migrate();
+        return jwtTokenUtil.generateToken("admin-" + adminId, adminId, tenantId, SCHEMA, Role.ROLE_LIBRARY_ADMIN);
+    }
+
+    private static boolean passesThrough(RecordedEvent event, String method) {
+        return frames(event).stream().anyMatch(frame -> frame.getMethod().getName().equals(method));
+    }
+
+    private static List<RecordedFrame> frames(RecordedEvent event) {
+        return event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames();
+    }
+
+    private static boolean isApplicationCode(RecordedFrame frame) {
+        // The clients driving the load live in this class, and their frames prove nothing
+        return typeOf(frame).startsWith(APPLICATION_PACKAGE) && !typeOf(frame).startsWith(VirtualThreadPinningTest.class.getName());
+    }
+
+    private static String typeOf(RecordedFrame frame) {
+        return frame.getMethod().getType().getName();
+    }
+
+    private static String describe(RecordedEvent event) {
+        return frames(event).stream()
+                .limit(12)
+                .map(frame -> typeOf(frame) + "." + frame.getMethod().getName() + ":" + frame.getLineNumber())
+                .toList()
+                .toString();
+    }
+}
@@ -0,0 +1,102 @@
+package dev.sushaanth.bookly.benchmark;
+
+import dev.sushaanth.bookly.security.service.EmailTemplate;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.FileCopyUtils;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the compiled email templates against reading the template from the classpath
+ * and running one {@code String.replace} per variable, as rendering used to work.
+ * <p>
+ * Run with {@code ./mvnw test -Pbenchmark -Dtest=EmailTemplateBenchmark}, and add
+ * {@code -Djmh.profilers=gc} to see allocation per render.
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailTemplateBenchmark {
+
+    @Param({"otp", "invitation"})
+    public String template;
+
+    private String path;
+    private Map<String, Object> model;
+    private EmailTemplate compiled;
+
+    @Setup
+    public void setUp() throws IOException {
+        if (template.equals("otp")) {
+            path = "email-templates/otp-email.html";
+            model = Map.of("otp", "482913");
+        } else {
+            path = "email-templates/invitation-email.html";
+            model = Map.of(
+                    "adminName", "Ada Lovelace",
+                    "libraryName", "Central Library",
+                    "baseUrl", "https://bookly.example.com",
+                    "invitationId", "3f2c9a56-1b7e-4d0a-9c55-0d6f3e8b2a71");
+        }
+        compiled = EmailTemplate.load(path, model.keySet());
+
+        if (!compiled.render(model).equals(legacy())) {
+            throw new IllegalStateException("Compiled template output differs for " + path);
+        }
+    }
+
+    @Benchmark
+    public String legacy() throws IOException {
+        String result;
+        try (InputStreamReader reader = new InputStreamReader(
+                new ClassPathResource(path).getInputStream(), StandardCharsets.UTF_8)) {
+            result = FileCopyUtils.copyToString(reader);
+        }
+        for (Map.Entry<String, Object> entry : model.entrySet()) {
+            result = result.replace("${" + entry.getKey() + "}", entry.getValue().toString());
+        }
+        return result;
+    }
+
+    @Benchmark
+    public String compiled() {
+        return compiled.render(model);
+    }
+
+    @Test
+    void runBenchmarks() throws RunnerException {
+        OptionsBuilder options = new OptionsBuilder();
+        options.include(EmailTemplateBenchmark.class.getName());
+        String profilers = System.getProperty("jmh.profilers");
+        if (profilers != null) {
+            for (String profiler : profilers.split(",")) {
+                options.addProfiler(profiler);
+            }
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,137 @@
+package dev.sushaanth.bookly.benchmark;
+
+import dev.sushaanth.bookly.pagination.CursorPage;
+import dev.sushaanth.bookly.security.dto.InvitationResponse;
+import dev.sushaanth.bookly.security.model.EmployeeInvitation;
+import dev.sushaanth.bookly.security.repository.EmployeeInvitationRepository;
+import dev.sushaanth.bookly.security.repository.LibraryUserRepository;
+import dev.sushaanth.bookly.security.service.InvitationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares listing 5,000 pending invitations with one inviter lookup per invitation
+ * against paging through them with the projection query used by {@link InvitationService}.
+ * <p>
+ * Run with {@code ./mvnw test -Pbenchmark -Dtest=PendingInvitationsBenchmarkTest}.
+ */
+@Tag("benchmark")
+@Testcontainers
+@SpringBootTest(properties = {
+        "spring.mail.username=noreply@bookly.test",
+        "spring.mail.password=secret",
+        "application.base-url=http://localhost:8080"
+})
+class PendingInvitationsBenchmarkTest {
+    private static final int INVITATIONS = 5_000;
+    private static final int ROUNDS = 10;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15.0")
+            .withDatabaseName("invitations-benchmark")
+            .withUsername("postgres")
+            .withPassword("postgres");
+
+    @Autowired
+    private InvitationService invitationService;
+
+    @Autowired
+    private EmployeeInvitationRepository invitationRepository;
+
+    @Autowired
+    private LibraryUserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final UUID tenantId = UUID.randomUUID();
+    private final UUID adminId = UUID.randomUUID();
+
+    @BeforeEach
+    void seedInvitations() {
+        jdbcTemplate.update("INSERT INTO public.tenants (id, schema_name, display_name) VALUES (?, ?, ?)",
+                tenantId, "bench_" + tenantId.toString().replace("-", ""), "Benchmark " + tenantId);
+        jdbcTemplate.update("""
+                INSERT INTO public.users (id, username, email, firstname, lastname, password, role, tenant_id)
+                VALUES (?, ?, ?, 'Ada', 'Lovelace', 'x', 'ROLE_LIBRARY_ADMIN', ?)
+                """, adminId, "admin-" + adminId, adminId + "@bookly.test", tenantId);
+        jdbcTemplate.update("""
+                INSERT INTO public.employee_invitations (id, email, tenant_id, invited_by, expires_at)
+                SELECT gen_random_uuid(), 'employee' || g || '-' || ? || '@bookly.test', ?, ?,
+                       CURRENT_TIMESTAMP + INTERVAL '7 days'
+                FROM generate_series(1, ?) g
+                """, tenantId.toString(), tenantId, adminId, INVITATIONS);
+    }
+
+    @Test
+    void comparePendingInvitationListing() {
+        List<InvitationResponse> perRow = perRowLookup();
+        List<InvitationResponse> projected = allPages();
+        assertThat(projected).hasSize(INVITATIONS);
+        assertThat(projected).extracting(InvitationResponse::invitedByName).containsOnly("Ada Lovelace");
+        assertThat(projected).containsExactlyInAnyOrderElementsOf(perRow);
+
+        double perRowMs = time(this::perRowLookup);
+        double projectedMs = time(this::allPages);
+
+        System.out.printf("%d pending invitations: per-row lookup %.1f ms, projection %.1f ms%n",
+                INVITATIONS, perRowMs, projectedMs);
+        assertThat(projectedMs).isLessThan(perRowMs);
+    }
+
+    // Walk every page of the listing, one projection query per page
+    private List<InvitationResponse> allPages() {
+        List<InvitationResponse> invitations = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<InvitationResponse> page = invitationService.getPendingInvitations(
+                    adminId, cursor, CursorPage.MAX_SIZE);
+            invitations.addAll(page.items());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return invitations;
+    }
+
+    // The listing as it was before, one findById per invitation to resolve the inviter
+    private List<InvitationResponse> perRowLookup() {
+        return invitationRepository.findByTenantIdAndUsedFalse(tenantId).stream()
+                .map(this::withInviterName)
+                .toList();
+    }
+
+    private InvitationResponse withInviterName(EmployeeInvitation invitation) {
+        String invitedByName = userRepository.findById(invitation.getInvitedBy())
+                .map(user -> user.getFirstName() + " " + user.getLastName())
+                .orElse("Unknown");
+        return new InvitationResponse(invitation.getId(), invitation.getEmail(), invitation.getInvitedBy(),
+                invitedByName, invitation.getCreatedAt(), invitation.getExpiresAt(), invitation.isUsed());
+    }
+
+    private static double time(Supplier<?> listing) {
+        // Warm up before measuring
+        for (int i = 0; i < 3; i++) {
+            listing.get();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            listing.get();
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / ROUNDS;
+    }
+}
@@ -0,0 +1,104 @@
+package dev.sushaanth.bookly.benchmark;
+
+import dev.sushaanth.bookly.pagination.CursorPage;
+import dev.sushaanth.bookly.tenant.TenantService;
+import dev.sushaanth.bookly.tenant.dto.TenantResponse;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the cost of a shallow and a deep page of the tenant listing with keyset
+ * pagination against the same pages fetched with {@code OFFSET}.
+ * <p>
+ * Run with {@code ./mvnw test -Pbenchmark -Dtest=TenantPaginationBenchmarkTest}.
+ */
+@Tag("benchmark")
+@Testcontainers
+@SpringBootTest(properties = {
+        "spring.mail.username=noreply@bookly.test",
+        "spring.mail.password=secret",
+        "application.base-url=http://localhost:8080"
+})
+class TenantPaginationBenchmarkTest {
+    private static final int TENANTS = 50_000;
+    private static final int PAGE_SIZE = CursorPage.DEFAULT_SIZE;
+    private static final int ROUNDS = 50;
+
+    private static final String OFFSET_SQL =
+            "SELECT * FROM public.tenants ORDER BY created_at, id LIMIT ? OFFSET ?";
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15.0")
+            .withDatabaseName("pagination-benchmark")
+            .withUsername("postgres")
+            .withPassword("postgres");
+
+    @Autowired
+    private TenantService tenantService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void compareKeysetAndOffsetPaging() {
+        jdbcTemplate.update("""
+                INSERT INTO public.tenants (id, schema_name, display_name, created_at)
+                SELECT gen_random_uuid(), 'bench_' || g, 'Benchmark ' || g,
+                       TIMESTAMP '2024-01-01' + g * INTERVAL '1 second'
+                FROM generate_series(1, ?) g
+                """, TENANTS);
+        jdbcTemplate.execute("ANALYZE public.tenants");
+
+        // Walk to the last page once to find its cursor
+        CursorPage<TenantResponse> page = tenantService.getTenants(null, PAGE_SIZE);
+        String firstCursor = null;
+        String deepCursor = null;
+        int pages = 1;
+        while (page.nextCursor() != null) {
+            if (firstCursor == null) {
+                firstCursor = page.nextCursor();
+            }
+            deepCursor = page.nextCursor();
+            page = tenantService.getTenants(deepCursor, PAGE_SIZE);
+            pages++;
+        }
+        assertThat(pages).isGreaterThanOrEqualTo(TENANTS / PAGE_SIZE);
+
+        String shallow = firstCursor;
+        String deep = deepCursor;
+        int deepOffset = (pages - 1) * PAGE_SIZE;
+
+        double keysetShallowMs = time(() -> tenantService.getTenants(shallow, PAGE_SIZE));
+        double keysetDeepMs = time(() -> tenantService.getTenants(deep, PAGE_SIZE));
+        double offsetShallowMs = time(() -> jdbcTemplate.queryForList(OFFSET_SQL, PAGE_SIZE, PAGE_SIZE));
+        double offsetDeepMs = time(() -> jdbcTemplate.queryForList(OFFSET_SQL, PAGE_SIZE, deepOffset));
+
+        System.out.printf("%d tenants, page %d: keyset %.2f ms -> %.2f ms, offset %.2f ms -> %.2f ms%n",
+                TENANTS, pages, keysetShallowMs, keysetDeepMs, offsetShallowMs, offsetDeepMs);
+        assertThat(keysetDeepMs).isLessThan(offsetDeepMs);
+    }
+
+    private static double time(Supplier<?> query) {
+        // Warm up before measuring
+        for (int i = 0; i < 5; i++) {
+            query.get();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            query.get();
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / ROUNDS;
+    }
+}
@@ -0,0 +1,110 @@
+package dev.sushaanth.bookly.benchmark;
+
+import dev.sushaanth.bookly.multitenancy.schema.FlywaySchemaProvisioner;
+import dev.sushaanth.bookly.multitenancy.schema.TemplateSchemaProvisioner;
+import dev.sushaanth.bookly.multitenancy.schema.TenantMigrations;
+import dev.sushaanth.bookly.multitenancy.schema.TenantSchemaProvisioner;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares Flyway replay against template cloning as the tenant migration history grows.
+ * <p>
+ * Run with {@code ./mvnw test -Pbenchmark -Dtest=TenantProvisioningBenchmarkTest}.
+ */
+@Tag("benchmark")
+@Testcontainers
+class TenantProvisioningBenchmarkTest {
+    private static final int TENANTS_PER_RUN = 20;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15.0")
+            .withDatabaseName("provisioning-benchmark")
+            .withUsername("postgres")
+            .withPassword("postgres");
+
+    @TempDir
+    Path migrations;
+
+    @ParameterizedTest(name = "{0} migrations")
+    @ValueSource(ints = {10, 50, 200})
+    void compareProvisioningModes(int migrationCount) throws IOException {
+        writeMigrations(migrationCount);
+
+        DataSource dataSource = new DriverManagerDataSource(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        TenantMigrations tenantMigrations = new TenantMigrations(
+                dataSource, new String[]{"filesystem:" + migrations});
+
+        TemplateSchemaProvisioner template = new TemplateSchemaProvisioner(
+                tenantMigrations, "template_" + migrationCount);
+        template.refreshTemplate();
+
+        long flywayNanos = provisionAll(new FlywaySchemaProvisioner(tenantMigrations), "flyway_" + migrationCount);
+        long templateNanos = provisionAll(template, "clone_" + migrationCount);
+
+        System.out.printf("%d migrations: flyway %.1f ms/tenant, template %.1f ms/tenant%n",
+                migrationCount,
+                flywayNanos / 1_000_000.0 / TENANTS_PER_RUN,
+                templateNanos / 1_000_000.0 / TENANTS_PER_RUN);
+
+        // Cloned schemas must be indistinguishable from migrated ones
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        assertThat(countTables(jdbc, "clone_" + migrationCount + "_0"))
+                .isEqualTo(countTables(jdbc, "flyway_" + migrationCount + "_0"));
+        assertThat(jdbc.queryForObject(
+                "SELECT max(installed_rank) FROM clone_" + migrationCount + "_0.flyway_schema_history", Integer.class))
+                .isEqualTo(jdbc.queryForObject(
+                        "SELECT max(installed_rank) FROM flyway_" + migrationCount + "_0.flyway_schema_history", Integer.class));
+    }
+
+    private long provisionAll(TenantSchemaProvisioner provisioner, String prefix) {
+        long start = System.nanoTime();
+        for (int i = 0; i < TENANTS_PER_RUN; i++) {
+            provisioner.provision(prefix + "_" + i);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private Integer countTables(JdbcTemplate jdbc, String schema) {
+        return jdbc.queryForObject(
+                "SELECT count(*) FROM information_schema.tables WHERE table_schema = ?", Integer.class, schema);
+    }
+
+    private void writeMigrations(int count) throws IOException {
+        Files.writeString(migrations.resolve("V1__create_users_table.sql"), """
+                CREATE TABLE users (
+                    id UUID PRIMARY KEY,
+                    username VARCHAR(255) NOT NULL,
+                    firstname VARCHAR(255) NOT NULL,
+                    lastname VARCHAR(255) NOT NULL
+                );
+                """);
+        for (int i = 2; i <= count; i++) {
+            Files.writeString(migrations.resolve("V" + i + "__step_" + i + ".sql"), """
+                    CREATE TABLE item_%1$d (
+                        id BIGSERIAL PRIMARY KEY,
+                        user_id UUID REFERENCES users(id),
+                        title VARCHAR(255) NOT NULL,
+                        created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+                    );
+                    CREATE INDEX idx_item_%1$d_user ON item_%1$d(user_id);
+                    ALTER TABLE users ADD COLUMN attr_%1$d VARCHAR(50);
+                    """.formatted(i));
+        }
+    }
+}
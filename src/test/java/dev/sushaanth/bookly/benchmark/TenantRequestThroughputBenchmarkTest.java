@@ -0,0 +1,154 @@
+package dev.sushaanth.bookly.benchmark;
+
+import dev.sushaanth.bookly.multitenancy.schema.TenantMigrations;
+import dev.sushaanth.bookly.security.jwt.JwtTokenUtil;
+import dev.sushaanth.bookly.security.model.Role;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures authenticated request throughput with Tomcat on virtual threads, while requests
+ * for two tenants are interleaved. Every response is checked to hold only its own tenant's
+ * users, so a tenant binding that outlived its request would show up as a failure.
+ * <p>
+ * Run with {@code ./mvnw test -Pbenchmark -Dtest=TenantRequestThroughputBenchmarkTest}.
+ */
+@Tag("benchmark")
+@Testcontainers
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.mail.username=noreply@bookly.test",
+        "spring.mail.password=secret",
+        "application.base-url=http://localhost:8080",
+        "spring.threads.virtual.enabled=true",
+        "jwt.secret=dGhyb3VnaHB1dC1iZW5jaG1hcmstc2lnbmluZy1rZXktMDEyMzQ1Njc4OQ=="
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TenantRequestThroughputBenchmarkTest {
+    private static final int CLIENTS = 200;
+    private static final int REQUESTS_PER_CLIENT = 50;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15.0")
+            .withDatabaseName("throughput-benchmark")
+            .withUsername("postgres")
+            .withPassword("postgres");
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TenantMigrations tenantMigrations;
+
+    @Autowired
+    private JwtTokenUtil jwtTokenUtil;
+
+    private final List<Library> libraries = new ArrayList<>();
+
+    private record Library(String schema, String token, String member) {
+    }
+
+    @BeforeAll
+    void createLibraries() {
+        libraries.add(createLibrary("bench_library_a"));
+        libraries.add(createLibrary("bench_library_b"));
+    }
+
+    @Test
+    void measureTenantScopedRequestThroughput() throws Exception {
+        HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+        // Warm up before measuring
+        run(client, 20, 20);
+
+        AtomicInteger crossed = new AtomicInteger();
+        long start = System.nanoTime();
+        int requests = run(client, CLIENTS, REQUESTS_PER_CLIENT, crossed);
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        System.out.printf("%d requests from %d clients on virtual threads: %.0f requests/s%n",
+                requests, CLIENTS, requests / seconds);
+        assertThat(crossed).hasValue(0);
+    }
+
+    private int run(HttpClient client, int clients, int requestsPerClient) throws Exception {
+        return run(client, clients, requestsPerClient, new AtomicInteger());
+    }
+
+    private int run(HttpClient client, int clients, int requestsPerClient, AtomicInteger crossed) throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                int clientNumber = c;
+                results.add(executor.submit(() -> {
+                    for (int i = 0; i < requestsPerClient; i++) {
+                        Library library = libraries.get((clientNumber + i) % libraries.size());
+                        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/users"))
+                                .header("Authorization", "Bearer " + library.token())
+                                .build(), HttpResponse.BodyHandlers.ofString());
+                        assertThat(response.statusCode()).isEqualTo(200);
+                        if (!onlyHolds(response.body(), library)) {
+                            crossed.incrementAndGet();
+                        }
+                    }
+                    return requestsPerClient;
+                }));
+            }
+            int total = 0;
+            for (Future<Integer> result : results) {
+                total += result.get();
+            }
+            return total;
+        }
+    }
+
+    private boolean onlyHolds(String body, Library library) {
+        return libraries.stream().allMatch(other -> body.contains(other.member()) == (other == library));
+    }
+
+    private Library createLibrary(String schema) {
+        UUID tenantId = UUID.randomUUID();
+        UUID adminId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO public.tenants (id, schema_name, display_name) VALUES (?, ?, ?)",
+                tenantId, schema, "Benchmark " + schema);
+        jdbcTemplate.update("""
+                INSERT INTO public.users (id, username, email, firstname, lastname, password, role, tenant_id)
+                VALUES (?, ?, ?, 'Ada', 'Lovelace', 'x', 'ROLE_LIBRARY_ADMIN', ?)
+                """, adminId, "admin-" + schema, schema + "@bookly.test", tenantId);
+
+        jdbcTemplate.execute("CREATE SCHEMA IF NOT EXISTS " + schema);
+        tenantMigrations.forSchema(schema).migrate();
+        String member = "member-of-" + schema;
+        jdbcTemplate.update("INSERT INTO " + schema + ".users (id, username, firstname, lastname) VALUES (?, ?, 'First', 'Last')",
+                UUID.randomUUID(), member);
+
+        String token = jwtTokenUtil.generateToken("admin-" + schema, adminId, tenantId, schema, Role.ROLE_LIBRARY_ADMIN);
+        return new Library(schema, token, member);
+    }
+}
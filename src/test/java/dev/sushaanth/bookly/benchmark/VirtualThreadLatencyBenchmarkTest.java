@@ -0,0 +1,147 @@
+package dev.sushaanth.bookly.benchmark;
+
+import dev.sushaanth.bookly.BooklyApplication;
+import dev.sushaanth.bookly.multitenancy.schema.TenantMigrations;
+import dev.sushaanth.bookly.security.jwt.JwtTokenUtil;
+import dev.sushaanth.bookly.security.model.Role;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares request latency with Tomcat on its platform thread pool and on virtual threads,
+ * under more concurrent clients than the pool has threads. The application is started
+ * twice against the same database, once in each mode.
+ * <p>
+ * Run with {@code ./mvnw test -Pbenchmark -Dtest=VirtualThreadLatencyBenchmarkTest}.
+ */
+@Tag("benchmark")
+@Testcontainers
+class VirtualThreadLatencyBenchmarkTest {
+    private static final int CLIENTS = 400;
+    private static final int REQUESTS_PER_CLIENT = 25;
+    private static final String SCHEMA = "bench_latency";
+    private static final String JWT_SECRET = "bGF0ZW5jeS1iZW5jaG1hcmstc2lnbmluZy1rZXktMDEyMzQ1Njc4OWFiY2Q=";
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15.0")
+            .withDatabaseName("latency-benchmark")
+            .withUsername("postgres")
+            .withPassword("postgres");
+
+    private String token;
+
+    @Test
+    void compareP99LatencyOfPlatformAndVirtualThreads() throws Exception {
+        long[] platform = measure(false);
+        long[] virtual = measure(true);
+
+        System.out.printf("%d clients, Tomcat pool of 200: platform p50 %.1f ms p99 %.1f ms, virtual p50 %.1f ms p99 %.1f ms%n",
+                CLIENTS, percentile(platform, 50), percentile(platform, 99), percentile(virtual, 50), percentile(virtual, 99));
+        assertThat(virtual).hasSameSizeAs(platform).hasSize(CLIENTS * REQUESTS_PER_CLIENT);
+    }
+
+    /**
+     * Start the application in one mode and collect the latency of every request, in microseconds.
+     */
+    private long[] measure(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = start(virtualThreads)) {
+            if (token == null) {
+                token = createLibrary(context);
+            }
+            URI users = URI.create("http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort() + "/users");
+            HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+
+            // Warm up before measuring
+            run(client, users, 50, 10);
+            long[] latencies = run(client, users, CLIENTS, REQUESTS_PER_CLIENT);
+            Arrays.sort(latencies);
+            return latencies;
+        }
+    }
+
+    private long[] run(HttpClient client, URI users, int clients, int requestsPerClient) throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<long[]>> results = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                results.add(executor.submit(() -> {
+                    long[] latencies = new long[requestsPerClient];
+                    for (int i = 0; i < requestsPerClient; i++) {
+                        long start = System.nanoTime();
+                        HttpResponse<Void> response = client.send(HttpRequest.newBuilder(users)
+                                .header("Authorization", "Bearer " + token)
+                                .build(), HttpResponse.BodyHandlers.discarding());
+                        latencies[i] = (System.nanoTime() - start) / 1_000;
+                        assertThat(response.statusCode()).isEqualTo(200);
+                    }
+                    return latencies;
+                }));
+            }
+            List<Long> all = new ArrayList<>();
+            for (Future<long[]> result : results) {
+                Arrays.stream(result.get()).forEach(all::add);
+            }
+            return all.stream().mapToLong(Long::longValue).toArray();
+        }
+    }
+
+    private static ConfigurableApplicationContext start(boolean virtualThreads) {
+        // Arguments, as default properties would lose to application.properties
+        return SpringApplication.run(BooklyApplication.class,
+                "--server.port=0",
+                "--spring.datasource.url=" + postgres.getJdbcUrl(),
+                "--spring.datasource.username=" + postgres.getUsername(),
+                "--spring.datasource.password=" + postgres.getPassword(),
+                "--spring.datasource.hikari.maximum-pool-size=20",
+                "--spring.jpa.show-sql=false",
+                "--spring.mail.username=noreply@bookly.test",
+                "--spring.mail.password=secret",
+                "--application.base-url=http://localhost:8080",
+                "--jwt.secret=" + JWT_SECRET,
+                "--spring.threads.virtual.enabled=" + virtualThreads);
+    }
+
+    private static String createLibrary(ConfigurableApplicationContext context) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        UUID tenantId = UUID.randomUUID();
+        UUID adminId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO public.tenants (id, schema_name, display_name) VALUES (?, ?, ?)",
+                tenantId, SCHEMA, "Benchmark " + SCHEMA);
+        jdbcTemplate.update("""
+                INSERT INTO public.users (id, username, email, firstname, lastname, password, role, tenant_id)
+                VALUES (?, ?, ?, 'Ada', 'Lovelace', 'x', 'ROLE_LIBRARY_ADMIN', ?)
+                """, adminId, "admin-" + SCHEMA, SCHEMA + "@bookly.test", tenantId);
+        jdbcTemplate.execute("CREATE SCHEMA IF NOT EXISTS " + SCHEMA);
+        context.getBean(TenantMigrations.class).forSchema(SCHEMA).migrate();
+        jdbcTemplate.update("""
+                INSERT INTO %s.users (id, username, firstname, lastname)
+                SELECT gen_random_uuid(), 'member-' || g, 'First', 'Last' FROM generate_series(1, 50) g
+                """.formatted(SCHEMA));
+        return context.getBean(JwtTokenUtil.class).generateToken("admin-" + SCHEMA, adminId, tenantId, SCHEMA, Role.ROLE_LIBRARY_ADMIN);
+    }
+
+    private static double percentile(long[] sortedMicros, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sortedMicros.length) - 1;
+        return sortedMicros[Math.max(0, index)] / 1_000.0;
+    }
+}
@@ -0,0 +1,192 @@
+package dev.sushaanth.bookly.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.sushaanth.bookly.tenant.Tenant;
+import dev.sushaanth.bookly.tenant.TenantRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.search.Search;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs a second node next to the application: a bus of its own on the same database, with
+ * a recording listener in place of real caches.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(properties = {
+        "spring.mail.username=noreply@bookly.test",
+        "spring.mail.password=secret",
+        "application.base-url=http://localhost:8080",
+        "cache.invalidation.poll-interval=100ms"
+})
+class CacheInvalidationBusTest {
+    private static final String CHANNEL = "cache_invalidation";
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15.0")
+            .withDatabaseName("multitenant-test")
+            .withUsername("postgres")
+            .withPassword("postgres");
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TenantRepository tenantRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final RecordingListener otherNodeCaches = new RecordingListener();
+    private CacheInvalidationBus otherNode;
+
+    @BeforeEach
+    void startOtherNode() {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory(Map.of("listener", otherNodeCaches));
+        otherNode = new CacheInvalidationBus(dataSource, objectMapper, beans.getBeanProvider(CacheInvalidationListener.class),
+                new SimpleMeterRegistry(), CHANNEL, Duration.ofMillis(100), Duration.ofSeconds(1));
+        otherNode.start();
+        await(() -> listeners() == 2);
+    }
+
+    @AfterEach
+    void stopOtherNode() {
+        otherNode.stop();
+    }
+
+    @Test
+    void updateIsSentToTheOtherNodeAfterCommit() {
+        UUID tenantId = insertTenant("before");
+        tenantRepository.findById(tenantId).orElseThrow();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Tenant tenant = tenantRepository.findById(tenantId).orElseThrow();
+            tenant.setDescription("after");
+            tenantRepository.saveAndFlush(tenant);
+            assertThat(otherNodeCaches.invalidations).isEmpty();
+        });
+
+        await(() -> otherNodeCaches.invalidations.contains(new CacheInvalidation("jpa", "tenants", "public", tenantId.toString())));
+    }
+
+    @Test
+    void invalidationFromTheOtherNodeEvictsTheCachedEntry() {
+        UUID tenantId = insertTenant("before");
+        assertThat(descriptionOf(tenantId)).isEqualTo("before");
+        jdbcTemplate.update("UPDATE public.tenants SET description = 'after' WHERE id = ?", tenantId);
+        assertThat(descriptionOf(tenantId)).isEqualTo("before");
+
+        otherNode.publish(List.of(new CacheInvalidation("jpa", "tenants", "public", tenantId.toString())));
+
+        await(() -> "after".equals(descriptionOf(tenantId)));
+    }
+
+    @Test
+    void missedNotificationTriggersResync() {
+        double resyncs = resyncs("gap");
+        notify("{\"node\":\"node-x\",\"sequence\":1,\"invalidations\":[]}");
+        notify("{\"node\":\"node-x\",\"sequence\":3,\"invalidations\":[]}");
+
+        await(() -> otherNodeCaches.resyncs.get() == 1);
+        await(() -> resyncs("gap") == resyncs + 1);
+    }
+
+    @Test
+    void lostConnectionTriggersResync() {
+        double resyncs = resyncs("reconnect");
+        jdbcTemplate.queryForList("SELECT pg_terminate_backend(pid) FROM pg_stat_activity WHERE query = 'LISTEN " + CHANNEL + "'");
+
+        await(() -> otherNodeCaches.resyncs.get() == 1);
+        await(() -> resyncs("reconnect") == resyncs + 1);
+        await(() -> listeners() == 2);
+    }
+
+    private UUID insertTenant(String description) {
+        UUID tenantId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO public.tenants (id, schema_name, display_name, description, created_at, active) " +
+                "VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP, TRUE)", tenantId, "tenant_" + tenantId, "Library " + tenantId, description);
+        return tenantId;
+    }
+
+    private String descriptionOf(UUID tenantId) {
+        return tenantRepository.findById(tenantId).map(Tenant::getDescription).orElseThrow();
+    }
+
+    private void notify(String payload) {
+        jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", CHANNEL, payload);
+    }
+
+    private int listeners() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM pg_stat_activity WHERE query = 'LISTEN " + CHANNEL + "'", Integer.class);
+    }
+
+    private double resyncs(String reason) {
+        return Search.in(meterRegistry).name("bookly.cache.invalidation.resyncs").tag("reason", reason)
+                .counters().stream().mapToDouble(counter -> counter.count()).sum();
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met within 10s").isLessThan(deadline);
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static class RecordingListener implements CacheInvalidationListener {
+        final List<CacheInvalidation> invalidations = new CopyOnWriteArrayList<>();
+        final AtomicInteger resyncs = new AtomicInteger();
+
+        @Override
+        public String namespace() {
+            return "jpa";
+        }
+
+        @Override
+        public void invalidate(CacheInvalidation invalidation) {
+            invalidations.add(invalidation);
+        }
+
+        @Override
+        public void invalidateAll() {
+            resyncs.incrementAndGet();
+        }
+    }
+}
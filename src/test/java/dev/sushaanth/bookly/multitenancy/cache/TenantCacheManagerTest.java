@@ -0,0 +1,80 @@
+package dev.sushaanth.bookly.multitenancy.cache;
+
+import dev.sushaanth.bookly.multitenancy.context.TenantContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TenantCacheManagerTest {
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void tenantsOnlySeeTheirOwnEntries() {
+        TenantCacheManager cacheManager = cacheManager(1_000, 100);
+        Cache cache = cacheManager.getCache("books");
+
+        TenantContext.runWhere("tenant_a", () -> cache.put("key", "a"));
+        TenantContext.runWhere("tenant_b", () -> {
+            assertThat(cache.get("key")).isNull();
+            cache.put("key", "b");
+            cache.clear();
+        });
+
+        TenantContext.runWhere("tenant_a", () -> assertThat(cache.get("key", String.class)).isEqualTo("a"));
+    }
+
+    @Test
+    void tenantIsHeldToItsQuota() {
+        TenantCacheManager cacheManager = cacheManager(10_000, 100);
+        TenantContext.runWhere("tenant_a", () -> fill(cacheManager.getCache("books"), 500));
+
+        cacheManager.rebalance();
+
+        assertThat(entries("tenant_a")).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    void largeTenantIsTrimmedBeforeSmallOnes() {
+        TenantCacheManager cacheManager = cacheManager(1_000, 1_000);
+        Cache cache = cacheManager.getCache("books");
+        TenantContext.runWhere("small", () -> fill(cache, 100));
+        TenantContext.runWhere("large", () -> fill(cache, 5_000));
+
+        cacheManager.rebalance();
+        cacheManager.rebalance();
+
+        assertThat(entries("large")).isLessThanOrEqualTo(900);
+        assertThat(meterRegistry.get("bookly.cache.tenant.limit").tag("tenant", "small").gauge().value()).isEqualTo(900);
+        TenantContext.runWhere("small", () ->
+                IntStream.range(0, 100).forEach(i -> assertThat(cache.get(i)).as("small tenant entry %d", i).isNotNull()));
+        assertThat(meterRegistry.get("bookly.cache.tenant.gets").tags("tenant", "small", "result", "hit")
+                .functionCounter().count()).isEqualTo(100);
+    }
+
+    @Test
+    void fairShareLeavesSmallTenantsAlone() {
+        TenantCacheManager cacheManager = cacheManager(1_000, 5_000);
+
+        assertThat(cacheManager.fairShare(new long[]{8_000, 10, 20, 5_000})).isEqualTo(485);
+        assertThat(cacheManager.fairShare(new long[]{100, 200})).isEqualTo(1_000);
+        assertThat(cacheManager.fairShare(new long[2_000])).isEqualTo(1_000);
+    }
+
+    private TenantCacheManager cacheManager(long maxEntries, long maxEntriesPerTenant) {
+        return new TenantCacheManager(meterRegistry, event -> {}, maxEntries, maxEntriesPerTenant, Duration.ofMinutes(10));
+    }
+
+    private static void fill(Cache cache, int entries) {
+        IntStream.range(0, entries).forEach(i -> cache.put(i, "value-" + i));
+    }
+
+    private double entries(String tenant) {
+        return meterRegistry.get("bookly.cache.tenant.entries").tag("tenant", tenant).gauge().value();
+    }
+}
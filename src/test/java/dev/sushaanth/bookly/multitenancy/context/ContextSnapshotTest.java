@@ -0,0 +1,82 @@
+package dev.sushaanth.bookly.multitenancy.context;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContextSnapshotTest {
+    private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+    private record Seen(String tenant, Authentication authentication, String requestId) {
+        static Seen now() {
+            return new Seen(TenantContext.getTenantId(), SecurityContextHolder.getContext().getAuthentication(), MDC.get("requestId"));
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        executor.shutdown();
+        SecurityContextHolder.clearContext();
+        MDC.clear();
+    }
+
+    @Test
+    void decoratedTaskSeesTheSubmitterContextAndLeavesThePoolThreadClean() throws Exception {
+        executor.setCorePoolSize(1);
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+        executor.initialize();
+        Authentication alice = signIn("alice");
+        MDC.put("requestId", "r-1");
+
+        Seen seen = TenantContext.callWhere("tenant_a", () -> executor.submit(Seen::now).get());
+        SecurityContextHolder.clearContext();
+        MDC.clear();
+        Seen after = executor.submitCompletable(Seen::now).get();
+
+        assertThat(seen).isEqualTo(new Seen("tenant_a", alice, "r-1"));
+        assertThat(after).isEqualTo(new Seen(null, null, null));
+    }
+
+    @Test
+    void everyStageOfAChainRunsInTheTenantThatScheduledIt() {
+        executor.setCorePoolSize(2);
+        executor.initialize();
+        ContextPropagatingExecutor propagating = new ContextPropagatingExecutor(executor);
+
+        List<String> tenants = TenantContext.getWhere("tenant_b", () -> CompletableFuture
+                .supplyAsync(TenantContext::getTenantId, propagating)
+                .thenApplyAsync(first -> List.of(first, TenantContext.getTenantId()), propagating)
+                .join());
+
+        assertThat(tenants).containsExactly("tenant_b", "tenant_b");
+    }
+
+    @Test
+    void wrappedFunctionRunInlineRestoresTheCaller() {
+        Function<Integer, String> lookup = TenantContext.getWhere("tenant_c",
+                () -> ContextSnapshot.capture().wrap((Integer i) -> TenantContext.getTenantId() + "/" + i));
+
+        List<String> results = TenantContext.getWhere("tenant_d", () -> List.of(1, 2, 3).parallelStream().map(lookup).toList());
+
+        assertThat(results).containsExactly("tenant_c/1", "tenant_c/2", "tenant_c/3");
+        assertThat(TenantContext.getTenantId()).isNull();
+        assertThat(TenantContext.getWhere("tenant_d", () -> lookup.andThen(r -> TenantContext.getTenantId()).apply(0)))
+                .isEqualTo("tenant_d");
+    }
+
+    private static Authentication signIn(String username) {
+        Authentication authentication = new TestingAuthenticationToken(username, null, "ROLE_EMPLOYEE");
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        return authentication;
+    }
+}
@@ -0,0 +1,188 @@
+package dev.sushaanth.bookly.multitenancy.data.hibernate;
+
+import dev.sushaanth.bookly.multitenancy.context.TenantContext;
+import dev.sushaanth.bookly.multitenancy.schema.TenantMigrations;
+import dev.sushaanth.bookly.tenant.Tenant;
+import dev.sushaanth.bookly.tenant.TenantRepository;
+import dev.sushaanth.bookly.user.User;
+import dev.sushaanth.bookly.user.UserExportService;
+import dev.sushaanth.bookly.user.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayOutputStream;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that second-level cache entries never cross from one tenant to another.
+ * <p>
+ * Rows are changed behind Hibernate's back with plain JDBC, so a read that still returns
+ * the old value proves it was served from the cache.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(properties = {
+        "spring.mail.username=noreply@bookly.test",
+        "spring.mail.password=secret",
+        "application.base-url=http://localhost:8080"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SecondLevelCacheIsolationTest {
+    private static final String TENANT_A = "tenant_cache_a";
+    private static final String TENANT_B = "tenant_cache_b";
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15.0")
+            .withDatabaseName("multitenant-test")
+            .withUsername("postgres")
+            .withPassword("postgres");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TenantMigrations tenantMigrations;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TenantAwareRegionFactory regionFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TenantRepository tenantRepository;
+
+    @Autowired
+    private UserExportService userExportService;
+
+    private UUID userId;
+
+    @BeforeAll
+    void createSchemas() {
+        jdbcTemplate.execute("CREATE SCHEMA IF NOT EXISTS " + TENANT_A);
+        jdbcTemplate.execute("CREATE SCHEMA IF NOT EXISTS " + TENANT_B);
+        tenantMigrations.forSchema(TENANT_A).migrate();
+        tenantMigrations.forSchema(TENANT_B).migrate();
+    }
+
+    @BeforeEach
+    void insertUsers() {
+        entityManagerFactory.getCache().evictAll();
+        userId = UUID.randomUUID();
+        insertUser(TENANT_A, "alice");
+        insertUser(TENANT_B, "bob");
+    }
+
+    @Test
+    void sameIdInTwoTenantsIsCachedSeparately() {
+        assertThat(usernameIn(TENANT_A)).isEqualTo("alice");
+        assertThat(usernameIn(TENANT_B)).isEqualTo("bob");
+
+        renameUser(TENANT_A, "alice-renamed");
+        renameUser(TENANT_B, "bob-renamed");
+        double hitsBefore = regionHits("tenant-users");
+
+        assertThat(usernameIn(TENANT_A)).isEqualTo("alice");
+        assertThat(usernameIn(TENANT_B)).isEqualTo("bob");
+        assertThat(regionHits("tenant-users") - hitsBefore).isEqualTo(2);
+    }
+
+    @Test
+    void evictingATenantKeepsTheOthers() {
+        usernameIn(TENANT_A);
+        usernameIn(TENANT_B);
+        renameUser(TENANT_A, "alice-renamed");
+        renameUser(TENANT_B, "bob-renamed");
+
+        regionFactory.evictTenant(TENANT_A);
+
+        assertThat(usernameIn(TENANT_A)).isEqualTo("alice-renamed");
+        assertThat(usernameIn(TENANT_B)).isEqualTo("bob");
+    }
+
+    @Test
+    void sharedRowIsUpdatedForEveryTenant() {
+        UUID tenantId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO public.tenants (id, schema_name, display_name, description, created_at, active) " +
+                "VALUES (?, ?, ?, 'before', CURRENT_TIMESTAMP, TRUE)", tenantId, "tenant_" + tenantId, "Library " + tenantId);
+
+        assertThat(inTenant(TENANT_A, () -> descriptionOf(tenantId))).isEqualTo("before");
+
+        inTenant(TENANT_B, () -> transactionTemplate.execute(status -> {
+            Tenant tenant = tenantRepository.findById(tenantId).orElseThrow();
+            tenant.setDescription("after");
+            return tenantRepository.save(tenant);
+        }));
+
+        assertThat(inTenant(TENANT_A, () -> descriptionOf(tenantId))).isEqualTo("after");
+        assertThat(descriptionOf(tenantId)).isEqualTo("after");
+    }
+
+    @Test
+    void exportDoesNotFillTheUserRegion() {
+        for (int i = 0; i < 50; i++) {
+            jdbcTemplate.update("INSERT INTO " + TENANT_A + ".users (id, username, firstname, lastname) VALUES (?, ?, 'First', 'Last')",
+                    UUID.randomUUID(), "member-" + i);
+        }
+        usernameIn(TENANT_B);
+        double sizeBefore = regionSize("tenant-users");
+
+        assertThat(userExportService.exportUsers(TENANT_A, new ByteArrayOutputStream())).isGreaterThan(50);
+
+        assertThat(regionSize("tenant-users")).isEqualTo(sizeBefore);
+        assertThat(sizeBefore).isEqualTo(1);
+    }
+
+    private String usernameIn(String schema) {
+        return inTenant(schema, () -> userRepository.findById(userId).map(User::getUsername).orElseThrow());
+    }
+
+    private String descriptionOf(UUID tenantId) {
+        return tenantRepository.findById(tenantId).map(Tenant::getDescription).orElseThrow();
+    }
+
+    private <T> T inTenant(String schema, Supplier<T> action) {
+        return TenantContext.getWhere(schema, action);
+    }
+
+    private void insertUser(String schema, String username) {
+        jdbcTemplate.update("INSERT INTO " + schema + ".users (id, username, firstname, lastname) VALUES (?, ?, 'First', 'Last')",
+                userId, username);
+    }
+
+    private void renameUser(String schema, String username) {
+        jdbcTemplate.update("UPDATE " + schema + ".users SET username = ? WHERE id = ?", username, userId);
+    }
+
+    private double regionSize(String region) {
+        return meterRegistry.get("cache.size").tag("cache", region).gauge().value();
+    }
+
+    private double regionHits(String region) {
+        return meterRegistry.get("cache.gets").tag("cache", region).tag("result", "hit").functionCounter().count();
+    }
+}
@@ -0,0 +1,163 @@
+package dev.sushaanth.bookly.multitenancy.data.r2dbc;
+
+import dev.sushaanth.bookly.multitenancy.schema.TenantMigrations;
+import dev.sushaanth.bookly.pagination.CursorPage;
+import dev.sushaanth.bookly.security.jwt.JwtTokenUtil;
+import dev.sushaanth.bookly.security.model.Role;
+import dev.sushaanth.bookly.tenant.dto.TenantResponse;
+import dev.sushaanth.bookly.user.User;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the tenant isolation checks against the reactive endpoints, on a pool small enough
+ * that every connection is handed from one tenant to the other.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.mail.username=noreply@bookly.test",
+        "spring.mail.password=secret",
+        "application.base-url=http://localhost:8080",
+        "jwt.secret=cmVhY3RpdmUtaXNvbGF0aW9uLXNpZ25pbmcta2V5LTAxMjM0NTY3ODlhYg==",
+        "reactive.enabled=true",
+        "reactive.pool.max-size=2"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReactiveTenantIsolationTest {
+    private static final ParameterizedTypeReference<List<User>> USERS = new ParameterizedTypeReference<>() {
+    };
+    private static final ParameterizedTypeReference<CursorPage<TenantResponse>> TENANTS = new ParameterizedTypeReference<>() {
+    };
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15.0")
+            .withDatabaseName("multitenant-test")
+            .withUsername("postgres")
+            .withPassword("postgres");
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TenantMigrations tenantMigrations;
+
+    @Autowired
+    private JwtTokenUtil jwtTokenUtil;
+
+    private Library libraryA;
+    private Library libraryB;
+
+    private record Library(String schema, String token, List<String> members) {
+    }
+
+    @BeforeAll
+    void createLibraries() {
+        libraryA = createLibrary("tenant_reactive_a");
+        libraryB = createLibrary("tenant_reactive_b");
+    }
+
+    @Test
+    void concurrentRequestsOnlySeeTheirOwnTenant() throws Exception {
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            List<Future<List<String>>> results = new ArrayList<>();
+            List<Library> expected = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                Library library = i % 2 == 0 ? libraryA : libraryB;
+                expected.add(library);
+                results.add(executor.submit(() -> usernames(get("/reactive/users", library, USERS).getBody())));
+            }
+
+            for (int i = 0; i < results.size(); i++) {
+                assertThat(results.get(i).get()).containsExactlyInAnyOrderElementsOf(expected.get(i).members());
+            }
+        }
+    }
+
+    @Test
+    void usersMatchTheServletEndpoint() {
+        ResponseEntity<List<User>> reactive = get("/reactive/users", libraryA, USERS);
+        ResponseEntity<List<User>> servlet = get("/users", libraryA, USERS);
+
+        assertThat(reactive.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(usernames(reactive.getBody())).containsExactlyInAnyOrderElementsOf(usernames(servlet.getBody()));
+    }
+
+    @Test
+    void tenantPagesMatchTheServletEndpoint() {
+        CursorPage<TenantResponse> reactive = get("/reactive/api/tenants?size=1", libraryA, TENANTS).getBody();
+        CursorPage<TenantResponse> servlet = get("/api/tenants?size=1", libraryA, TENANTS).getBody();
+        assertThat(reactive).isEqualTo(servlet);
+        assertThat(reactive.nextCursor()).isNotNull();
+
+        String next = "?size=1&cursor=" + reactive.nextCursor();
+        assertThat(get("/reactive/api/tenants" + next, libraryA, TENANTS).getBody())
+                .isEqualTo(get("/api/tenants" + next, libraryA, TENANTS).getBody());
+    }
+
+    @Test
+    void requestWithoutTokenIsRejected() {
+        ResponseEntity<String> response = restTemplate.getForEntity("/reactive/users", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    private <T> ResponseEntity<T> get(String path, Library library, ParameterizedTypeReference<T> type) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(library.token());
+        return restTemplate.exchange(path, HttpMethod.GET, new HttpEntity<>(headers), type);
+    }
+
+    private static List<String> usernames(List<User> users) {
+        return users.stream().map(User::getUsername).toList();
+    }
+
+    private Library createLibrary(String schema) {
+        UUID tenantId = UUID.randomUUID();
+        UUID adminId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO public.tenants (id, schema_name, display_name) VALUES (?, ?, ?)",
+                tenantId, schema, "Library " + schema);
+        jdbcTemplate.update("""
+                INSERT INTO public.users (id, username, email, firstname, lastname, password, role, tenant_id)
+                VALUES (?, ?, ?, 'Ada', 'Lovelace', 'x', 'ROLE_LIBRARY_ADMIN', ?)
+                """, adminId, "admin-" + schema, schema + "@bookly.test", tenantId);
+
+        jdbcTemplate.execute("CREATE SCHEMA IF NOT EXISTS " + schema);
+        tenantMigrations.forSchema(schema).migrate();
+        List<String> members = List.of("first-of-" + schema, "second-of-" + schema);
+        for (String member : members) {
+            jdbcTemplate.update("INSERT INTO " + schema + ".users (id, username, firstname, lastname) VALUES (?, ?, 'First', 'Last')",
+                    UUID.randomUUID(), member);
+        }
+
+        String token = jwtTokenUtil.generateToken("admin-" + schema, adminId, tenantId, schema, Role.ROLE_LIBRARY_ADMIN);
+        return new Library(schema, token, members);
+    }
+}
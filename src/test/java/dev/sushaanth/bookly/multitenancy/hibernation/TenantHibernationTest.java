@@ -0,0 +1,202 @@
+package dev.sushaanth.bookly.multitenancy.hibernation;
+
+import dev.sushaanth.bookly.multitenancy.schema.TenantMigrations;
+import dev.sushaanth.bookly.security.jwt.JwtTokenUtil;
+import dev.sushaanth.bookly.security.model.Role;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Archives a populated tenant and checks that it is restored on the next request with
+ * every row, sequence, constraint and index it had, including on a node that had not
+ * heard of the hibernation.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.mail.username=noreply@bookly.test",
+        "spring.mail.password=secret",
+        "application.base-url=http://localhost:8080",
+        "jwt.secret=dGVuYW50LWhpYmVybmF0aW9uLXRlc3Qtc2lnbmluZy1rZXktMDEyMzQ1Njc4OQ==",
+        "multitenancy.hibernation.archive-dir=target/test-tenant-archives"
+})
+class TenantHibernationTest {
+    private static final String SCHEMA = "tenant_hibernation";
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15.0")
+            .withDatabaseName("multitenant-test")
+            .withUsername("postgres")
+            .withPassword("postgres");
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TenantMigrations tenantMigrations;
+
+    @Autowired
+    private JwtTokenUtil jwtTokenUtil;
+
+    @Autowired
+    private TenantHibernationService hibernationService;
+
+    @Test
+    void hibernatedTenantIsRestoredOnNextRequest() throws Exception {
+        String token = createPopulatedTenant();
+        Map<String, Object> before = snapshot();
+
+        assertThat(hibernationService.hibernate(SCHEMA, LocalDateTime.now())).isTrue();
+        assertThat(schemaExists(SCHEMA)).isFalse();
+        // Relative to the shared archive directory, not a path on this node
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT archive_location FROM public.tenants WHERE schema_name = ?", String.class, SCHEMA))
+                .isEqualTo(SCHEMA + ".bkar.gz");
+
+        ResponseEntity<String> warmingUp = getUsers(token);
+        assertThat(warmingUp.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(warmingUp.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isNotNull();
+
+        await(() -> getUsers(token).getStatusCode() == HttpStatus.OK);
+        assertThat(snapshot()).isEqualTo(before);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT hibernated_at IS NULL AND archive_location IS NULL FROM public.tenants WHERE schema_name = ?",
+                Boolean.class, SCHEMA)).isTrue();
+
+        // The restored sequence carries on from where it was, not from 1
+        Long next = jdbcTemplate.queryForObject(
+                "INSERT INTO " + SCHEMA + ".loans (user_id, due) SELECT id, CURRENT_DATE FROM " + SCHEMA
+                        + ".users LIMIT 1 RETURNING id", Long.class);
+        assertThat(next).isEqualTo(1001);
+    }
+
+    @Test
+    void hibernationByAnotherNodeIsFoundInTheDatabase() throws Exception {
+        String schema = "tenant_hibernated_elsewhere";
+        String token = createTenant(schema);
+        assertThat(hibernationService.hibernate(schema, LocalDateTime.now())).isTrue();
+        // As on a node that has not refreshed its hibernated tenants since
+        ((Set<?>) ReflectionTestUtils.getField(hibernationService, "hibernated")).remove(schema);
+
+        ResponseEntity<String> warmingUp = getUsers(token);
+        assertThat(warmingUp.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(warmingUp.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isNotNull();
+
+        await(() -> getUsers(token).getStatusCode() == HttpStatus.OK);
+        assertThat(schemaExists(schema)).isTrue();
+    }
+
+    private String createPopulatedTenant() {
+        String token = createTenant(SCHEMA);
+        // A table with a sequence, a foreign key and extra indexes on top of the tenant migrations
+        jdbcTemplate.execute("""
+                CREATE TABLE %1$s.loans (
+                    id BIGSERIAL PRIMARY KEY,
+                    user_id UUID NOT NULL REFERENCES %1$s.users(id),
+                    due DATE NOT NULL,
+                    returned BOOLEAN NOT NULL DEFAULT FALSE
+                );
+                CREATE INDEX idx_loans_user ON %1$s.loans(user_id);
+                CREATE INDEX idx_loans_open ON %1$s.loans(due) WHERE NOT returned;
+                """.formatted(SCHEMA));
+        jdbcTemplate.update("""
+                INSERT INTO %s.users (id, username, firstname, lastname)
+                SELECT gen_random_uuid(), 'member-' || i, 'First ' || i, 'Last ' || i FROM generate_series(1, 500) i
+                """.formatted(SCHEMA));
+        jdbcTemplate.update("""
+                INSERT INTO %1$s.loans (user_id, due, returned)
+                SELECT u.id, DATE '2026-01-01' + i, i %% 3 = 0
+                FROM generate_series(1, 1000) i
+                JOIN (SELECT id, row_number() OVER (ORDER BY username) AS n FROM %1$s.users) u ON u.n = 1 + i %% 500
+                """.formatted(SCHEMA));
+        return token;
+    }
+
+    private String createTenant(String schema) {
+        UUID tenantId = UUID.randomUUID();
+        UUID adminId = UUID.randomUUID();
+        jdbcTemplate.update("""
+                INSERT INTO public.tenants (id, schema_name, display_name, last_accessed_at)
+                VALUES (?, ?, ?, CURRENT_TIMESTAMP - INTERVAL '90 days')
+                """, tenantId, schema, "Library " + schema);
+        jdbcTemplate.update("""
+                INSERT INTO public.users (id, username, email, firstname, lastname, password, role, tenant_id)
+                VALUES (?, ?, ?, 'Ada', 'Lovelace', 'x', 'ROLE_LIBRARY_ADMIN', ?)
+                """, adminId, "admin-" + schema, schema + "@bookly.test", tenantId);
+
+        jdbcTemplate.execute("CREATE SCHEMA " + schema);
+        tenantMigrations.forSchema(schema).migrate();
+        return jwtTokenUtil.generateToken("admin-" + schema, adminId, tenantId, schema, Role.ROLE_LIBRARY_ADMIN);
+    }
+
+    private Map<String, Object> snapshot() {
+        return Map.of(
+                "users", checksum("SELECT md5(string_agg(u::text, ',' ORDER BY u.id)) FROM %s.users u"),
+                "loans", checksum("SELECT md5(string_agg(l::text, ',' ORDER BY l.id)) FROM %s.loans l"),
+                "sequences", query("SELECT sequencename || '=' || last_value FROM pg_sequences WHERE schemaname = ?"),
+                "indexes", query("SELECT indexdef FROM pg_indexes WHERE schemaname = ?"),
+                "constraints", query("""
+                        SELECT conname || ' ' || pg_get_constraintdef(c.oid) FROM pg_constraint c
+                        JOIN pg_namespace n ON n.oid = c.connamespace WHERE n.nspname = ?
+                        """));
+    }
+
+    private String checksum(String sql) {
+        return jdbcTemplate.queryForObject(sql.formatted(SCHEMA), String.class);
+    }
+
+    private List<String> query(String sql) {
+        return jdbcTemplate.queryForList(sql + " ORDER BY 1", String.class, SCHEMA);
+    }
+
+    private boolean schemaExists(String schema) {
+        return jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_namespace WHERE nspname = ?)", Boolean.class, schema);
+    }
+
+    private ResponseEntity<String> getUsers(String token) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        return restTemplate.exchange("/users", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Condition not met within 30 seconds");
+            }
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+}
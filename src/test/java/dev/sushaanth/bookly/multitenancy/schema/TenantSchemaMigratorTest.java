@@ -0,0 +1,76 @@
+package dev.sushaanth.bookly.multitenancy.schema;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that a tenant schema provisioned before a tenant migration existed is brought up
+ * to date, while a hibernated tenant, which has no schema, is left alone.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(properties = {
+        "spring.mail.username=noreply@bookly.test",
+        "spring.mail.password=secret",
+        "application.base-url=http://localhost:8080"
+})
+class TenantSchemaMigratorTest {
+    private static final String SCHEMA = "tenant_migrator_old";
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15.0")
+            .withDatabaseName("multitenant-test")
+            .withUsername("postgres")
+            .withPassword("postgres");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TenantMigrations tenantMigrations;
+
+    @Autowired
+    private TenantSchemaMigrator migrator;
+
+    @Test
+    void existingSchemaGetsLaterMigrations() {
+        // Provisioned when V1_0 was the latest tenant migration
+        jdbcTemplate.execute("CREATE SCHEMA " + SCHEMA);
+        Flyway.configure()
+                .configuration(tenantMigrations.forSchema(SCHEMA).getConfiguration())
+                .target("1.0")
+                .load()
+                .migrate();
+        insertTenant(SCHEMA, false);
+        insertTenant("tenant_migrator_hibernated", true);
+        assertThat(usernameIndexExists()).isFalse();
+
+        assertThat(migrator.migrateAll()).isEqualTo(1);
+
+        assertThat(usernameIndexExists()).isTrue();
+        assertThat(tenantMigrations.forSchema(SCHEMA).info().pending()).isEmpty();
+        assertThat(migrator.migrateAll()).isZero();
+    }
+
+    private void insertTenant(String schemaName, boolean hibernated) {
+        jdbcTemplate.update("INSERT INTO public.tenants (id, schema_name, display_name, hibernated_at) VALUES (?, ?, ?, "
+                + (hibernated ? "CURRENT_TIMESTAMP" : "NULL") + ")", UUID.randomUUID(), schemaName, "Library " + schemaName);
+    }
+
+    private boolean usernameIndexExists() {
+        return jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_indexes WHERE schemaname = ? AND indexname = 'idx_users_username')",
+                Boolean.class, SCHEMA);
+    }
+}
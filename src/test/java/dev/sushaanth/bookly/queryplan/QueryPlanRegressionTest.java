@@ -0,0 +1,387 @@
+package dev.sushaanth.bookly.queryplan;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.sushaanth.bookly.multitenancy.context.TenantContext;
+import dev.sushaanth.bookly.multitenancy.schema.TenantMigrations;
+import dev.sushaanth.bookly.queryplan.StatementRecorder.RecordedStatement;
+import dev.sushaanth.bookly.security.model.LibraryUser;
+import dev.sushaanth.bookly.security.model.Role;
+import dev.sushaanth.bookly.security.repository.EmailOutboxRepository;
+import dev.sushaanth.bookly.security.repository.EmployeeInvitationRepository;
+import dev.sushaanth.bookly.security.repository.LibraryUserRepository;
+import dev.sushaanth.bookly.security.repository.VerificationTokenRepository;
+import dev.sushaanth.bookly.tenant.TenantOffboardingJob.Status;
+import dev.sushaanth.bookly.tenant.TenantOffboardingJobRepository;
+import dev.sushaanth.bookly.tenant.TenantRepository;
+import dev.sushaanth.bookly.user.UserRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Runs every repository query method against tables seeded to production-like sizes and
+ * checks the plan of each statement it executes with {@code EXPLAIN (ANALYZE, BUFFERS)}.
+ * <p>
+ * A statement fails if it sequentially scans a relation of more than {@value #SEQ_SCAN_ROWS}
+ * rows or touches more shared buffers than its method's budget, which is how a missing or
+ * unusable index shows up. Every query method must have a case here, so a new repository
+ * method cannot ship without its plan being checked.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(properties = {
+        "spring.mail.username=noreply@bookly.test",
+        "spring.mail.password=secret",
+        "application.base-url=http://localhost:8080"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanRegressionTest {
+    private static final long SEQ_SCAN_ROWS = 1_000;
+    private static final int TENANTS = 20_000;
+    private static final int USERS = 100_000;
+    private static final int INVITATIONS = 100_000;
+    private static final int TOKENS = 100_000;
+    private static final int OUTBOX_EMAILS = 100_000;
+    private static final int OFFBOARDING_JOBS = 5_000;
+    private static final int TENANT_USERS = 50_000;
+    private static final String TENANT_SCHEMA = "tenant_query_plan";
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15.0")
+            .withDatabaseName("multitenant-test")
+            .withUsername("postgres")
+            .withPassword("postgres");
+
+    @TestConfiguration
+    static class RecordingConfiguration {
+        @Bean
+        static BeanPostProcessor recordingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? StatementRecorder.wrap(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TenantMigrations tenantMigrations;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TenantRepository tenantRepository;
+
+    @Autowired
+    private TenantOffboardingJobRepository offboardingJobRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LibraryUserRepository libraryUserRepository;
+
+    @Autowired
+    private EmployeeInvitationRepository invitationRepository;
+
+    @Autowired
+    private VerificationTokenRepository tokenRepository;
+
+    @Autowired
+    private EmailOutboxRepository outboxRepository;
+
+    private UUID tenantId;
+
+    @BeforeAll
+    void seed() {
+        // Ids are derived from the row number so related rows can point at each other
+        jdbcTemplate.update("""
+                INSERT INTO public.tenants (id, schema_name, display_name, created_at)
+                SELECT md5('tenant' || g)::uuid, 'tenant_seed_' || g, 'Library ' || g,
+                       CURRENT_TIMESTAMP - g * INTERVAL '1 minute'
+                FROM generate_series(1, ?) g
+                """, TENANTS);
+        jdbcTemplate.update("""
+                INSERT INTO public.users (id, username, email, firstname, lastname, password, role, tenant_id)
+                SELECT md5('user' || g)::uuid, 'user' || g, 'user' || g || '@bookly.test', 'Ada', 'Lovelace', 'x',
+                       CASE WHEN g <= ? THEN 'ROLE_LIBRARY_ADMIN' ELSE 'ROLE_EMPLOYEE' END,
+                       md5('tenant' || (g % ? + 1))::uuid
+                FROM generate_series(1, ?) g
+                """, TENANTS, TENANTS, USERS);
+
+        // Partitions covering the seeded expiry range, as the maintenance task would have made them
+        jdbcTemplate.queryForObject("SELECT public.ensure_range_partitions('verification_tokens', 'day', "
+                + "LOCALTIMESTAMP - INTERVAL '2 days', LOCALTIMESTAMP + INTERVAL '31 days')", Integer.class);
+        jdbcTemplate.queryForObject("SELECT public.ensure_range_partitions('employee_invitations', 'week', "
+                + "LOCALTIMESTAMP - INTERVAL '15 days', LOCALTIMESTAMP + INTERVAL '43 days')", Integer.class);
+        jdbcTemplate.queryForObject("SELECT public.ensure_range_partitions('refresh_tokens', 'week', "
+                + "LOCALTIMESTAMP - INTERVAL '1 day', LOCALTIMESTAMP + INTERVAL '31 days')", Integer.class);
+
+        jdbcTemplate.update("""
+                INSERT INTO public.employee_invitations (id, email, tenant_id, invited_by, created_at, expires_at, is_used)
+                SELECT md5('invitation' || g)::uuid, 'invitee' || g || '@bookly.test',
+                       md5('tenant' || (g % ? + 1))::uuid, md5('user' || (g % ? + 1))::uuid,
+                       LOCALTIMESTAMP - (g % 42) * INTERVAL '1 day' - g * INTERVAL '1 second',
+                       LOCALTIMESTAMP - (g % 42) * INTERVAL '1 day' + INTERVAL '7 days',
+                       g % 3 = 0
+                FROM generate_series(1, ?) g
+                """, TENANTS, TENANTS, INVITATIONS);
+        jdbcTemplate.update("""
+                INSERT INTO public.verification_tokens (id, email, token, verified, expiry_date, created_at)
+                SELECT gen_random_uuid(), 'registrant' || g || '@bookly.test', lpad((g % 1000000)::text, 6, '0'),
+                       g % 2 = 0, LOCALTIMESTAMP + (g % 720) * INTERVAL '1 hour', LOCALTIMESTAMP
+                FROM generate_series(1, ?) g
+                """, TOKENS);
+        jdbcTemplate.update("""
+                INSERT INTO public.refresh_tokens (id, token, user_id, expiry_date)
+                SELECT gen_random_uuid(), md5('refresh' || g), md5('user' || g)::uuid,
+                       LOCALTIMESTAMP + (g % 30) * INTERVAL '1 day'
+                FROM generate_series(1, ?) g
+                """, USERS);
+        jdbcTemplate.update("""
+                INSERT INTO public.email_outbox (id, recipient, subject, body, status, sent_at, created_at)
+                SELECT gen_random_uuid(), 'user' || g || '@bookly.test', 'Subject', 'Body',
+                       CASE WHEN g % 10 = 0 THEN 'PENDING' ELSE 'SENT' END,
+                       CASE WHEN g % 10 = 0 THEN NULL ELSE LOCALTIMESTAMP - (g % 14) * INTERVAL '1 day' END,
+                       LOCALTIMESTAMP - (g % 14) * INTERVAL '1 day'
+                FROM generate_series(1, ?) g
+                """, OUTBOX_EMAILS);
+        jdbcTemplate.update("""
+                INSERT INTO public.tenant_offboarding_jobs (id, tenant_id, display_name, phase, status)
+                SELECT gen_random_uuid(), gen_random_uuid(), 'Closed library ' || g,
+                       CASE WHEN g % 100 = 0 THEN 'DROP_TABLES' ELSE 'DONE' END,
+                       CASE WHEN g % 100 = 0 THEN 'FAILED' ELSE 'COMPLETED' END
+                FROM generate_series(1, ?) g
+                """, OFFBOARDING_JOBS);
+
+        tenantMigrations.forSchema(TENANT_SCHEMA).migrate();
+        jdbcTemplate.update("INSERT INTO " + TENANT_SCHEMA + ".users (id, username, firstname, lastname) "
+                + "SELECT gen_random_uuid(), 'member' || g, 'Grace', 'Hopper' FROM generate_series(1, ?) g", TENANT_USERS);
+
+        jdbcTemplate.execute("ANALYZE");
+
+        tenantId = jdbcTemplate.queryForObject("SELECT md5('tenant777')::uuid", UUID.class);
+    }
+
+    /**
+     * The repository methods to check, each with a buffer budget per statement. Budgets are
+     * a few times what the indexed plan needs, so only a change of plan breaks them.
+     */
+    private Map<String, QueryCase> cases() {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, QueryCase> cases = new LinkedHashMap<>();
+
+        add(cases, "TenantRepository.findBySchemaName", 20, () -> tenantRepository.findBySchemaName("tenant_seed_777"));
+        add(cases, "TenantRepository.findByDisplayName", 20, () -> tenantRepository.findByDisplayName("Library 777"));
+        add(cases, "TenantRepository.existsBySchemaName", 20, () -> tenantRepository.existsBySchemaName("tenant_seed_777"));
+        add(cases, "TenantRepository.insertIfNameAvailable", 40, () -> tenantRepository.insertIfNameAvailable(
+                UUID.randomUUID(), "tenant_new", "Library 777", null));
+        add(cases, "TenantRepository.findExistingDisplayNames", 60, () -> tenantRepository.findExistingDisplayNames(
+                List.of("Library 1", "Library 500", "Library 19999", "Unknown library")));
+        add(cases, "TenantRepository.findFirstPage", 40, () -> tenantRepository.findFirstPage(Limit.of(50)));
+        add(cases, "TenantRepository.findPageAfter", 40, () -> tenantRepository.findPageAfter(
+                now.minusDays(7), tenantId, Limit.of(50)));
+
+        add(cases, "TenantOffboardingJobRepository.findFirstByTenantIdAndStatusIn", 20, () ->
+                offboardingJobRepository.findFirstByTenantIdAndStatusIn(tenantId, EnumSet.of(Status.PENDING, Status.RUNNING)));
+        // Reads the row of every unfinished job, a few dozen at most
+        add(cases, "TenantOffboardingJobRepository.findResumableJobIds", 120, () ->
+                offboardingJobRepository.findResumableJobIds(EnumSet.of(Status.PENDING, Status.RUNNING, Status.FAILED), now));
+        add(cases, "TenantOffboardingJobRepository.claim", 20, () ->
+                offboardingJobRepository.claim(UUID.randomUUID(), now, now.plusMinutes(5)));
+
+        add(cases, "UserRepository.findByUsername", 20, TENANT_SCHEMA, () -> userRepository.findByUsername("member777"));
+
+        add(cases, "LibraryUserRepository.findByUsername", 20, () -> libraryUserRepository.findByUsername("user777"));
+        add(cases, "LibraryUserRepository.findByEmail", 20, () -> libraryUserRepository.findByEmail("user777@bookly.test"));
+        add(cases, "LibraryUserRepository.existsByUsernameAndTenantId", 20, () ->
+                libraryUserRepository.existsByUsernameAndTenantId("user777", tenantId));
+        add(cases, "LibraryUserRepository.findConflicts", 40, () ->
+                libraryUserRepository.findConflicts("user777@bookly.test", "user778", "Library 779"));
+        add(cases, "LibraryUserRepository.insertIfAbsent", 60, () -> {
+            LibraryUser user = new LibraryUser();
+            user.setId(UUID.randomUUID());
+            user.setUsername("user777");
+            user.setEmail("new@bookly.test");
+            user.setFirstName("Ada");
+            user.setLastName("Lovelace");
+            user.setPassword("x");
+            user.setRole(Role.ROLE_EMPLOYEE);
+            user.setTenantId(tenantId);
+            libraryUserRepository.insertIfAbsent(user);
+        });
+
+        // No partition key in these lookups, so every partition's index is probed once
+        add(cases, "VerificationTokenRepository.findByEmail", 150, () ->
+                tokenRepository.findByEmail("registrant777@bookly.test"));
+        add(cases, "VerificationTokenRepository.findByEmailAndToken", 150, () ->
+                tokenRepository.findByEmailAndToken("registrant777@bookly.test", "000777"));
+        add(cases, "VerificationTokenRepository.markVerified", 150, () ->
+                tokenRepository.markVerified("registrant777@bookly.test", "000777"));
+
+        add(cases, "EmployeeInvitationRepository.findByEmailAndUsedFalseAndExpiresAtAfter", 60, () ->
+                invitationRepository.findByEmailAndUsedFalseAndExpiresAtAfter("invitee778@bookly.test", now));
+        add(cases, "EmployeeInvitationRepository.findByTenantIdAndUsedFalse", 60, () ->
+                invitationRepository.findByTenantIdAndUsedFalse(tenantId));
+        add(cases, "EmployeeInvitationRepository.findPendingWithInviterName", 80, () ->
+                invitationRepository.findPendingWithInviterName(tenantId, Limit.of(50)));
+        add(cases, "EmployeeInvitationRepository.findPendingWithInviterNameAfter", 80, () ->
+                invitationRepository.findPendingWithInviterNameAfter(tenantId, now.minusDays(20), UUID.randomUUID(), Limit.of(50)));
+
+        add(cases, "EmailOutboxRepository.deleteSentChunk", 1_500, () ->
+                outboxRepository.deleteSentChunk(now.minusDays(7), 100));
+        return cases;
+    }
+
+    @Test
+    void everyQueryMethodHasACase() {
+        Set<String> cases = cases().keySet();
+        Set<String> missing = new TreeSet<>();
+        Repositories repositories = new Repositories(applicationContext);
+        for (Class<?> domainType : repositories) {
+            RepositoryInformation information = repositories.getRequiredRepositoryInformation(domainType);
+            for (Method method : information.getQueryMethods()) {
+                String name = information.getRepositoryInterface().getSimpleName() + "." + method.getName();
+                if (!cases.contains(name)) {
+                    missing.add(name);
+                }
+            }
+        }
+        assertThat(missing).as("Repository methods without a query plan case").isEmpty();
+    }
+
+    @TestFactory
+    Stream<DynamicTest> queryPlans() {
+        return cases().entrySet().stream().map(entry -> DynamicTest.dynamicTest(entry.getKey(), () -> {
+            QueryCase queryCase = entry.getValue();
+            List<RecordedStatement> statements = StatementRecorder.record(() -> runRolledBack(queryCase));
+            assertThat(statements).as("statements run by %s", entry.getKey()).isNotEmpty();
+            for (RecordedStatement statement : statements) {
+                checkPlan(entry.getKey(), queryCase, explain(statement));
+            }
+        }));
+    }
+
+    private void runRolledBack(QueryCase queryCase) {
+        TenantContext.runWhere(queryCase.tenant(), () -> transactionTemplate.executeWithoutResult(status -> {
+            queryCase.call().run();
+            status.setRollbackOnly();
+        }));
+    }
+
+    private JsonNode explain(RecordedStatement statement) throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                connection.setSchema(statement.schema());
+                try (PreparedStatement explain = connection.prepareStatement(
+                        "EXPLAIN (ANALYZE, BUFFERS, VERBOSE, FORMAT JSON) " + statement.sql())) {
+                    statement.bind(explain);
+                    try (ResultSet rs = explain.executeQuery()) {
+                        rs.next();
+                        return objectMapper.readTree(rs.getString(1)).get(0).get("Plan");
+                    }
+                }
+            } finally {
+                // ANALYZE really runs the statement, so never keep what it changed
+                connection.rollback();
+                connection.setSchema("public");
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    private void checkPlan(String method, QueryCase queryCase, JsonNode plan) {
+        long buffers = plan.path("Shared Hit Blocks").asLong() + plan.path("Shared Read Blocks").asLong();
+        List<String> seqScans = new ArrayList<>();
+        collectLargeSeqScans(plan, seqScans);
+
+        if (!seqScans.isEmpty() || buffers > queryCase.maxBuffers()) {
+            fail("%s touched %d buffers (budget %d) and sequentially scanned %s%n%s",
+                    method, buffers, queryCase.maxBuffers(), seqScans, plan.toPrettyString());
+        }
+    }
+
+    private void collectLargeSeqScans(JsonNode node, List<String> seqScans) {
+        if ("Seq Scan".equals(node.path("Node Type").asText())) {
+            String schema = node.path("Schema").asText();
+            String relation = node.path("Relation Name").asText();
+            Long rows = jdbcTemplate.queryForObject("""
+                    SELECT c.reltuples::bigint FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace
+                    WHERE n.nspname = ? AND c.relname = ?
+                    """, Long.class, schema, relation);
+            if (rows != null && rows > SEQ_SCAN_ROWS) {
+                seqScans.add(schema + "." + relation + " (" + rows + " rows)");
+            }
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collectLargeSeqScans(child, seqScans);
+        }
+    }
+
+    private static void add(Map<String, QueryCase> cases, String method, long maxBuffers, Runnable call) {
+        add(cases, method, maxBuffers, null, call);
+    }
+
+    private static void add(Map<String, QueryCase> cases, String method, long maxBuffers, String tenant, Runnable call) {
+        cases.put(method, new QueryCase(maxBuffers, tenant, call));
+    }
+
+    /**
+     * @param maxBuffers Shared buffers each statement may touch
+     * @param tenant     Tenant schema to run in, or {@code null} for the public schema
+     */
+    private record QueryCase(long maxBuffers, String tenant, Runnable call) {
+    }
+}
@@ -0,0 +1,107 @@
+package dev.sushaanth.bookly.queryplan;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Wraps a {@link DataSource} so the prepared statements a block of code executes can be
+ * captured with their parameters and replayed later, for example under {@code EXPLAIN}.
+ * <p>
+ * Only statements executed on the recording thread are captured; everything else passes
+ * straight through to the real connection.
+ */
+final class StatementRecorder {
+    private static final ThreadLocal<List<RecordedStatement>> RECORDING = new ThreadLocal<>();
+    private static final Set<String> EXECUTE_METHODS = Set.of("execute", "executeQuery", "executeUpdate", "executeLargeUpdate");
+
+    /**
+     * A statement as it was executed: the schema it ran in, its SQL and its parameter setters.
+     */
+    record RecordedStatement(String schema, String sql, List<Binding> bindings) {
+
+        void bind(PreparedStatement statement) throws Exception {
+            for (Binding binding : bindings) {
+                binding.setter().invoke(statement, binding.args());
+            }
+        }
+    }
+
+    record Binding(Method setter, Object[] args) {
+    }
+
+    private StatementRecorder() {
+    }
+
+    static DataSource wrap(DataSource dataSource) {
+        return proxy(dataSource, (proxy, method, args) -> {
+            Object result = invoke(dataSource, method, args);
+            return result instanceof Connection connection ? wrap(connection) : result;
+        }, DataSource.class, Closeable.class);
+    }
+
+    /**
+     * Run the action and return the statements it executed on this thread, in order.
+     */
+    static List<RecordedStatement> record(Runnable action) {
+        List<RecordedStatement> statements = new ArrayList<>();
+        RECORDING.set(statements);
+        try {
+            action.run();
+        } finally {
+            RECORDING.remove();
+        }
+        return statements;
+    }
+
+    private static Connection wrap(Connection connection) {
+        return proxy(connection, (proxy, method, args) -> {
+            Object result = invoke(connection, method, args);
+            if (result instanceof PreparedStatement statement && method.getName().equals("prepareStatement")) {
+                return wrap(statement, connection, (String) args[0]);
+            }
+            return result;
+        }, Connection.class);
+    }
+
+    private static PreparedStatement wrap(PreparedStatement statement, Connection connection, String sql) {
+        Map<Integer, Binding> bindings = new TreeMap<>();
+        return proxy(statement, (proxy, method, args) -> {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                bindings.put(index, new Binding(method, args));
+            } else if (name.equals("clearParameters")) {
+                bindings.clear();
+            } else if (EXECUTE_METHODS.contains(name) && (args == null || args.length == 0)) {
+                List<RecordedStatement> recording = RECORDING.get();
+                if (recording != null) {
+                    recording.add(new RecordedStatement(connection.getSchema(), sql, List.copyOf(bindings.values())));
+                }
+            }
+            return invoke(statement, method, args);
+        }, PreparedStatement.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Object target, InvocationHandler handler, Class<?>... interfaces) {
+        return (T) Proxy.newProxyInstance(StatementRecorder.class.getClassLoader(), interfaces, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package dev.sushaanth.bookly.scheduling;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.mail.username=noreply@bookly.test",
+        "spring.mail.password=secret",
+        "application.base-url=http://localhost:8080"
+})
+@Testcontainers(disabledWithoutDocker = true)
+class ScheduledJobCoordinatorTest {
+    private static final Duration WINDOW = Duration.ofMinutes(30);
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15.0")
+            .withDatabaseName("multitenant-test")
+            .withUsername("postgres")
+            .withPassword("postgres");
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void clearJobs() {
+        jdbcTemplate.update("DELETE FROM public.scheduled_jobs");
+    }
+
+    @Test
+    void concurrentNodesRunAJobOnce() throws Exception {
+        List<ScheduledJobCoordinator> nodes = List.of(node("node-a"), node("node-b"), node("node-c"));
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(nodes.size());
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (ScheduledJobCoordinator node : nodes) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return node.runExclusive("test-job", WINDOW, () -> {
+                        runs.incrementAndGet();
+                        // Long enough for the other nodes to find the lock taken
+                        Thread.sleep(200);
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<Boolean> result : results) {
+                result.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(runs).hasValue(1);
+        assertThat(job("test-job")).containsEntry("last_status", "SUCCEEDED");
+    }
+
+    @Test
+    void jobIsSkippedWithinItsWindow() {
+        AtomicInteger runs = new AtomicInteger();
+
+        assertThat(node("node-a").runExclusive("windowed-job", WINDOW, runs::incrementAndGet)).isTrue();
+        assertThat(node("node-b").runExclusive("windowed-job", WINDOW, runs::incrementAndGet)).isFalse();
+        assertThat(node("node-a").runExclusive("windowed-job", Duration.ZERO, runs::incrementAndGet)).isTrue();
+
+        assertThat(runs).hasValue(2);
+    }
+
+    @Test
+    void partitionsAreSharedBetweenNodes() throws Exception {
+        List<Integer> ranA = Collections.synchronizedList(new ArrayList<>());
+        List<Integer> ranB = Collections.synchronizedList(new ArrayList<>());
+        ScheduledJobCoordinator nodeA = node("node-a");
+        ScheduledJobCoordinator nodeB = node("node-b");
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> a = executor.submit(() -> nodeA.runPartitioned("split-job", 8, WINDOW, part -> {
+                ranA.add(part);
+                Thread.sleep(100);
+            }));
+            Future<Integer> b = executor.submit(() -> nodeB.runPartitioned("split-job", 8, WINDOW, part -> {
+                ranB.add(part);
+                Thread.sleep(100);
+            }));
+            assertThat(a.get(10, TimeUnit.SECONDS) + b.get(10, TimeUnit.SECONDS)).isEqualTo(8);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<Integer> all = new ArrayList<>(ranA);
+        all.addAll(ranB);
+        assertThat(all).containsExactlyInAnyOrder(0, 1, 2, 3, 4, 5, 6, 7);
+    }
+
+    @Test
+    void failureIsRecordedAndReleasesTheJob() {
+        boolean ran = node("node-a").runExclusive("failing-job", WINDOW, () -> {
+            throw new IllegalStateException("boom");
+        });
+
+        assertThat(ran).isTrue();
+        Map<String, Object> job = job("failing-job");
+        assertThat(job).containsEntry("last_status", "FAILED").containsEntry("lease_expires_at", null);
+        assertThat((String) job.get("last_error")).contains("boom");
+    }
+
+    private ScheduledJobCoordinator node(String nodeId) {
+        return new ScheduledJobCoordinator(dataSource, meterRegistry, nodeId, Duration.ofMinutes(15));
+    }
+
+    private Map<String, Object> job(String jobName) {
+        return jdbcTemplate.queryForMap("SELECT * FROM public.scheduled_jobs WHERE job_name = ?", jobName);
+    }
+}
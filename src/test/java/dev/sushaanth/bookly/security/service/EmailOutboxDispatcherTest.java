@@ -0,0 +1,161 @@
+package dev.sushaanth.bookly.security.service;
+
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.mail.host=localhost",
+        "spring.mail.port=3025",
+        "spring.mail.username=noreply@bookly.test",
+        "spring.mail.password=secret",
+        "spring.mail.properties.mail.smtp.starttls.enable=false",
+        "application.base-url=http://localhost:8080",
+        "email.outbox.poll-ms=3600000"
+})
+@Testcontainers(disabledWithoutDocker = true)
+class EmailOutboxDispatcherTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15.0")
+            .withDatabaseName("multitenant-test")
+            .withUsername("postgres")
+            .withPassword("postgres");
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP)
+            .withConfiguration(GreenMailConfiguration.aConfig().withUser("noreply@bookly.test", "secret"));
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private EmailOutboxDispatcher dispatcher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void clearOutbox() {
+        jdbcTemplate.update("DELETE FROM public.email_outbox");
+    }
+
+    @Test
+    void queuedEmailIsDeliveredAfterCommit() throws Exception {
+        transactionTemplate.executeWithoutResult(status -> emailService.sendOtp("reader@bookly.test", "123456"));
+
+        assertThat(greenMail.waitForIncomingEmail(10_000, 1)).isTrue();
+        MimeMessage received = greenMail.getReceivedMessages()[0];
+        assertThat(received.getSubject()).isEqualTo("Bookly - Email Verification");
+        assertThat(received.getAllRecipients()[0].toString()).isEqualTo("reader@bookly.test");
+
+        await(() -> "SENT".equals(outboxRow("reader@bookly.test").get("status")));
+    }
+
+    @Test
+    void emailFromRolledBackTransactionIsNeverSent() {
+        transactionTemplate.executeWithoutResult(status -> {
+            emailService.sendOtp("reader@bookly.test", "123456");
+            status.setRollbackOnly();
+        });
+
+        assertThat(dispatcher.dispatchBatch()).isZero();
+        assertThat(greenMail.getReceivedMessages()).isEmpty();
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM public.email_outbox", Long.class)).isZero();
+    }
+
+    @Test
+    void failedEmailIsRetriedWithBackoff() {
+        greenMail.stop();
+        transactionTemplate.executeWithoutResult(status -> emailService.sendOtp("reader@bookly.test", "123456"));
+
+        await(() -> outboxRow("reader@bookly.test").get("last_error") != null);
+        Map<String, Object> failed = outboxRow("reader@bookly.test");
+        assertThat(failed.get("status")).isEqualTo("PENDING");
+        assertThat(failed.get("attempts")).isEqualTo(1);
+        assertThat(dispatcher.dispatchBatch()).as("not due until the backoff has passed").isZero();
+
+        greenMail.start();
+        jdbcTemplate.update("UPDATE public.email_outbox SET next_attempt_at = CURRENT_TIMESTAMP");
+        assertThat(dispatcher.dispatchBatch()).isEqualTo(1);
+
+        assertThat(greenMail.getReceivedMessages()).hasSize(1);
+        Map<String, Object> sent = outboxRow("reader@bookly.test");
+        assertThat(sent.get("status")).isEqualTo("SENT");
+        assertThat(sent.get("attempts")).isEqualTo(2);
+    }
+
+    @Test
+    void consecutiveBatchesReuseOneSmtpSession() {
+        double connectionsBefore = meterRegistry.counter("bookly.email.smtp.connections").count();
+
+        transactionTemplate.executeWithoutResult(status -> emailService.sendOtp("first@bookly.test", "111111"));
+        await(() -> "SENT".equals(outboxRow("first@bookly.test").get("status")));
+        transactionTemplate.executeWithoutResult(status -> emailService.sendOtp("second@bookly.test", "222222"));
+        await(() -> "SENT".equals(outboxRow("second@bookly.test").get("status")));
+
+        assertThat(greenMail.getReceivedMessages()).hasSize(2);
+        assertThat(meterRegistry.counter("bookly.email.smtp.connections").count() - connectionsBefore).isEqualTo(1);
+    }
+
+    @Test
+    void batchIsSplitAcrossSmtpSessions() throws Exception {
+        double connectionsBefore = meterRegistry.counter("bookly.email.smtp.connections").count();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < 8; i++) {
+                emailService.sendOtp("reader" + i + "@bookly.test", "12345" + i);
+            }
+        });
+
+        assertThat(greenMail.waitForIncomingEmail(10_000, 8)).isTrue();
+        await(() -> jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM public.email_outbox WHERE status = 'SENT'", Long.class) == 8);
+        // email.smtp.pool.max-sessions defaults to 4
+        assertThat(meterRegistry.counter("bookly.email.smtp.connections").count() - connectionsBefore).isEqualTo(4);
+    }
+
+    private Map<String, Object> outboxRow(String recipient) {
+        return jdbcTemplate.queryForMap("SELECT * FROM public.email_outbox WHERE recipient = ?", recipient);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Condition not met within 10 seconds");
+            }
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+}
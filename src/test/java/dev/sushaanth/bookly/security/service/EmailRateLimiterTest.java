@@ -0,0 +1,57 @@
+package dev.sushaanth.bookly.security.service;
+
+import dev.sushaanth.bookly.exception.BooklyException;
+import dev.sushaanth.bookly.security.service.EmailRateLimiter.Outcome;
+import dev.sushaanth.bookly.security.service.EmailRateLimiter.Purpose;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EmailRateLimiterTest {
+    private EmailRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new EmailRateLimiter();
+        ReflectionTestUtils.setField(limiter, "cooldown", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(limiter, "window", Duration.ofHours(1));
+        ReflectionTestUtils.setField(limiter, "maxPerRecipient", 3);
+        ReflectionTestUtils.setField(limiter, "maxPerTenant", 200);
+    }
+
+    @Test
+    void invitationDoesNotHoldBackAVerificationCode() {
+        UUID tenantId = UUID.randomUUID();
+        assertThat(limiter.acquire("reader@bookly.test", Purpose.INVITATION, tenantId).outcome())
+                .isEqualTo(Outcome.SEND);
+
+        assertThat(limiter.acquire("Reader@bookly.test", Purpose.OTP, null).outcome()).isEqualTo(Outcome.SEND);
+        LocalDateTime expiry = LocalDateTime.now().plusMinutes(10);
+        limiter.recordExpiry("reader@bookly.test", Purpose.OTP, expiry);
+
+        EmailRateLimiter.Decision again = limiter.acquire("reader@bookly.test", Purpose.OTP, null);
+        assertThat(again.outcome()).isEqualTo(Outcome.COALESCE);
+        assertThat(again.pendingExpiry()).isEqualTo(expiry);
+        assertThat(limiter.acquire("reader@bookly.test", Purpose.INVITATION, tenantId).outcome())
+                .isEqualTo(Outcome.COALESCE);
+    }
+
+    @Test
+    void recipientQuotaIsSharedAcrossPurposes() {
+        ReflectionTestUtils.setField(limiter, "cooldown", Duration.ZERO);
+        limiter.acquire("reader@bookly.test", Purpose.INVITATION, UUID.randomUUID());
+        limiter.acquire("reader@bookly.test", Purpose.OTP, null);
+        limiter.acquire("reader@bookly.test", Purpose.OTP, null);
+
+        assertThatThrownBy(() -> limiter.acquire("reader@bookly.test", Purpose.INVITATION, UUID.randomUUID()))
+                .isInstanceOfSatisfying(BooklyException.class, e ->
+                        assertThat(e.getErrorCode()).isEqualTo(BooklyException.ErrorCode.EMAIL_RATE_LIMITED));
+    }
+}
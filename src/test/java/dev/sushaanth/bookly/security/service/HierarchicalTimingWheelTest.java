@@ -0,0 +1,66 @@
+package dev.sushaanth.bookly.security.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HierarchicalTimingWheelTest {
+    private static final long TICK = 1_000;
+
+    @Test
+    void expiresItemsOnTheirTickAcrossLevels() {
+        // Four slots per level, so these deadlines spread over several levels
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(TICK, 4, 0);
+        Random random = new Random(42);
+        Map<Long, List<Long>> expected = new HashMap<>();
+        for (int i = 0; i < 2_000; i++) {
+            long tick = 1 + random.nextInt(500);
+            wheel.schedule(tick, tick * TICK);
+            expected.computeIfAbsent(tick, t -> new ArrayList<>()).add(tick);
+        }
+        assertThat(wheel.size()).isEqualTo(2_000);
+
+        for (long now = 1; now <= 500; now++) {
+            List<Long> expired = new ArrayList<>();
+            wheel.advance(now * TICK, expired::add);
+            assertThat(expired).as("expired at tick %d", now)
+                    .containsExactlyInAnyOrderElementsOf(expected.getOrDefault(now, List.of()));
+        }
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void expiresEverythingDueWhenTheClockJumps() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, 8, 0);
+        wheel.schedule("soon", 3 * TICK);
+        wheel.schedule("later", 700 * TICK);
+        wheel.schedule("much later", 5_000 * TICK);
+
+        List<String> expired = new ArrayList<>();
+        wheel.advance(1_000 * TICK, expired::add);
+
+        assertThat(expired).containsExactly("soon", "later");
+        assertThat(wheel.size()).isEqualTo(1);
+    }
+
+    @Test
+    void pastDeadlineExpiresOnNextTick() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, 8, 0);
+        wheel.advance(10 * TICK, item -> {
+        });
+        wheel.schedule("overdue", 2 * TICK);
+
+        List<String> expired = new ArrayList<>();
+        wheel.advance(10 * TICK + TICK / 2, expired::add);
+        assertThat(expired).isEmpty();
+
+        wheel.advance(11 * TICK, expired::add);
+        assertThat(expired).containsExactly("overdue");
+    }
+}
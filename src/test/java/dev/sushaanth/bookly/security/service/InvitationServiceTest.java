@@ -0,0 +1,108 @@
+package dev.sushaanth.bookly.security.service;
+
+import dev.sushaanth.bookly.exception.BooklyException;
+import dev.sushaanth.bookly.security.dto.BulkInvitationResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks that a bulk import larger than a library's hourly email quota invites rows up to
+ * the quota and rejects the rest, and that a rolled back import gives the quota back.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(properties = {
+        "spring.mail.host=localhost",
+        "spring.mail.port=3025",
+        "spring.mail.username=noreply@bookly.test",
+        "spring.mail.password=secret",
+        "application.base-url=http://localhost:8080",
+        "email.outbox.poll-ms=3600000",
+        "email.rate-limit.max-per-tenant=200"
+})
+class InvitationServiceTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15.0")
+            .withDatabaseName("multitenant-test")
+            .withUsername("postgres")
+            .withPassword("postgres");
+
+    @Autowired
+    private InvitationService invitationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void importLargerThanTheTenantQuotaInvitesRowsUpToIt() {
+        UUID tenantId = UUID.randomUUID();
+        UUID adminId = createAdmin(tenantId, "tenant_bulk_import");
+
+        List<BulkInvitationResult> results = invitationService.createEmployeeInvitations(emails("over", 250), adminId);
+
+        assertThat(results.subList(0, 200))
+                .allSatisfy(result -> assertThat(result.status()).isEqualTo(BulkInvitationResult.Status.INVITED));
+        assertThat(results.subList(200, 250))
+                .allSatisfy(result -> assertThat(result.status()).isEqualTo(BulkInvitationResult.Status.REJECTED));
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM public.employee_invitations WHERE tenant_id = ?", Long.class, tenantId))
+                .isEqualTo(200);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM public.email_outbox WHERE recipient LIKE '%@over.bookly.test'", Long.class))
+                .isEqualTo(200);
+
+        // The quota is used up for single invitations too
+        assertThatThrownBy(() -> invitationService.createEmployeeInvitation("late@bookly.test", adminId))
+                .isInstanceOfSatisfying(BooklyException.class, e ->
+                        assertThat(e.getErrorCode()).isEqualTo(BooklyException.ErrorCode.EMAIL_RATE_LIMITED));
+    }
+
+    @Test
+    void rolledBackImportGivesTheQuotaBack() {
+        UUID tenantId = UUID.randomUUID();
+        UUID adminId = createAdmin(tenantId, "tenant_bulk_rollback");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            invitationService.createEmployeeInvitations(emails("rolledback", 200), adminId);
+            status.setRollbackOnly();
+        });
+
+        assertThat(invitationService.createEmployeeInvitations(emails("retried", 200), adminId))
+                .allSatisfy(result -> assertThat(result.status()).isEqualTo(BulkInvitationResult.Status.INVITED));
+    }
+
+    private static List<String> emails(String domain, int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> "reader" + i + "@" + domain + ".bookly.test")
+                .toList();
+    }
+
+    private UUID createAdmin(UUID tenantId, String schema) {
+        UUID adminId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO public.tenants (id, schema_name, display_name) VALUES (?, ?, ?)",
+                tenantId, schema, "Library " + schema);
+        jdbcTemplate.update("""
+                INSERT INTO public.users (id, username, email, firstname, lastname, password, role, tenant_id)
+                VALUES (?, ?, ?, 'Ada', 'Lovelace', 'x', 'ROLE_LIBRARY_ADMIN', ?)
+                """, adminId, "admin-" + schema, schema + "@bookly.test", tenantId);
+        return adminId;
+    }
+}
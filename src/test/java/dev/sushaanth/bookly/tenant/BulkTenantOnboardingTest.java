@@ -0,0 +1,100 @@
+package dev.sushaanth.bookly.tenant;
+
+import dev.sushaanth.bookly.security.jwt.JwtTokenUtil;
+import dev.sushaanth.bookly.security.model.Role;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that only library admins can create tenants in bulk.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.mail.username=noreply@bookly.test",
+        "spring.mail.password=secret",
+        "application.base-url=http://localhost:8080",
+        "jwt.secret=YnVsay10ZW5hbnQtb25ib2FyZGluZy10ZXN0LXNpZ25pbmcta2V5LTAxMjM0NTY3"
+})
+class BulkTenantOnboardingTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15.0")
+            .withDatabaseName("multitenant-test")
+            .withUsername("postgres")
+            .withPassword("postgres");
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JwtTokenUtil jwtTokenUtil;
+
+    @Test
+    void employeeCannotCreateTenants() {
+        String token = createUser("employee-bulk", Role.ROLE_EMPLOYEE);
+
+        ResponseEntity<String> response = createTenants(token, "Employee Library");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(countTenants("Employee Library")).isZero();
+    }
+
+    @Test
+    void adminCanCreateTenants() {
+        String token = createUser("admin-bulk", Role.ROLE_LIBRARY_ADMIN);
+
+        ResponseEntity<String> response = createTenants(token, "Admin Library");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(countTenants("Admin Library")).isEqualTo(1);
+    }
+
+    private ResponseEntity<String> createTenants(String token, String displayName) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setAccept(List.of(MediaType.APPLICATION_NDJSON, MediaType.APPLICATION_JSON));
+        String body = "{\"tenants\":[{\"displayName\":\"" + displayName + "\"}]}";
+        return restTemplate.exchange("/api/tenants/bulk", HttpMethod.POST, new HttpEntity<>(body, headers), String.class);
+    }
+
+    private long countTenants(String displayName) {
+        return jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM public.tenants WHERE display_name = ?", Long.class, displayName);
+    }
+
+    private String createUser(String username, Role role) {
+        UUID tenantId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        String schema = "tenant_" + username.replace('-', '_');
+        jdbcTemplate.update("INSERT INTO public.tenants (id, schema_name, display_name) VALUES (?, ?, ?)",
+                tenantId, schema, "Library " + schema);
+        jdbcTemplate.update("""
+                INSERT INTO public.users (id, username, email, firstname, lastname, password, role, tenant_id)
+                VALUES (?, ?, ?, 'Ada', 'Lovelace', 'x', ?, ?)
+                """, userId, username, username + "@bookly.test", role.name(), tenantId);
+        return jwtTokenUtil.generateToken(username, userId, tenantId, schema, role);
+    }
+}
@@ -0,0 +1,122 @@
+package dev.sushaanth.bookly.tenant;
+
+import dev.sushaanth.bookly.multitenancy.schema.TenantMigrations;
+import dev.sushaanth.bookly.tenant.TenantOffboardingJob.Phase;
+import dev.sushaanth.bookly.tenant.TenantOffboardingJob.Status;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that an offboarding job left half way by a node that died is finished by the
+ * next resume, while a job another node still holds the lease on is left alone.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(properties = {
+        "spring.mail.username=noreply@bookly.test",
+        "spring.mail.password=secret",
+        "application.base-url=http://localhost:8080",
+        "multitenancy.offboarding.batch-size=7",
+        "multitenancy.offboarding.pause=0ms",
+        "multitenancy.offboarding.resume-ms=3600000"
+})
+class TenantOffboardingResumeTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15.0")
+            .withDatabaseName("multitenant-test")
+            .withUsername("postgres")
+            .withPassword("postgres");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TenantMigrations tenantMigrations;
+
+    @Autowired
+    private TenantRepository tenantRepository;
+
+    @Autowired
+    private TenantOffboardingJobRepository jobRepository;
+
+    @Autowired
+    private TenantOffboardingService offboardingService;
+
+    @Test
+    void interruptedJobIsResumedFromItsPhase() {
+        Tenant crashed = createTenant("tenant_offboard_crashed", 30);
+        Tenant leased = createTenant("tenant_offboard_leased", 5);
+
+        // The node deleted the first 10 users and died, its lease has since run out
+        jdbcTemplate.update("UPDATE public.tenants SET active = FALSE WHERE id = ?", crashed.getId());
+        jdbcTemplate.update("""
+                DELETE FROM public.users WHERE id IN (
+                    SELECT id FROM public.users WHERE tenant_id = ? ORDER BY username LIMIT 10)
+                """, crashed.getId());
+        UUID crashedJob = saveJob(crashed, Phase.DELETE_USERS, 10, LocalDateTime.now().minusMinutes(1));
+        // Still being worked on by another node
+        UUID leasedJob = saveJob(leased, Phase.DELETE_USERS, 0, LocalDateTime.now().plusMinutes(5));
+
+        offboardingService.resumePendingJobs();
+
+        TenantOffboardingJob finished = jobRepository.findById(crashedJob).orElseThrow();
+        assertThat(finished.getStatus()).isEqualTo(Status.COMPLETED);
+        assertThat(finished.getPhase()).isEqualTo(Phase.DONE);
+        assertThat(finished.getRowsDeleted()).isEqualTo(30);
+        assertThat(finished.getTablesDropped()).isEqualTo(2);
+        assertThat(tenantRepository.findById(crashed.getId())).isEmpty();
+        assertThat(countUsers(crashed)).isZero();
+        assertThat(schemaExists(crashed)).isFalse();
+
+        TenantOffboardingJob untouched = jobRepository.findById(leasedJob).orElseThrow();
+        assertThat(untouched.getStatus()).isEqualTo(Status.RUNNING);
+        assertThat(untouched.getPhase()).isEqualTo(Phase.DELETE_USERS);
+        assertThat(countUsers(leased)).isEqualTo(5);
+        assertThat(schemaExists(leased)).isTrue();
+    }
+
+    private Tenant createTenant(String schema, int users) {
+        UUID tenantId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO public.tenants (id, schema_name, display_name) VALUES (?, ?, ?)",
+                tenantId, schema, "Library " + schema);
+        jdbcTemplate.update("""
+                INSERT INTO public.users (id, username, email, firstname, lastname, password, role, tenant_id)
+                SELECT gen_random_uuid(), ? || '-' || i, ? || '-' || i || '@bookly.test', 'Ada', 'Lovelace', 'x', 'ROLE_EMPLOYEE', ?
+                FROM generate_series(1, ?) i
+                """, schema, schema, tenantId, users);
+        jdbcTemplate.execute("CREATE SCHEMA " + schema);
+        tenantMigrations.forSchema(schema).migrate();
+        return tenantRepository.findById(tenantId).orElseThrow();
+    }
+
+    private UUID saveJob(Tenant tenant, Phase phase, long rowsDeleted, LocalDateTime leaseExpiresAt) {
+        TenantOffboardingJob job = new TenantOffboardingJob(tenant);
+        job.setPhase(phase);
+        job.setStatus(Status.RUNNING);
+        job.addRowsDeleted(rowsDeleted);
+        job.setLeaseExpiresAt(leaseExpiresAt);
+        return jobRepository.save(job).getId();
+    }
+
+    private long countUsers(Tenant tenant) {
+        return jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM public.users WHERE tenant_id = ?", Long.class, tenant.getId());
+    }
+
+    private boolean schemaExists(Tenant tenant) {
+        return jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_namespace WHERE nspname = ?)", Boolean.class, tenant.getSchemaName());
+    }
+}
@@ -0,0 +1,127 @@
+package dev.sushaanth.bookly.tenant;
+
+import dev.sushaanth.bookly.security.jwt.JwtTokenUtil;
+import dev.sushaanth.bookly.security.model.Role;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that a tenant can only be offboarded, and its job only read, by an admin of
+ * that tenant.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.mail.username=noreply@bookly.test",
+        "spring.mail.password=secret",
+        "application.base-url=http://localhost:8080",
+        "jwt.secret=dGVuYW50LW9mZmJvYXJkaW5nLXRlc3Qtc2lnbmluZy1rZXktMDEyMzQ1Njc4OQ==",
+        "multitenancy.offboarding.resume-ms=3600000"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TenantOffboardingTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15.0")
+            .withDatabaseName("multitenant-test")
+            .withUsername("postgres")
+            .withPassword("postgres");
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JwtTokenUtil jwtTokenUtil;
+
+    @Autowired
+    private TenantRepository tenantRepository;
+
+    @Autowired
+    private TenantOffboardingJobRepository jobRepository;
+
+    private UUID tenantA;
+    private UUID jobOfA;
+    private String adminOfA;
+    private String employeeOfA;
+    private String adminOfB;
+
+    @BeforeAll
+    void createLibraries() {
+        tenantA = createTenant("tenant_offboard_auth_a");
+        UUID tenantB = createTenant("tenant_offboard_auth_b");
+        adminOfA = createUser("admin-a", tenantA, "tenant_offboard_auth_a", Role.ROLE_LIBRARY_ADMIN);
+        employeeOfA = createUser("employee-a", tenantA, "tenant_offboard_auth_a", Role.ROLE_EMPLOYEE);
+        adminOfB = createUser("admin-b", tenantB, "tenant_offboard_auth_b", Role.ROLE_LIBRARY_ADMIN);
+        // Saved directly and the resume scheduler held off, so nothing runs it
+        jobOfA = jobRepository.save(new TenantOffboardingJob(tenantRepository.findById(tenantA).orElseThrow())).getId();
+    }
+
+    @Test
+    void adminCanReadTheirTenantsJob() {
+        assertThat(exchange(HttpMethod.GET, "/api/tenants/offboarding/" + jobOfA, adminOfA).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void employeeCannotOffboardTheirTenant() {
+        assertThat(exchange(HttpMethod.DELETE, "/api/tenants/" + tenantA, employeeOfA).getStatusCode())
+                .isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(exchange(HttpMethod.GET, "/api/tenants/offboarding/" + jobOfA, employeeOfA).getStatusCode())
+                .isEqualTo(HttpStatus.FORBIDDEN);
+    }
+
+    @Test
+    void adminCannotOffboardAnotherTenant() {
+        assertThat(exchange(HttpMethod.DELETE, "/api/tenants/" + tenantA, adminOfB).getStatusCode())
+                .isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(exchange(HttpMethod.GET, "/api/tenants/offboarding/" + jobOfA, adminOfB).getStatusCode())
+                .isEqualTo(HttpStatus.FORBIDDEN);
+
+        assertThat(tenantRepository.findById(tenantA)).get().extracting(Tenant::getActive).isEqualTo(true);
+        assertThat(jobRepository.findById(jobOfA)).get()
+                .extracting(TenantOffboardingJob::getStatus).isEqualTo(TenantOffboardingJob.Status.PENDING);
+    }
+
+    private ResponseEntity<String> exchange(HttpMethod method, String path, String token) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        return restTemplate.exchange(path, method, new HttpEntity<>(headers), String.class);
+    }
+
+    private UUID createTenant(String schema) {
+        UUID tenantId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO public.tenants (id, schema_name, display_name) VALUES (?, ?, ?)",
+                tenantId, schema, "Library " + schema);
+        return tenantId;
+    }
+
+    private String createUser(String username, UUID tenantId, String schema, Role role) {
+        UUID userId = UUID.randomUUID();
+        jdbcTemplate.update("""
+                INSERT INTO public.users (id, username, email, firstname, lastname, password, role, tenant_id)
+                VALUES (?, ?, ?, 'Ada', 'Lovelace', 'x', ?, ?)
+                """, userId, username, username + "@bookly.test", role.name(), tenantId);
+        return jwtTokenUtil.generateToken(username, userId, tenantId, schema, role);
+    }
+}